@@ -17,6 +17,35 @@ USE `access_db`;
 /*!40101 SET @OLD_SQL_MODE=@@SQL_MODE, SQL_MODE='NO_AUTO_VALUE_ON_ZERO' */;
 /*!40111 SET @OLD_SQL_NOTES=@@SQL_NOTES, SQL_NOTES=0 */;
 
+--
+-- Table structure for table `audit_log_rollups`
+--
+
+DROP TABLE IF EXISTS `audit_log_rollups`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!50503 SET character_set_client = utf8mb4 */;
+CREATE TABLE `audit_log_rollups` (
+  `action` varchar(50) NOT NULL,
+  `bucket_start` datetime(6) NOT NULL,
+  `client_id` bigint NOT NULL,
+  `granularity` char(1) NOT NULL,
+  `event_count` bigint NOT NULL,
+  PRIMARY KEY (`action`,`bucket_start`,`client_id`,`granularity`),
+  KEY `idx_audit_log_rollups_client_bucket` (`client_id`,`granularity`,`bucket_start`),
+  KEY `idx_audit_log_rollups_granularity_bucket` (`granularity`,`bucket_start`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
+--
+-- Dumping data for table `audit_log_rollups`
+--
+
+LOCK TABLES `audit_log_rollups` WRITE;
+/*!40000 ALTER TABLE `audit_log_rollups` DISABLE KEYS */;
+INSERT INTO `audit_log_rollups` (`action`, `bucket_start`, `client_id`, `granularity`, `event_count`) VALUES ('LOGIN','2025-05-29 00:00:00.000000',1,'d',13),('LOGIN','2025-05-29 06:00:00.000000',1,'h',2),('LOGIN','2025-05-29 06:11:00.000000',1,'m',1),('LOGIN','2025-05-29 06:38:00.000000',1,'m',1),('LOGIN','2025-05-29 09:00:00.000000',1,'h',2),('LOGIN','2025-05-29 09:03:00.000000',1,'m',1),('LOGIN','2025-05-29 09:08:00.000000',1,'m',1),('LOGIN','2025-05-29 10:00:00.000000',1,'h',3),('LOGIN','2025-05-29 10:09:00.000000',1,'m',1),('LOGIN','2025-05-29 10:25:00.000000',1,'m',1),('LOGIN','2025-05-29 10:48:00.000000',1,'m',1),('LOGIN','2025-05-29 12:00:00.000000',1,'h',2),('LOGIN','2025-05-29 12:01:00.000000',1,'m',1),('LOGIN','2025-05-29 12:41:00.000000',1,'m',1),('LOGIN','2025-05-29 13:00:00.000000',1,'h',4),('LOGIN','2025-05-29 13:05:00.000000',1,'m',1),('LOGIN','2025-05-29 13:30:00.000000',1,'m',2),('LOGIN','2025-05-29 13:32:00.000000',1,'m',1),('LOGIN_FAILED','2025-05-29 00:00:00.000000',1,'d',2),('LOGIN_FAILED','2025-05-29 12:00:00.000000',1,'h',1),('LOGIN_FAILED','2025-05-29 12:59:00.000000',1,'m',1),('LOGIN_FAILED','2025-05-29 13:00:00.000000',1,'h',1),('LOGIN_FAILED','2025-05-29 13:00:00.000000',1,'m',1),('LOGOUT','2025-05-29 00:00:00.000000',1,'d',4),('LOGOUT','2025-05-29 06:00:00.000000',1,'h',2),('LOGOUT','2025-05-29 06:09:00.000000',1,'m',1),('LOGOUT','2025-05-29 06:38:00.000000',1,'m',1),('LOGOUT','2025-05-29 12:00:00.000000',1,'h',1),('LOGOUT','2025-05-29 12:01:00.000000',1,'m',1),('LOGOUT','2025-05-29 13:00:00.000000',1,'h',1),('LOGOUT','2025-05-29 13:32:00.000000',1,'m',1),('REGISTER','2025-05-29 00:00:00.000000',1,'d',4),('REGISTER','2025-05-29 09:00:00.000000',1,'h',1),('REGISTER','2025-05-29 09:25:00.000000',1,'m',1),('REGISTER','2025-05-29 10:00:00.000000',1,'h',3),('REGISTER','2025-05-29 10:07:00.000000',1,'m',1),('REGISTER','2025-05-29 10:23:00.000000',1,'m',1),('REGISTER','2025-05-29 10:28:00.000000',1,'m',1);
+/*!40000 ALTER TABLE `audit_log_rollups` ENABLE KEYS */;
+UNLOCK TABLES;
+
 --
 -- Table structure for table `audit_logs`
 --
@@ -36,7 +65,12 @@ CREATE TABLE `audit_logs` (
   `user_agent` varchar(255) DEFAULT NULL,
   `user_id` bigint DEFAULT NULL,
   `username` varchar(255) DEFAULT NULL,
-  PRIMARY KEY (`id`)
+  PRIMARY KEY (`id`),
+  KEY `idx_audit_logs_client_timestamp` (`client_id`,`timestamp`,`id`),
+  KEY `idx_audit_logs_client_user_timestamp` (`client_id`,`user_id`,`timestamp`),
+  KEY `idx_audit_logs_client_action_timestamp` (`client_id`,`action`,`timestamp`),
+  KEY `idx_audit_logs_client_entity_timestamp` (`client_id`,`entity_type`,`entity_id`,`timestamp`),
+  KEY `idx_audit_logs_client_ip_timestamp` (`client_id`,`ip_address`,`timestamp`)
 ) ENGINE=InnoDB AUTO_INCREMENT=24 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
 /*!40101 SET character_set_client = @saved_cs_client */;
 
@@ -110,6 +144,23 @@ LOCK TABLES `permissions` WRITE;
 /*!40000 ALTER TABLE `permissions` ENABLE KEYS */;
 UNLOCK TABLES;
 
+--
+-- Table structure for table `rate_limit_counters`
+--
+
+DROP TABLE IF EXISTS `rate_limit_counters`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!50503 SET character_set_client = utf8mb4 */;
+CREATE TABLE `rate_limit_counters` (
+  `limit_key` varchar(255) NOT NULL,
+  `window_start` bigint NOT NULL,
+  `expires_at` bigint NOT NULL,
+  `request_count` bigint NOT NULL,
+  PRIMARY KEY (`limit_key`,`window_start`),
+  KEY `idx_rate_limit_counters_expires_at` (`expires_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
 --
 -- Table structure for table `refresh_tokens`
 --
@@ -121,13 +172,17 @@ CREATE TABLE `refresh_tokens` (
   `id` bigint NOT NULL AUTO_INCREMENT,
   `client_id` bigint DEFAULT NULL,
   `expiry_date` datetime(6) NOT NULL,
-  `token` varchar(255) NOT NULL,
-  `user_id` bigint DEFAULT NULL,
+  `family_id` char(36) NOT NULL,
+  `rotation_count` bigint NOT NULL DEFAULT '0',
+  `token_hash` char(64) NOT NULL,
+  `user_id` bigint NOT NULL,
   PRIMARY KEY (`id`),
-  UNIQUE KEY `UKghpmfn23vmxfu3spu3lfg4r2d` (`token`),
-  UNIQUE KEY `UK7tdcd6ab5wsgoudnvj7xf1b7l` (`user_id`),
+  UNIQUE KEY `uk_refresh_tokens_token_hash` (`token_hash`),
+  UNIQUE KEY `uk_refresh_tokens_family_id` (`family_id`),
+  KEY `idx_refresh_tokens_user_id` (`user_id`),
+  KEY `idx_refresh_tokens_expiry_date` (`expiry_date`),
   CONSTRAINT `FK1lih5y2npsf8u5o3vhdb9y0os` FOREIGN KEY (`user_id`) REFERENCES `users` (`id`)
-) ENGINE=InnoDB AUTO_INCREMENT=14 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
 /*!40101 SET character_set_client = @saved_cs_client */;
 
 --
@@ -136,7 +191,6 @@ CREATE TABLE `refresh_tokens` (
 
 LOCK TABLES `refresh_tokens` WRITE;
 /*!40000 ALTER TABLE `refresh_tokens` DISABLE KEYS */;
-INSERT INTO `refresh_tokens` (`id`, `client_id`, `expiry_date`, `token`, `user_id`) VALUES (3,1,'2025-06-05 17:09:06.130835','4ea9e7b8-0838-4a88-805d-a52d18787d2e',3),(5,1,'2025-06-05 17:48:21.647496','895a05f7-a41a-45d2-9c1f-0381ad0fdfbd',4),(13,1,'2025-06-05 13:38:09.262647','f60c835b-a2f7-45e0-b20b-59a103aa7c40',5);
 /*!40000 ALTER TABLE `refresh_tokens` ENABLE KEYS */;
 UNLOCK TABLES;
 
@@ -197,6 +251,26 @@ INSERT INTO `roles` (`id`, `client_id`, `description`, `is_predefined`, `name`)
 /*!40000 ALTER TABLE `roles` ENABLE KEYS */;
 UNLOCK TABLES;
 
+--
+-- Table structure for table `security_events`
+--
+
+DROP TABLE IF EXISTS `security_events`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!50503 SET character_set_client = utf8mb4 */;
+CREATE TABLE `security_events` (
+  `id` bigint NOT NULL AUTO_INCREMENT,
+  `created_at` bigint NOT NULL,
+  `event_type` varchar(32) NOT NULL,
+  `expires_at` bigint DEFAULT NULL,
+  `origin_node` varchar(36) NOT NULL,
+  `subject_key` varchar(255) DEFAULT NULL,
+  `user_id` bigint DEFAULT NULL,
+  PRIMARY KEY (`id`),
+  KEY `idx_security_events_created_at` (`created_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
 --
 -- Table structure for table `token_blacklist`
 --
@@ -209,8 +283,10 @@ CREATE TABLE `token_blacklist` (
   `blacklisted_at` datetime(6) DEFAULT NULL,
   `client_id` bigint DEFAULT NULL,
   `expiry_date` datetime(6) DEFAULT NULL,
-  `token` varchar(500) NOT NULL,
-  PRIMARY KEY (`id`)
+  `token_key` varchar(64) NOT NULL,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_token_blacklist_token_key` (`token_key`),
+  KEY `idx_token_blacklist_expiry_date` (`expiry_date`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
 /*!40101 SET character_set_client = @saved_cs_client */;
 
@@ -269,6 +345,7 @@ CREATE TABLE `users` (
   `password` varchar(120) NOT NULL,
   `phone_number` varchar(15) DEFAULT NULL,
   `is_super_admin` bit(1) DEFAULT NULL,
+  `token_version` bigint NOT NULL DEFAULT '0',
   `username` varchar(50) NOT NULL,
   PRIMARY KEY (`id`),
   UNIQUE KEY `UKr43af9ap4edm43mmtq01oddj6` (`username`),
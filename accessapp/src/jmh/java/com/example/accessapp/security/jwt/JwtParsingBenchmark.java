@@ -0,0 +1,72 @@
+package com.example.accessapp.security.jwt;
+
+import com.example.accessapp.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.Key;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of verifying a token with the signing key and parser built once in JwtUtils,
+ * compared with decoding the secret and building the parser on every call as before.
+ * The per-call variants reproduce the previous request path, which validated the token
+ * and then parsed it again to extract the username.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtParsingBenchmark {
+
+    private static final String SECRET = "accessAppSecretKey123456789012345678901234567890ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    private JwtUtils jwtUtils;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 86400000);
+        jwtUtils.init();
+
+        User user = new User("benchmark", "benchmark@example.com", "password");
+        token = jwtUtils.generateTokenFromUser(user);
+    }
+
+    @Benchmark
+    public Claims cachedParser() {
+        return jwtUtils.parseClaims(token);
+    }
+
+    @Benchmark
+    public Claims perCallParser() {
+        return Jwts.parserBuilder().setSigningKey(perCallKey()).build().parseClaimsJws(token).getBody();
+    }
+
+    @Benchmark
+    public String perCallValidateThenExtract() {
+        Jwts.parserBuilder().setSigningKey(perCallKey()).build().parseClaimsJws(token);
+        return Jwts.parserBuilder().setSigningKey(perCallKey()).build().parseClaimsJws(token).getBody().getSubject();
+    }
+
+    private static Key perCallKey() {
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.accessapp.security.permission;
+
+import com.example.accessapp.security.services.UserDetailsImpl;
+import org.aopalliance.intercept.MethodInvocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.authorization.method.PreAuthorizeAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.util.SimpleMethodInvocation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Cost of one method security check: a {@code @PreAuthorize("hasAnyRole(...)")} expression evaluated by
+ * Spring Security against {@code @RequiresPermission} compiled into a bitset, for the same role requirement.
+ * The managers are called directly, without a proxy, so only the authorization decision is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PermissionCheckBenchmark {
+
+    // Permissions held besides the role, which the SpEL path copies into a set on every check
+    @Param({"3", "40"})
+    private int permissionCount;
+
+    @Param({"ADMIN", "USER"})
+    private String role;
+
+    private PreAuthorizeAuthorizationManager preAuthorizeManager;
+    private RequiresPermissionAuthorizationManager requiresPermissionManager;
+    private MethodInvocation preAuthorizeInvocation;
+    private MethodInvocation requiresPermissionInvocation;
+    private Supplier<Authentication> authentication;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        preAuthorizeManager = new PreAuthorizeAuthorizationManager();
+        requiresPermissionManager = new RequiresPermissionAuthorizationManager(new PermissionIndex());
+
+        SecuredTarget target = new SecuredTarget();
+        preAuthorizeInvocation = new SimpleMethodInvocation(target, SecuredTarget.class.getMethod("preAuthorize"));
+        requiresPermissionInvocation = new SimpleMethodInvocation(target, SecuredTarget.class.getMethod("requiresPermission"));
+
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        authorities.add(new SimpleGrantedAuthority("ROLE_" + role));
+        for (int i = 0; i < permissionCount; i++) {
+            authorities.add(new SimpleGrantedAuthority("PERMISSION_" + i));
+        }
+        UserDetailsImpl principal = new UserDetailsImpl(1L, "benchmark", "benchmark@example.com", "password",
+                true, false, 1L, 0L, authorities);
+        Authentication auth = new UsernamePasswordAuthenticationToken(principal, null, authorities);
+        authentication = () -> auth;
+    }
+
+    @Benchmark
+    public AuthorizationResult preAuthorize() {
+        return preAuthorizeManager.authorize(authentication, preAuthorizeInvocation);
+    }
+
+    @Benchmark
+    public AuthorizationResult requiresPermission() {
+        return requiresPermissionManager.authorize(authentication, requiresPermissionInvocation);
+    }
+
+    /**
+     * The same requirement in both notations, as on the controllers
+     */
+    public static class SecuredTarget {
+
+        @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+        public void preAuthorize() {
+        }
+
+        @RequiresPermission(roles = {"ADMIN", "SUPER_ADMIN"})
+        public void requiresPermission() {
+        }
+    }
+}
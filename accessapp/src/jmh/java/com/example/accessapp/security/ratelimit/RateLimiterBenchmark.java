@@ -0,0 +1,80 @@
+package com.example.accessapp.security.ratelimit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the in-memory limiter engines under contention from 64 threads, more than the cores of
+ * a typical node, as when a large request thread pool is saturated.
+ * With one key every thread updates the same counter, as when a single client floods an endpoint;
+ * with many keys the threads mostly touch different counters. The budget of a key is spent within
+ * milliseconds, so the measurement is dominated by rejections, which is the path that matters under abuse.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(64)
+@State(Scope.Benchmark)
+public class RateLimiterBenchmark {
+
+    private static final RateLimitRule RULE = new RateLimitRule("benchmark", 60, 60000);
+
+    @Param({"SLIDING_WINDOW", "TOKEN_BUCKET"})
+    private RateLimitProperties.Algorithm algorithm;
+
+    @Param({"1", "1024"})
+    private int keyCount;
+
+    private RateLimiter limiter;
+    private String[] keys;
+
+    @Setup
+    public void setUp() {
+        limiter = algorithm == RateLimitProperties.Algorithm.TOKEN_BUCKET
+                ? new TokenBucketRateLimiter()
+                : new SlidingWindowRateLimiter();
+        keys = new String[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = "10.0." + (i / 256) + "." + (i % 256) + ":/api/users";
+        }
+    }
+
+    /**
+     * Position of one benchmark thread in the key list, starting at a random key so threads do not move in step
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        @Setup
+        public void setUp(RateLimiterBenchmark benchmark) {
+            next = ThreadLocalRandom.current().nextInt(benchmark.keyCount);
+        }
+
+        int next(int keyCount) {
+            int index = next;
+            next = index + 1 == keyCount ? 0 : index + 1;
+            return index;
+        }
+    }
+
+    @Benchmark
+    public RateLimitDecision tryAcquire(Cursor cursor) {
+        return limiter.tryAcquire(keys[cursor.next(keyCount)], RULE);
+    }
+}
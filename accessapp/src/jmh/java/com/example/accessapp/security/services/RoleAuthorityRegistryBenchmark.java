@@ -0,0 +1,88 @@
+package com.example.accessapp.security.services;
+
+import com.example.accessapp.entity.Permission;
+import com.example.accessapp.entity.Role;
+import com.example.accessapp.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Cost of building a principal's authorities from the precomputed per-role lists of RoleAuthorityRegistry,
+ * compared with creating an authority per role and permission on every request as before.
+ * Run with -prof gc to compare the allocation rates as well.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RoleAuthorityRegistryBenchmark {
+
+    @Param({"1", "3"})
+    private int roleCount;
+
+    @Param({"5", "40"})
+    private int permissionsPerRole;
+
+    private RoleAuthorityRegistry registry;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        registry = new RoleAuthorityRegistry();
+        user = new User("benchmark", "benchmark@example.com", "password");
+        user.setId(1L);
+
+        long permissionId = 1;
+        for (int r = 0; r < roleCount; r++) {
+            Role role = new Role("ROLE" + r);
+            role.setId((long) r + 1);
+            Set<Permission> permissions = new HashSet<>();
+            for (int p = 0; p < permissionsPerRole; p++) {
+                Permission permission = new Permission("PERMISSION_" + r + "_" + p);
+                permission.setId(permissionId++);
+                permissions.add(permission);
+            }
+            role.setPermissions(permissions);
+            user.addRole(role);
+        }
+    }
+
+    @Benchmark
+    public UserDetailsImpl registry() {
+        return UserDetailsImpl.build(user, registry);
+    }
+
+    @Benchmark
+    public UserDetailsImpl perRequest() {
+        List<GrantedAuthority> authorities = user.getRoles().stream()
+                .map(role -> new SimpleGrantedAuthority("ROLE_" + role.getName()))
+                .collect(Collectors.toList());
+        List<GrantedAuthority> permissionAuthorities = user.getRoles().stream()
+                .flatMap(role -> role.getPermissions().stream())
+                .map(permission -> new SimpleGrantedAuthority(permission.getName()))
+                .collect(Collectors.toList());
+        authorities.addAll(permissionAuthorities);
+
+        return new UserDetailsImpl(user.getId(), user.getUsername(), user.getEmail(), user.getPassword(),
+                user.isEnabled(), user.isSuperAdmin(), user.getClientId(), user.getTokenVersion(), authorities);
+    }
+}
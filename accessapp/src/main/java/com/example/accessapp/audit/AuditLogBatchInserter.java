@@ -0,0 +1,129 @@
+package com.example.accessapp.audit;
+
+import com.example.accessapp.entity.AuditLog;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes audit log entries with JDBC batch inserts, bypassing the entity manager.
+ * AuditLog uses IDENTITY ids, which prevents Hibernate from batching inserts;
+ * with rewriteBatchedStatements enabled the MySQL driver turns each batch into multi-row INSERTs.
+ * The audit rollups are updated in the same transaction, so counts never include entries that were not written.
+ * Text fields are cut to their column lengths first: the JDBC path skips bean validation, and a single
+ * overlong value, e.g. an attacker supplied User-Agent, would otherwise fail the whole batch in strict mode.
+ */
+@Component
+public class AuditLogBatchInserter {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO audit_logs (action, details, entity_type, entity_id, user_id, username, ip_address, user_agent, timestamp, client_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Column lengths of audit_logs, see the AuditLog entity
+    static final int ACTION_LENGTH = 50;
+    static final int DETAILS_LENGTH = 500;
+    static final int ENTITY_TYPE_LENGTH = 100;
+    static final int USERNAME_LENGTH = 255;
+    static final int IP_ADDRESS_LENGTH = 255;
+    static final int USER_AGENT_LENGTH = 255;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AuditRollupStore rollupStore;
+    private final TransactionTemplate transactionTemplate;
+
+    public AuditLogBatchInserter(JdbcTemplate jdbcTemplate, AuditRollupStore rollupStore,
+                                 TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rollupStore = rollupStore;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Insert a batch of audit log entries
+     *
+     * @param auditLogs the entries to insert
+     */
+    public void insertAll(List<AuditLog> auditLogs) {
+        if (auditLogs.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (AuditLog auditLog : auditLogs) {
+            if (auditLog.getTimestamp() == null) {
+                auditLog.setTimestamp(now);
+            }
+            fitToColumns(auditLog);
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            insertRows(auditLogs);
+            rollupStore.record(auditLogs);
+        });
+    }
+
+    /**
+     * Insert audit log entries one at a time, e.g. after their batch was rejected,
+     * so that an entry the database refuses only loses itself
+     *
+     * @param auditLogs the entries to insert
+     * @return the entries rejected with a data error, in order
+     * @throws DataAccessException on any other failure, e.g. when the database is unavailable
+     */
+    public List<AuditLog> insertEach(List<AuditLog> auditLogs) {
+        List<AuditLog> rejected = new ArrayList<>();
+        for (AuditLog auditLog : auditLogs) {
+            try {
+                insertAll(List.of(auditLog));
+            } catch (DataIntegrityViolationException e) {
+                rejected.add(auditLog);
+            }
+        }
+        return rejected;
+    }
+
+    /**
+     * Cut the text fields of an entry to the lengths of their columns
+     *
+     * @param auditLog the entry to adjust in place
+     */
+    static void fitToColumns(AuditLog auditLog) {
+        auditLog.setAction(truncate(auditLog.getAction(), ACTION_LENGTH));
+        auditLog.setDetails(truncate(auditLog.getDetails(), DETAILS_LENGTH));
+        auditLog.setEntityType(truncate(auditLog.getEntityType(), ENTITY_TYPE_LENGTH));
+        auditLog.setUsername(truncate(auditLog.getUsername(), USERNAME_LENGTH));
+        auditLog.setIpAddress(truncate(auditLog.getIpAddress(), IP_ADDRESS_LENGTH));
+        auditLog.setUserAgent(truncate(auditLog.getUserAgent(), USER_AGENT_LENGTH));
+    }
+
+    private static String truncate(String value, int length) {
+        if (value == null || value.length() <= length) {
+            return value;
+        }
+        // MySQL counts characters, not UTF-16 units; never split a surrogate pair
+        int end = Character.isHighSurrogate(value.charAt(length - 1)) ? length - 1 : length;
+        return value.substring(0, end);
+    }
+
+    private void insertRows(List<AuditLog> auditLogs) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, auditLogs, auditLogs.size(), (ps, auditLog) -> {
+            ps.setString(1, auditLog.getAction());
+            ps.setString(2, auditLog.getDetails());
+            ps.setString(3, auditLog.getEntityType());
+            ps.setObject(4, auditLog.getEntityId(), Types.BIGINT);
+            ps.setObject(5, auditLog.getUserId(), Types.BIGINT);
+            ps.setString(6, auditLog.getUsername());
+            ps.setString(7, auditLog.getIpAddress());
+            ps.setString(8, auditLog.getUserAgent());
+            ps.setTimestamp(9, Timestamp.valueOf(auditLog.getTimestamp()));
+            ps.setObject(10, auditLog.getClientId(), Types.BIGINT);
+        });
+    }
+}
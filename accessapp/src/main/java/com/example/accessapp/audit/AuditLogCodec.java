@@ -0,0 +1,129 @@
+package com.example.accessapp.audit;
+
+import com.example.accessapp.entity.AuditLog;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Compact binary encoding of audit log entries for the local spool.
+ * Every field is nullable; a version byte leads the record so the format can evolve
+ * while older segments are still being replayed.
+ */
+final class AuditLogCodec {
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private AuditLogCodec() {
+    }
+
+    /**
+     * Encode an audit log entry
+     *
+     * @param auditLog the entry to encode
+     * @return the encoded bytes
+     */
+    static byte[] encode(AuditLog auditLog) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            writeString(out, auditLog.getAction());
+            writeString(out, auditLog.getDetails());
+            writeString(out, auditLog.getEntityType());
+            writeLong(out, auditLog.getEntityId());
+            writeLong(out, auditLog.getUserId());
+            writeString(out, auditLog.getUsername());
+            writeString(out, auditLog.getIpAddress());
+            writeString(out, auditLog.getUserAgent());
+            writeTimestamp(out, auditLog.getTimestamp());
+            writeLong(out, auditLog.getClientId());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decode an audit log entry
+     *
+     * @param data the encoded bytes
+     * @return the decoded entry
+     */
+    static AuditLog decode(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            byte version = in.readByte();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalStateException("Unsupported audit spool record version: " + version);
+            }
+            AuditLog auditLog = new AuditLog();
+            auditLog.setAction(readString(in));
+            auditLog.setDetails(readString(in));
+            auditLog.setEntityType(readString(in));
+            auditLog.setEntityId(readLong(in));
+            auditLog.setUserId(readLong(in));
+            auditLog.setUsername(readString(in));
+            auditLog.setIpAddress(readString(in));
+            auditLog.setUserAgent(readString(in));
+            auditLog.setTimestamp(readTimestamp(in));
+            auditLog.setClientId(readLong(in));
+            return auditLog;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static Long readLong(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    private static void writeTimestamp(DataOutputStream out, LocalDateTime value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(value.getNano());
+        }
+    }
+
+    private static LocalDateTime readTimestamp(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        long seconds = in.readLong();
+        int nanos = in.readInt();
+        return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+}
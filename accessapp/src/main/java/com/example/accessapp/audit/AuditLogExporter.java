@@ -0,0 +1,264 @@
+package com.example.accessapp.audit;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams audit logs straight from a forward-only JDBC result set to an output stream.
+ * Rows are written as they are read, so memory use does not depend on the number of rows exported.
+ * With MySQL Connector/J, a fetch size of Integer.MIN_VALUE makes the driver stream rows one by one
+ * instead of buffering the whole result.
+ */
+@Component
+public class AuditLogExporter {
+
+    /**
+     * Output format of an export
+     */
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private static final String[] COLUMNS = {
+        "id", "timestamp", "client_id", "user_id", "username", "action", "entity_type", "entity_id", "details", "ip_address", "user_agent"
+    };
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AuditProperties properties;
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    public AuditLogExporter(JdbcTemplate jdbcTemplate, AuditProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+    }
+
+    /**
+     * Write all audit logs of a client matching the optional filters, oldest first
+     *
+     * @param output the stream to write to; it is not closed
+     * @param format the output format
+     * @param gzip whether to gzip the output
+     * @param clientId the client ID
+     * @param startTime inclusive lower bound of the timestamp, or null
+     * @param endTime inclusive upper bound of the timestamp, or null
+     * @param userId the user ID to filter on, or null
+     * @param action the action to filter on, or null
+     * @return the number of rows written
+     */
+    public long export(OutputStream output, Format format, boolean gzip, Long clientId,
+                       LocalDateTime startTime, LocalDateTime endTime, Long userId, String action) throws IOException {
+        StringBuilder sql = new StringBuilder("SELECT ").append(String.join(", ", COLUMNS))
+                .append(" FROM audit_logs WHERE client_id = ?");
+        List<Object> args = new ArrayList<>();
+        args.add(clientId);
+        if (startTime != null) {
+            sql.append(" AND timestamp >= ?");
+            args.add(Timestamp.valueOf(startTime));
+        }
+        if (endTime != null) {
+            sql.append(" AND timestamp <= ?");
+            args.add(Timestamp.valueOf(endTime));
+        }
+        if (userId != null) {
+            sql.append(" AND user_id = ?");
+            args.add(userId);
+        }
+        if (action != null) {
+            sql.append(" AND action = ?");
+            args.add(action);
+        }
+        sql.append(" ORDER BY timestamp, id");
+
+        OutputStream target = gzip ? new GZIPOutputStream(output, BUFFER_SIZE) : new BufferedOutputStream(output, BUFFER_SIZE);
+        RowWriter rowWriter = format == Format.CSV ? new CsvRowWriter(target) : new JsonRowWriter(target);
+
+        long[] rows = {0};
+        try {
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(properties.getExportFetchSize());
+                for (int i = 0; i < args.size(); i++) {
+                    ps.setObject(i + 1, args.get(i));
+                }
+                return ps;
+            }, (RowCallbackHandler) rs -> {
+                try {
+                    rowWriter.write(rs);
+                    rows[0]++;
+                } catch (IOException e) {
+                    // Typically the client went away; abort the query
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        rowWriter.finish();
+        if (target instanceof GZIPOutputStream) {
+            ((GZIPOutputStream) target).finish();
+        }
+        target.flush();
+        return rows[0];
+    }
+
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+
+        void finish() throws IOException;
+    }
+
+    /**
+     * One JSON object per line
+     */
+    private class JsonRowWriter implements RowWriter {
+        private final JsonGenerator generator;
+        private boolean empty = true;
+
+        JsonRowWriter(OutputStream output) throws IOException {
+            generator = jsonFactory.createGenerator(output);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(new SerializedString("\n"));
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("id", rs.getLong("id"));
+            Timestamp timestamp = rs.getTimestamp("timestamp");
+            generator.writeStringField("timestamp", timestamp != null ? timestamp.toLocalDateTime().toString() : null);
+            writeLong("clientId", rs.getLong("client_id"), rs.wasNull());
+            writeLong("userId", rs.getLong("user_id"), rs.wasNull());
+            generator.writeStringField("username", rs.getString("username"));
+            generator.writeStringField("action", rs.getString("action"));
+            generator.writeStringField("entityType", rs.getString("entity_type"));
+            writeLong("entityId", rs.getLong("entity_id"), rs.wasNull());
+            generator.writeStringField("details", rs.getString("details"));
+            generator.writeStringField("ipAddress", rs.getString("ip_address"));
+            generator.writeStringField("userAgent", rs.getString("user_agent"));
+            generator.writeEndObject();
+            empty = false;
+        }
+
+        private void writeLong(String name, long value, boolean isNull) throws IOException {
+            if (isNull) {
+                generator.writeNullField(name);
+            } else {
+                generator.writeNumberField(name, value);
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (!empty) {
+                generator.writeRaw('\n');
+            }
+            generator.flush();
+        }
+    }
+
+    /**
+     * RFC 4180 CSV with a header row; text that would start a formula is prefixed with a quote
+     */
+    private static class CsvRowWriter implements RowWriter {
+        // Leading characters that make spreadsheets treat a cell as a formula
+        private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+        private final Writer writer;
+        private final StringBuilder line = new StringBuilder(256);
+
+        CsvRowWriter(OutputStream output) throws IOException {
+            writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+            writer.write(String.join(",", COLUMNS));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            line.setLength(0);
+            for (int i = 0; i < COLUMNS.length; i++) {
+                if (i > 0) {
+                    line.append(',');
+                }
+                Object value = rs.getObject(i + 1);
+                if (value instanceof Timestamp) {
+                    value = ((Timestamp) value).toLocalDateTime();
+                }
+                if (value instanceof String) {
+                    appendText((String) value);
+                } else if (value != null) {
+                    appendEscaped(value.toString());
+                }
+            }
+            line.append("\r\n");
+            writer.write(line.toString());
+        }
+
+        /**
+         * Append a text value, neutralizing values a spreadsheet would evaluate as a formula.
+         * Usernames and user agents come from clients, so such values get a leading quote and are quoted
+         * (OWASP CSV injection guidance).
+         */
+        private void appendText(String value) {
+            if (!value.isEmpty() && FORMULA_PREFIXES.indexOf(value.charAt(0)) >= 0) {
+                line.append("\"'").append(value.replace("\"", "\"\"")).append('"');
+                return;
+            }
+            appendEscaped(value);
+        }
+
+        private void appendEscaped(String value) {
+            boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                    || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+            if (!quote) {
+                line.append(value);
+                return;
+            }
+            line.append('"').append(value.replace("\"", "\"\"")).append('"');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+    }
+}
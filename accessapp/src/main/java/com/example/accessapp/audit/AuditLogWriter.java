@@ -0,0 +1,220 @@
+package com.example.accessapp.audit;
+
+import com.example.accessapp.entity.AuditLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous audit log ingestion pipeline.
+ * Request threads enqueue audit entries into a bounded queue; a dedicated writer thread
+ * drains it and inserts entries in JDBC batches every {@code batchSize} entries or
+ * {@code flushIntervalMs} milliseconds, whichever comes first. The queue is drained on shutdown.
+ * When the durable spool is enabled, entries are appended to it first and the spool replays them
+ * into the database; the queue is then only used if the spool is full or unavailable.
+ * With the SPILL overflow policy the order is reversed: the queue comes first and only the entries that do not
+ * fit are appended to the spool, so bursts are absorbed on disk while normal traffic skips it. Spilled and queued
+ * entries are written independently, so they may reach the database out of order.
+ * A batch refused with a data error is retried entry by entry, so a bad entry does not take its batch with it.
+ */
+@Component
+public class AuditLogWriter {
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogWriter.class);
+
+    private final AuditProperties properties;
+    private final AuditLogBatchInserter batchInserter;
+    private final AuditSpool spool;
+    private final BlockingQueue<AuditLog> queue;
+
+    private final Counter writtenCounter;
+    private final Counter droppedCounter;
+    private final Counter spilledCounter;
+    private final Counter failedCounter;
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public AuditLogWriter(AuditProperties properties, AuditLogBatchInserter batchInserter, AuditSpool spool,
+                          MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.batchInserter = batchInserter;
+        this.spool = spool;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+
+        this.writtenCounter = Counter.builder("accessapp.audit.written").register(meterRegistry);
+        this.droppedCounter = Counter.builder("accessapp.audit.dropped").register(meterRegistry);
+        this.spilledCounter = Counter.builder("accessapp.audit.spilled").register(meterRegistry);
+        this.failedCounter = Counter.builder("accessapp.audit.failed").register(meterRegistry);
+        Gauge.builder("accessapp.audit.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    /**
+     * Start the writer thread when asynchronous ingestion is enabled
+     */
+    @PostConstruct
+    public void start() {
+        if (!properties.isAsync()) {
+            return;
+        }
+        running = true;
+        writerThread = new Thread(this::runWriter, "audit-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Stop accepting entries and flush everything still queued
+     */
+    @PreDestroy
+    public void stop() {
+        if (writerThread == null) {
+            return;
+        }
+        running = false;
+        writerThread.interrupt();
+        try {
+            writerThread.join(properties.getShutdownTimeoutMs());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            logger.warn("Audit log writer stopped with {} entries still queued", queue.size());
+        }
+    }
+
+    /**
+     * Check if entries are written asynchronously
+     *
+     * @return true if the spool or the writer thread is running
+     */
+    public boolean isAsync() {
+        return spool.isRunning() || running;
+    }
+
+    /**
+     * Queue an audit log entry for writing, applying the overflow policy when the queue is full
+     *
+     * @param auditLog the entry to write
+     */
+    public void submit(AuditLog auditLog) {
+        // Under SPILL the spool only takes what the queue cannot
+        boolean spillOnOverflow = running && properties.getOverflowPolicy() == AuditProperties.OverflowPolicy.SPILL;
+        if (!spillOnOverflow && spool.append(auditLog)) {
+            return;
+        }
+
+        if (!running) {
+            writeNow(auditLog);
+            return;
+        }
+
+        if (queue.offer(auditLog)) {
+            return;
+        }
+
+        switch (properties.getOverflowPolicy()) {
+            case DROP:
+                droppedCounter.increment();
+                logger.warn("Audit queue full, dropped entry: {}", auditLog.getAction());
+                break;
+            case BLOCK:
+                try {
+                    if (queue.offer(auditLog, properties.getBlockTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                        return;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                writeNow(auditLog);
+                break;
+            case SPILL:
+                if (spool.append(auditLog)) {
+                    spilledCounter.increment();
+                    return;
+                }
+                writeNow(auditLog);
+                break;
+            case CALLER_RUNS:
+            default:
+                writeNow(auditLog);
+                break;
+        }
+    }
+
+    /**
+     * Writer loop: collect up to one batch or until the flush interval elapses, then insert
+     */
+    private void runWriter() {
+        List<AuditLog> batch = new ArrayList<>(properties.getBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getFlushIntervalMs());
+                while (batch.size() < properties.getBatchSize()) {
+                    long waitNanos = deadline - System.nanoTime();
+                    if (waitNanos <= 0) {
+                        break;
+                    }
+                    AuditLog auditLog = queue.poll(waitNanos, TimeUnit.NANOSECONDS);
+                    if (auditLog == null) {
+                        break;
+                    }
+                    batch.add(auditLog);
+                    queue.drainTo(batch, properties.getBatchSize() - batch.size());
+                }
+            } catch (InterruptedException e) {
+                // Shutdown requested: drain whatever is left and let the loop finish
+                queue.drainTo(batch, properties.getBatchSize() - batch.size());
+            }
+
+            flush(batch);
+        }
+    }
+
+    private void flush(List<AuditLog> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            batchInserter.insertAll(batch);
+            writtenCounter.increment(batch.size());
+        } catch (DataIntegrityViolationException e) {
+            // Some entry was refused; retry one by one so that only the refused entries are lost
+            flushEach(batch);
+        } catch (Exception e) {
+            failedCounter.increment(batch.size());
+            logger.error("Failed to write {} audit log entries: {}", batch.size(), e.getMessage());
+        }
+        batch.clear();
+    }
+
+    private void flushEach(List<AuditLog> batch) {
+        try {
+            List<AuditLog> rejected = batchInserter.insertEach(batch);
+            writtenCounter.increment(batch.size() - rejected.size());
+            failedCounter.increment(rejected.size());
+            for (AuditLog auditLog : rejected) {
+                logger.error("Audit log entry refused by the database: {} at {}", auditLog.getAction(), auditLog.getTimestamp());
+            }
+        } catch (Exception e) {
+            // Entries inserted before the failure are kept but still counted as failed
+            failedCounter.increment(batch.size());
+            logger.error("Failed to write {} audit log entries one by one: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    private void writeNow(AuditLog auditLog) {
+        flush(new ArrayList<>(List.of(auditLog)));
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.accessapp.audit;
+
+import com.example.accessapp.housekeeping.HousekeepingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Manages monthly range partitions of the audit_logs table when partitioning is enabled.
+ * Partition pYYYYMM holds the entries before the first day of the following month, and pmax catches
+ * anything beyond the newest month. Partitions are created monthsAhead months in advance by splitting pmax.
+ * A month is dropped as a whole once all of it is past the longest audit retention of any client, so
+ * retention costs one DDL statement instead of a large DELETE. Shorter per-client retentions are still
+ * applied row by row by the housekeeping reaper.
+ * On first run, an unpartitioned table is converted: timestamp becomes NOT NULL and part of the
+ * primary key, as MySQL requires of the partitioning column. This rebuilds the table once.
+ * Queries that compare the timestamp column directly, like the keyset and time range queries, only
+ * read the partitions their range covers.
+ */
+@Component
+public class AuditPartitionManager {
+    private static final Logger logger = LoggerFactory.getLogger(AuditPartitionManager.class);
+
+    private static final Pattern MONTHLY_PARTITION = Pattern.compile("p(\\d{4})(\\d{2})");
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+    private static final String MAX_PARTITION = "pmax";
+
+    private static final String PARTITIONS_SQL = "SELECT PARTITION_NAME FROM information_schema.PARTITIONS "
+            + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'audit_logs' AND PARTITION_NAME IS NOT NULL "
+            + "ORDER BY PARTITION_ORDINAL_POSITION";
+
+    private final AuditProperties properties;
+    private final HousekeepingProperties housekeepingProperties;
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile boolean partitioned;
+    private volatile int partitionCount;
+
+    private final Counter createdCounter;
+    private final Counter droppedCounter;
+
+    public AuditPartitionManager(AuditProperties properties, HousekeepingProperties housekeepingProperties,
+                                 JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.housekeepingProperties = housekeepingProperties;
+        this.jdbcTemplate = jdbcTemplate;
+
+        this.createdCounter = Counter.builder("accessapp.audit.partitions.created").register(meterRegistry);
+        this.droppedCounter = Counter.builder("accessapp.audit.partitions.dropped").register(meterRegistry);
+        Gauge.builder("accessapp.audit.partitions", this, AuditPartitionManager::getPartitionCount).register(meterRegistry);
+    }
+
+    /**
+     * Check if audit logs past the longest retention are removed by dropping partitions
+     *
+     * @return the retention applied by dropping partitions in days, 0 if partitions are not dropped
+     */
+    public int getDropRetentionDays() {
+        return partitioned ? housekeepingProperties.getAuditLogs().getLongestRetentionDays() : 0;
+    }
+
+    /**
+     * Get the number of partitions of the audit_logs table
+     *
+     * @return the number of partitions as of the last maintenance run, 0 if the table is not partitioned
+     */
+    public int getPartitionCount() {
+        return partitionCount;
+    }
+
+    /**
+     * Partition the table if needed, create upcoming partitions and drop expired ones
+     * The first run happens right after startup.
+     */
+    @Scheduled(fixedDelayString = "${accessapp.audit.partitioning.maintenanceIntervalMs:3600000}")
+    public void maintain() {
+        if (!properties.getPartitioning().isEnabled()) {
+            return;
+        }
+
+        try {
+            YearMonth current = YearMonth.now();
+            List<String> partitions = jdbcTemplate.queryForList(PARTITIONS_SQL, String.class);
+            if (partitions.isEmpty()) {
+                if (!partitionTable(current)) {
+                    return;
+                }
+                partitions = jdbcTemplate.queryForList(PARTITIONS_SQL, String.class);
+            }
+            partitioned = true;
+
+            createAhead(partitions, current);
+            dropExpired(partitions);
+            partitionCount = jdbcTemplate.queryForList(PARTITIONS_SQL, String.class).size();
+        } catch (DataAccessException e) {
+            // Another node may have changed the partitions concurrently; the next run starts over
+            logger.error("Failed to maintain audit log partitions: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Convert the unpartitioned table to monthly partitions from the month of its oldest entry
+     */
+    private boolean partitionTable(YearMonth current) {
+        Long missingTimestamps = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM audit_logs WHERE timestamp IS NULL", Long.class);
+        if (missingTimestamps != null && missingTimestamps > 0) {
+            logger.error("Cannot partition audit_logs: {} entries have no timestamp", missingTimestamps);
+            return false;
+        }
+
+        Timestamp oldest = jdbcTemplate.queryForObject("SELECT MIN(timestamp) FROM audit_logs", Timestamp.class);
+        YearMonth first = oldest != null ? YearMonth.from(oldest.toLocalDateTime()) : current;
+        YearMonth last = current.plusMonths(properties.getPartitioning().getMonthsAhead());
+
+        logger.info("Partitioning audit_logs by month from {} to {}", first, last);
+        jdbcTemplate.execute("ALTER TABLE audit_logs MODIFY timestamp datetime(6) NOT NULL, "
+                + "DROP PRIMARY KEY, ADD PRIMARY KEY (id, timestamp)");
+        jdbcTemplate.execute("ALTER TABLE audit_logs PARTITION BY RANGE COLUMNS(timestamp) ("
+                + definitions(first, last, true) + ")");
+        createdCounter.increment(first.until(last, ChronoUnit.MONTHS) + 1);
+        return true;
+    }
+
+    /**
+     * Create the partitions up to monthsAhead months after the current one
+     */
+    private void createAhead(List<String> partitions, YearMonth current) {
+        YearMonth newest = null;
+        for (String partition : partitions) {
+            YearMonth month = monthOf(partition);
+            if (month != null && (newest == null || month.isAfter(newest))) {
+                newest = month;
+            }
+        }
+
+        YearMonth first = newest != null ? newest.plusMonths(1) : current;
+        YearMonth last = current.plusMonths(properties.getPartitioning().getMonthsAhead());
+        if (first.isAfter(last)) {
+            return;
+        }
+
+        if (partitions.contains(MAX_PARTITION)) {
+            // pmax is normally empty, so splitting it moves no rows
+            jdbcTemplate.execute("ALTER TABLE audit_logs REORGANIZE PARTITION " + MAX_PARTITION + " INTO ("
+                    + definitions(first, last, true) + ")");
+        } else {
+            jdbcTemplate.execute("ALTER TABLE audit_logs ADD PARTITION (" + definitions(first, last, false) + ")");
+        }
+        createdCounter.increment(first.until(last, ChronoUnit.MONTHS) + 1);
+        logger.info("Created audit log partitions from {} to {}", first, last);
+    }
+
+    /**
+     * Drop the months that lie entirely before the longest retention
+     */
+    private void dropExpired(List<String> partitions) {
+        int retentionDays = housekeepingProperties.getAuditLogs().getLongestRetentionDays();
+        if (retentionDays <= 0) {
+            return;
+        }
+
+        LocalDate cutoff = LocalDate.now().minusDays(retentionDays);
+        List<String> expired = new ArrayList<>();
+        for (String partition : partitions) {
+            YearMonth month = monthOf(partition);
+            if (month != null && !month.plusMonths(1).atDay(1).isAfter(cutoff)) {
+                expired.add(partition);
+            }
+        }
+        if (expired.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.execute("ALTER TABLE audit_logs DROP PARTITION " + String.join(", ", expired));
+        droppedCounter.increment(expired.size());
+        logger.info("Dropped expired audit log partitions {}", expired);
+    }
+
+    /**
+     * Build the definitions of the monthly partitions from first to last, optionally followed by pmax
+     */
+    private static String definitions(YearMonth first, YearMonth last, boolean withMax) {
+        List<String> definitions = new ArrayList<>();
+        for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+            definitions.add("PARTITION " + month.format(PARTITION_NAME)
+                    + " VALUES LESS THAN ('" + month.plusMonths(1).atDay(1) + "')");
+        }
+        if (withMax) {
+            definitions.add("PARTITION " + MAX_PARTITION + " VALUES LESS THAN (MAXVALUE)");
+        }
+        return String.join(", ", definitions);
+    }
+
+    private static YearMonth monthOf(String partition) {
+        Matcher matcher = MONTHLY_PARTITION.matcher(partition);
+        if (!matcher.matches()) {
+            return null;
+        }
+        return YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+    }
+}
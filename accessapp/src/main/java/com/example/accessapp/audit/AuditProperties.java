@@ -0,0 +1,207 @@
+package com.example.accessapp.audit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Audit ingestion configuration bound from {@code accessapp.audit.*} properties.
+ */
+@Component
+@ConfigurationProperties(prefix = "accessapp.audit")
+public class AuditProperties {
+
+    /**
+     * What to do with an audit event when the queue is full
+     */
+    public enum OverflowPolicy {
+        BLOCK,       // Wait up to blockTimeoutMs for space, then write on the caller thread
+        DROP,        // Discard the event and count it
+        CALLER_RUNS, // Write the event synchronously on the caller thread
+        SPILL        // Append the event to the spool, or write it on the caller thread if the spool is off or full
+    }
+
+    private boolean async = true;
+    private int queueCapacity = 10000;
+    private int batchSize = 500;
+    private long flushIntervalMs = 200;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+    private long blockTimeoutMs = 100;
+    private long shutdownTimeoutMs = 10000;
+    private int exportFetchSize = Integer.MIN_VALUE; // MySQL Connector/J: stream rows one at a time
+    private final Spool spool = new Spool();
+    private final Partitioning partitioning = new Partitioning();
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    public void setAsync(boolean async) {
+        this.async = async;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getFlushIntervalMs() {
+        return flushIntervalMs;
+    }
+
+    public void setFlushIntervalMs(long flushIntervalMs) {
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public long getBlockTimeoutMs() {
+        return blockTimeoutMs;
+    }
+
+    public void setBlockTimeoutMs(long blockTimeoutMs) {
+        this.blockTimeoutMs = blockTimeoutMs;
+    }
+
+    public long getShutdownTimeoutMs() {
+        return shutdownTimeoutMs;
+    }
+
+    public void setShutdownTimeoutMs(long shutdownTimeoutMs) {
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+    }
+
+    public int getExportFetchSize() {
+        return exportFetchSize;
+    }
+
+    public void setExportFetchSize(int exportFetchSize) {
+        this.exportFetchSize = exportFetchSize;
+    }
+
+    public Spool getSpool() {
+        return spool;
+    }
+
+    public Partitioning getPartitioning() {
+        return partitioning;
+    }
+
+    /**
+     * Durable local spool configuration bound from {@code accessapp.audit.spool.*} properties
+     */
+    public static class Spool {
+        private boolean enabled = false;
+        private String directory = "data/audit-spool";
+        private int segmentSizeBytes = 16 * 1024 * 1024;
+        private int maxSegments = 64;
+        private long fsyncIntervalMs = 50;
+        private long retryBackoffMs = 500;
+        private long maxRetryBackoffMs = 30000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public int getSegmentSizeBytes() {
+            return segmentSizeBytes;
+        }
+
+        public void setSegmentSizeBytes(int segmentSizeBytes) {
+            this.segmentSizeBytes = segmentSizeBytes;
+        }
+
+        public int getMaxSegments() {
+            return maxSegments;
+        }
+
+        public void setMaxSegments(int maxSegments) {
+            this.maxSegments = maxSegments;
+        }
+
+        public long getFsyncIntervalMs() {
+            return fsyncIntervalMs;
+        }
+
+        public void setFsyncIntervalMs(long fsyncIntervalMs) {
+            this.fsyncIntervalMs = fsyncIntervalMs;
+        }
+
+        public long getRetryBackoffMs() {
+            return retryBackoffMs;
+        }
+
+        public void setRetryBackoffMs(long retryBackoffMs) {
+            this.retryBackoffMs = retryBackoffMs;
+        }
+
+        public long getMaxRetryBackoffMs() {
+            return maxRetryBackoffMs;
+        }
+
+        public void setMaxRetryBackoffMs(long maxRetryBackoffMs) {
+            this.maxRetryBackoffMs = maxRetryBackoffMs;
+        }
+    }
+
+    /**
+     * Monthly partitioning of the audit_logs table bound from {@code accessapp.audit.partitioning.*} properties
+     */
+    public static class Partitioning {
+        private boolean enabled = false;
+        private int monthsAhead = 3;
+        private long maintenanceIntervalMs = 3600000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMonthsAhead() {
+            return monthsAhead;
+        }
+
+        public void setMonthsAhead(int monthsAhead) {
+            this.monthsAhead = monthsAhead;
+        }
+
+        public long getMaintenanceIntervalMs() {
+            return maintenanceIntervalMs;
+        }
+
+        public void setMaintenanceIntervalMs(long maintenanceIntervalMs) {
+            this.maintenanceIntervalMs = maintenanceIntervalMs;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.accessapp.audit;
+
+import com.example.accessapp.entity.AuditLog;
+import com.example.accessapp.entity.AuditLogRollupKey;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintains per-client, per-action counts of audit log entries by minute, hour and day
+ * in the audit_log_rollups table.
+ * Each batch of entries is first aggregated in memory and then applied as one batched MySQL upsert
+ * that adds to the existing counts, so a batch costs a few row updates whatever its size.
+ * Time series are read from the rollups with an index range scan.
+ * The store waits for the schema migrations, which fill the table from existing audit logs on upgrade.
+ */
+@Component
+@DependsOn("legacySchemaMigration")
+public class AuditRollupStore {
+
+    /**
+     * Size of the time buckets of a rollup
+     */
+    public enum Granularity {
+        MINUTE("m", ChronoUnit.MINUTES),
+        HOUR("h", ChronoUnit.HOURS),
+        DAY("d", ChronoUnit.DAYS);
+
+        private final String code;
+        private final ChronoUnit unit;
+
+        Granularity(String code, ChronoUnit unit) {
+            this.code = code;
+            this.unit = unit;
+        }
+
+        /**
+         * Get the value stored in the granularity column
+         */
+        public String getCode() {
+            return code;
+        }
+
+        /**
+         * Get the start of the bucket containing a time
+         */
+        public LocalDateTime bucketOf(LocalDateTime time) {
+            return time.truncatedTo(unit);
+        }
+
+        /**
+         * Get the number of buckets between two times
+         */
+        public long bucketsBetween(LocalDateTime from, LocalDateTime to) {
+            return unit.between(bucketOf(from), to) + 1;
+        }
+    }
+
+    // Client ID stored for entries without a client; NULL would defeat the unique key of the upsert
+    public static final long NO_CLIENT = 0L;
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO audit_log_rollups (client_id, granularity, bucket_start, action, event_count) VALUES (?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE event_count = event_count + VALUES(event_count)";
+
+    // Order of the primary key (action, bucket_start, client_id, granularity); actions compare
+    // case-insensitively like the column collation
+    private static final Comparator<AuditLogRollupKey> PRIMARY_KEY_ORDER =
+            Comparator.comparing(AuditLogRollupKey::getAction, String.CASE_INSENSITIVE_ORDER)
+                    .thenComparing(AuditLogRollupKey::getBucketStart)
+                    .thenComparing(AuditLogRollupKey::getClientId)
+                    .thenComparing(AuditLogRollupKey::getGranularity);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AuditRollupStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Add a batch of audit log entries to the rollups of every granularity
+     *
+     * @param auditLogs the entries, with their timestamps set
+     */
+    public void record(Collection<AuditLog> auditLogs) {
+        if (auditLogs.isEmpty()) {
+            return;
+        }
+
+        Map<AuditLogRollupKey, Long> counts = new HashMap<>();
+        for (AuditLog auditLog : auditLogs) {
+            Long clientId = auditLog.getClientId() != null ? auditLog.getClientId() : NO_CLIENT;
+            for (Granularity granularity : Granularity.values()) {
+                AuditLogRollupKey key = new AuditLogRollupKey(clientId, granularity.getCode(),
+                        granularity.bucketOf(auditLog.getTimestamp()), auditLog.getAction());
+                counts.merge(key, 1L, Long::sum);
+            }
+        }
+
+        // Rows are locked in primary key order, so concurrent batches touching the same hot rows
+        // wait for each other instead of deadlocking
+        List<Map.Entry<AuditLogRollupKey, Long>> rows = new ArrayList<>(counts.entrySet());
+        rows.sort(Map.Entry.comparingByKey(PRIMARY_KEY_ORDER));
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setLong(1, row.getKey().getClientId());
+            ps.setString(2, row.getKey().getGranularity());
+            ps.setTimestamp(3, Timestamp.valueOf(row.getKey().getBucketStart()));
+            ps.setString(4, row.getKey().getAction());
+            ps.setLong(5, row.getValue());
+        });
+    }
+
+    /**
+     * Read the counts of a client's audit log entries per action and bucket
+     *
+     * @param clientId the client ID
+     * @param granularity the bucket size
+     * @param from start of the range, inclusive; rounded down to a bucket start
+     * @param to end of the range, exclusive
+     * @param actions the actions to include, or empty for all actions
+     * @return counts per action in action order, each a map from bucket start to count in time order; empty buckets are omitted
+     */
+    public Map<String, Map<LocalDateTime, Long>> query(Long clientId, Granularity granularity,
+                                                       LocalDateTime from, LocalDateTime to,
+                                                       Collection<String> actions) {
+        StringBuilder sql = new StringBuilder("SELECT action, bucket_start, event_count FROM audit_log_rollups "
+                + "WHERE client_id = ? AND granularity = ? AND bucket_start >= ? AND bucket_start < ?");
+        List<Object> args = new ArrayList<>();
+        args.add(clientId != null ? clientId : NO_CLIENT);
+        args.add(granularity.getCode());
+        args.add(Timestamp.valueOf(granularity.bucketOf(from)));
+        args.add(Timestamp.valueOf(to));
+        if (!actions.isEmpty()) {
+            sql.append(" AND action IN (").append(String.join(",", Collections.nCopies(actions.size(), "?"))).append(")");
+            args.addAll(actions);
+        }
+        sql.append(" ORDER BY bucket_start");
+
+        Map<String, Map<LocalDateTime, Long>> series = new TreeMap<>();
+        jdbcTemplate.query(sql.toString(), (RowCallbackHandler) rs ->
+                series.computeIfAbsent(rs.getString(1), action -> new LinkedHashMap<>())
+                        .put(rs.getTimestamp(2).toLocalDateTime(), rs.getLong(3)), args.toArray());
+        return series;
+    }
+}
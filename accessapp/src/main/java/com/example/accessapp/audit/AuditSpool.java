@@ -0,0 +1,627 @@
+package com.example.accessapp.audit;
+
+import com.example.accessapp.entity.AuditLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Durable local write-ahead spool for audit events.
+ * Events are appended to memory-mapped segment files, so a request thread only pays for a memory copy
+ * and never waits on the database. Appends survive a process crash as soon as they are written
+ * (the pages belong to the OS page cache) and survive a machine crash once the periodic fsync
+ * has run, i.e. within {@code fsyncIntervalMs}.
+ * A drainer thread replays the spool into audit_logs in batches, backing off while the database
+ * is unavailable, and records its progress in a checkpoint file. Segments are rotated when full
+ * and deleted once replayed. On startup, leftover segments are scanned, torn records at the tail
+ * are discarded by their checksum, and replay resumes from the checkpoint.
+ * Delivery is at-least-once: a batch inserted right before a crash may be replayed again.
+ * A batch refused with a data error is not retried as a whole: its events are replayed one by one and
+ * the refused ones are moved to a dead-letter file in the spool directory, so one bad event cannot stall replay.
+ *
+ * Record layout, also used by the dead-letter file: [int payload length][int CRC32 of payload][payload]
+ */
+@Component
+public class AuditSpool {
+    private static final Logger logger = LoggerFactory.getLogger(AuditSpool.class);
+
+    private static final String SEGMENT_PREFIX = "audit-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final String DEAD_LETTER_FILE = "dead-letter";
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int CHECKPOINT_BYTES = Long.BYTES + Integer.BYTES;
+
+    private final AuditProperties properties;
+    private final AuditProperties.Spool config;
+    private final AuditLogBatchInserter batchInserter;
+
+    // Segments in id order; the last one is the active segment. Guarded by appendLock
+    private final Object appendLock = new Object();
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private Segment active;
+    private volatile int segmentCount;
+    private volatile boolean dirty;
+
+    // Drainer position, only touched by the drainer thread after startup
+    private Segment readSegment;
+    private int readOffset;
+    private final List<Integer> recordEnds = new ArrayList<>();
+
+    private Path directory;
+    private volatile boolean running;
+    private Thread drainerThread;
+    private ScheduledExecutorService fsyncExecutor;
+
+    private final Counter appendedCounter;
+    private final Counter replayedCounter;
+    private final Counter rejectedCounter;
+    private final Counter replayFailedCounter;
+    private final Counter corruptCounter;
+    private final Counter deadLetteredCounter;
+
+    public AuditSpool(AuditProperties properties, AuditLogBatchInserter batchInserter, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.config = properties.getSpool();
+        this.batchInserter = batchInserter;
+
+        this.appendedCounter = Counter.builder("accessapp.audit.spool.appended").register(meterRegistry);
+        this.replayedCounter = Counter.builder("accessapp.audit.spool.replayed").register(meterRegistry);
+        this.rejectedCounter = Counter.builder("accessapp.audit.spool.rejected").register(meterRegistry);
+        this.replayFailedCounter = Counter.builder("accessapp.audit.spool.replay.failed").register(meterRegistry);
+        this.corruptCounter = Counter.builder("accessapp.audit.spool.corrupt").register(meterRegistry);
+        this.deadLetteredCounter = Counter.builder("accessapp.audit.spool.dead.lettered").register(meterRegistry);
+        Gauge.builder("accessapp.audit.spool.segments", this, AuditSpool::getSegmentCount).register(meterRegistry);
+    }
+
+    /**
+     * Open the spool directory, recover leftover segments and start the drainer and fsync tasks
+     */
+    @PostConstruct
+    public void start() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        try {
+            directory = Paths.get(config.getDirectory());
+            Files.createDirectories(directory);
+            recover();
+        } catch (IOException e) {
+            // Leave the spool off; audit events then go straight to the database writer
+            logger.error("Failed to open audit spool in {}: {}", config.getDirectory(), e.getMessage());
+            return;
+        }
+
+        running = true;
+
+        drainerThread = new Thread(this::runDrainer, "audit-spool-drainer");
+        drainerThread.setDaemon(true);
+        drainerThread.start();
+
+        fsyncExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "audit-spool-fsync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        fsyncExecutor.scheduleWithFixedDelay(this::sync, config.getFsyncIntervalMs(), config.getFsyncIntervalMs(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop the drainer, fsync the active segment and close all segments.
+     * Events not yet replayed stay on disk and are replayed on the next start.
+     */
+    @PreDestroy
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        fsyncExecutor.shutdown();
+        drainerThread.interrupt();
+        try {
+            drainerThread.join(properties.getShutdownTimeoutMs());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        synchronized (appendLock) {
+            active.buffer.force();
+            for (Segment segment : segments) {
+                segment.close();
+            }
+        }
+    }
+
+    /**
+     * Check if the spool accepts events
+     *
+     * @return true if the spool is open
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Get the number of segment files currently on disk
+     *
+     * @return the number of segments
+     */
+    public int getSegmentCount() {
+        return segmentCount;
+    }
+
+    /**
+     * Append an audit log entry to the spool
+     *
+     * @param auditLog the entry to append
+     * @return true if the entry was spooled, false if the spool is off, full or failing
+     */
+    public boolean append(AuditLog auditLog) {
+        if (!running) {
+            return false;
+        }
+
+        // Spooled events must fit their columns, or they would be refused on every replay
+        AuditLogBatchInserter.fitToColumns(auditLog);
+        byte[] payload = AuditLogCodec.encode(auditLog);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        int recordSize = HEADER_BYTES + payload.length;
+
+        synchronized (appendLock) {
+            if (!running) {
+                return false;
+            }
+            if (active.writePosition + recordSize > active.capacity) {
+                try {
+                    if (!rotate(recordSize)) {
+                        rejectedCounter.increment();
+                        return false;
+                    }
+                } catch (IOException e) {
+                    rejectedCounter.increment();
+                    logger.error("Failed to rotate audit spool segment: {}", e.getMessage());
+                    return false;
+                }
+            }
+
+            // Length is written last so a partially written record is never mistaken for a complete one
+            int position = active.writePosition;
+            active.buffer.put(position + HEADER_BYTES, payload);
+            active.buffer.putInt(position + Integer.BYTES, (int) crc.getValue());
+            active.buffer.putInt(position, payload.length);
+            active.writePosition = position + recordSize;
+            dirty = true;
+        }
+
+        appendedCounter.increment();
+        return true;
+    }
+
+    /**
+     * Flush written pages of the active segment to disk
+     */
+    private void sync() {
+        if (!dirty) {
+            return;
+        }
+        Segment segment;
+        synchronized (appendLock) {
+            dirty = false;
+            segment = active;
+        }
+        try {
+            segment.buffer.force();
+        } catch (Exception e) {
+            dirty = true;
+            logger.error("Failed to fsync audit spool segment {}: {}", segment.path, e.getMessage());
+        }
+    }
+
+    /**
+     * Seal the active segment and start a new one. Must be called while holding appendLock.
+     *
+     * @return false if the record can never fit in a segment or the spool has reached its segment limit
+     */
+    private boolean rotate(int recordSize) throws IOException {
+        if (recordSize > config.getSegmentSizeBytes()) {
+            logger.warn("Audit event of {} bytes exceeds the spool segment size", recordSize);
+            return false;
+        }
+        if (segments.size() >= config.getMaxSegments()) {
+            logger.warn("Audit spool is full ({} segments), falling back to direct writes", segments.size());
+            return false;
+        }
+
+        Segment next = Segment.create(segmentPath(active.id + 1), active.id + 1, config.getSegmentSizeBytes());
+        active.buffer.force();
+        active.sealed = true;
+        active = next;
+        segments.addLast(next);
+        segmentCount = segments.size();
+        return true;
+    }
+
+    /**
+     * Drainer loop: replay batches of spooled events, moving through segments in order
+     */
+    private void runDrainer() {
+        List<AuditLog> batch = new ArrayList<>(properties.getBatchSize());
+        long backoffMs = config.getRetryBackoffMs();
+
+        while (running) {
+            int end = readBatch(batch);
+
+            if (batch.isEmpty()) {
+                readOffset = end;
+                if (!advanceSegment() && !sleep(properties.getFlushIntervalMs())) {
+                    return;
+                }
+                continue;
+            }
+
+            try {
+                batchInserter.insertAll(batch);
+                replayedCounter.increment(batch.size());
+                readOffset = end;
+                writeCheckpoint(readSegment.id, end);
+                backoffMs = config.getRetryBackoffMs();
+            } catch (DataIntegrityViolationException e) {
+                logger.warn("Spooled audit batch of {} events refused, replaying one by one: {}", batch.size(), e.getMessage());
+                if (replayEach(batch, end)) {
+                    backoffMs = config.getRetryBackoffMs();
+                } else if (!sleep(backoffMs)) {
+                    return;
+                } else {
+                    backoffMs = Math.min(backoffMs * 2, config.getMaxRetryBackoffMs());
+                }
+            } catch (Exception e) {
+                replayFailedCounter.increment(batch.size());
+                logger.warn("Failed to replay {} spooled audit events, retrying in {} ms: {}",
+                        batch.size(), backoffMs, e.getMessage());
+                if (!sleep(backoffMs)) {
+                    return;
+                }
+                backoffMs = Math.min(backoffMs * 2, config.getMaxRetryBackoffMs());
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Replay a refused batch event by event, moving the events refused with a data error to the dead-letter file
+     *
+     * @param end the offset just past the batch
+     * @return true if the whole batch was handled, false if replay stopped on another failure
+     */
+    private boolean replayEach(List<AuditLog> batch, int end) {
+        for (int i = 0; i < batch.size(); i++) {
+            AuditLog auditLog = batch.get(i);
+            try {
+                batchInserter.insertAll(List.of(auditLog));
+                replayedCounter.increment();
+            } catch (DataIntegrityViolationException e) {
+                deadLetter(auditLog, e);
+            } catch (Exception e) {
+                // Resume after the events already handled once the database is back
+                replayFailedCounter.increment(batch.size() - i);
+                logger.warn("Failed to replay spooled audit event, retrying later: {}", e.getMessage());
+                if (i > 0) {
+                    readOffset = recordEnds.get(i - 1);
+                    writeCheckpoint(readSegment.id, readOffset);
+                }
+                return false;
+            }
+        }
+        readOffset = end;
+        writeCheckpoint(readSegment.id, end);
+        return true;
+    }
+
+    /**
+     * Append an event the database refused to the dead-letter file, where it can be inspected and fixed by hand
+     */
+    private void deadLetter(AuditLog auditLog, Exception cause) {
+        deadLetteredCounter.increment();
+        logger.error("Moved spooled audit event {} at {} to the dead-letter file: {}",
+                auditLog.getAction(), auditLog.getTimestamp(), cause.getMessage());
+
+        byte[] payload = AuditLogCodec.encode(auditLog);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + payload.length)
+                .putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+        try (FileChannel channel = FileChannel.open(directory.resolve(DEAD_LETTER_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            logger.error("Failed to write audit dead-letter file, event lost: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Decode up to one batch of records from the current read position,
+     * noting the offset just past each decoded record in recordEnds
+     *
+     * @return the offset just past the last record read
+     */
+    private int readBatch(List<AuditLog> batch) {
+        Segment segment = readSegment;
+        int position = readOffset;
+        int limit = segment.writePosition;
+        recordEnds.clear();
+
+        while (batch.size() < properties.getBatchSize() && position < limit) {
+            int next = nextRecord(segment.buffer, position, limit);
+            if (next < 0) {
+                corruptCounter.increment();
+                logger.error("Corrupt record in audit spool segment {} at offset {}, skipping the rest of the segment",
+                        segment.path, position);
+                return limit;
+            }
+
+            int length = segment.buffer.getInt(position);
+            byte[] payload = new byte[length];
+            segment.buffer.get(position + HEADER_BYTES, payload);
+            try {
+                batch.add(AuditLogCodec.decode(payload));
+                recordEnds.add(next);
+            } catch (RuntimeException e) {
+                corruptCounter.increment();
+                logger.error("Undecodable record in audit spool segment {} at offset {}: {}",
+                        segment.path, position, e.getMessage());
+            }
+            position = next;
+        }
+        return position;
+    }
+
+    /**
+     * Delete the current read segment once it is sealed and fully replayed, and move to the next one
+     *
+     * @return true if the drainer moved to another segment
+     */
+    private boolean advanceSegment() {
+        Segment segment = readSegment;
+        if (!segment.sealed || readOffset < segment.writePosition) {
+            return false;
+        }
+
+        Segment next;
+        synchronized (appendLock) {
+            segments.remove(segment);
+            segmentCount = segments.size();
+            next = segments.peekFirst();
+        }
+
+        readSegment = next;
+        readOffset = 0;
+        writeCheckpoint(next.id, 0);
+        segment.close();
+        try {
+            Files.deleteIfExists(segment.path);
+        } catch (IOException e) {
+            logger.warn("Failed to delete replayed audit spool segment {}: {}", segment.path, e.getMessage());
+        }
+        return true;
+    }
+
+    /**
+     * Reopen segments left by a previous run and create a fresh active segment
+     */
+    private void recover() throws IOException {
+        List<Long> ids = listSegmentIds();
+        long[] checkpoint = readCheckpoint();
+        long checkpointId = checkpoint != null ? checkpoint[0] : -1;
+        long lastId = checkpointId;
+        int pendingEvents = 0;
+
+        for (long id : ids) {
+            lastId = Math.max(lastId, id);
+            Path path = segmentPath(id);
+            if (id < checkpointId) {
+                // Fully replayed before the previous shutdown
+                Files.deleteIfExists(path);
+                continue;
+            }
+
+            Segment segment = Segment.open(path, id);
+            int position = 0;
+            while (true) {
+                int next = nextRecord(segment.buffer, position, segment.capacity);
+                if (next < 0) {
+                    break;
+                }
+                position = next;
+                pendingEvents++;
+            }
+            if (position + Integer.BYTES <= segment.capacity && segment.buffer.getInt(position) != 0) {
+                corruptCounter.increment();
+                logger.warn("Discarded torn record at offset {} of audit spool segment {}", position, path);
+            }
+            segment.writePosition = position;
+            segment.sealed = true;
+            segments.addLast(segment);
+        }
+
+        active = Segment.create(segmentPath(lastId + 1), lastId + 1, config.getSegmentSizeBytes());
+        segments.addLast(active);
+        segmentCount = segments.size();
+
+        readSegment = segments.peekFirst();
+        readOffset = checkpoint != null && readSegment.id == checkpointId
+                ? Math.min((int) checkpoint[1], readSegment.writePosition) : 0;
+
+        if (segments.size() > 1) {
+            logger.info("Recovered {} audit spool segments with up to {} events to replay", segments.size() - 1, pendingEvents);
+        }
+    }
+
+    private List<Long> listSegmentIds() throws IOException {
+        List<Long> ids = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .forEach(name -> {
+                        try {
+                            ids.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+                        } catch (NumberFormatException e) {
+                            logger.warn("Ignoring unexpected file in audit spool directory: {}", name);
+                        }
+                    });
+        }
+        ids.sort(Long::compare);
+        return ids;
+    }
+
+    /**
+     * Read the replay checkpoint
+     *
+     * @return {segmentId, offset}, or null if there is no valid checkpoint
+     */
+    private long[] readCheckpoint() throws IOException {
+        Path path = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        byte[] data = Files.readAllBytes(path);
+        if (data.length != CHECKPOINT_BYTES) {
+            logger.warn("Ignoring invalid audit spool checkpoint");
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        return new long[] {buffer.getLong(), buffer.getInt()};
+    }
+
+    /**
+     * Atomically replace the checkpoint with the given read position
+     */
+    private void writeCheckpoint(long segmentId, int offset) {
+        Path target = directory.resolve(CHECKPOINT_FILE);
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        ByteBuffer buffer = ByteBuffer.allocate(CHECKPOINT_BYTES).putLong(segmentId).putInt(offset).flip();
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            // Replay continues; a stale checkpoint only causes events to be replayed again after a restart
+            logger.error("Failed to write audit spool checkpoint: {}", e.getMessage());
+            return;
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.error("Failed to replace audit spool checkpoint: {}", e.getMessage());
+        }
+    }
+
+    private Path segmentPath(long id) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * Validate the record at a position
+     *
+     * @return the offset of the following record, or -1 if there is no complete, intact record
+     */
+    private static int nextRecord(MappedByteBuffer buffer, int position, int limit) {
+        if (position + HEADER_BYTES > limit) {
+            return -1;
+        }
+        int length = buffer.getInt(position);
+        if (length <= 0 || length > limit - position - HEADER_BYTES) {
+            return -1;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(position + HEADER_BYTES, length));
+        if ((int) crc.getValue() != buffer.getInt(position + Integer.BYTES)) {
+            return -1;
+        }
+        return position + HEADER_BYTES + length;
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * One memory-mapped segment file
+     */
+    private static class Segment {
+        private final long id;
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        // Offset just past the last complete record; published after each append
+        private volatile int writePosition;
+        private volatile boolean sealed;
+
+        private Segment(long id, Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.capacity = buffer.capacity();
+        }
+
+        static Segment create(Path path, long id, int size) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            // Mapping past the end grows the file; the new region reads as zeros
+            return new Segment(id, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+
+        static Segment open(Path path, long id) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new Segment(id, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+        }
+
+        void close() {
+            // The mapping itself is released when the buffer is garbage collected
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close audit spool segment {}: {}", path, e.getMessage());
+            }
+        }
+    }
+}
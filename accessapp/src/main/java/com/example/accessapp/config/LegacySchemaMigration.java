@@ -0,0 +1,150 @@
+package com.example.accessapp.config;
+
+import com.example.accessapp.audit.AuditRollupStore;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Migrates tables whose old layout Hibernate's schema update cannot change.
+ * ddl-auto=update only adds columns and constraints; it never drops a column or a unique key
+ * that the entity no longer has. These migrations run before the entity manager factory starts,
+ * so Hibernate then finds either the current layout or no table at all, which it creates.
+ * Tables that are new but need data derived from existing rows are created and filled here as well.
+ * Every migration checks the current layout first and does nothing on an up to date database.
+ */
+@Component
+public class LegacySchemaMigration {
+    private static final Logger logger = LoggerFactory.getLogger(LegacySchemaMigration.class);
+
+    private static final String TABLE_EXISTS_SQL = "SELECT COUNT(*) FROM information_schema.TABLES "
+            + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?";
+
+    private static final String COLUMN_EXISTS_SQL = "SELECT COUNT(*) FROM information_schema.COLUMNS "
+            + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ?";
+
+    private static final String INDEX_EXISTS_SQL = "SELECT COUNT(*) FROM information_schema.STATISTICS "
+            + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND INDEX_NAME = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LegacySchemaMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Run the migrations
+     */
+    @PostConstruct
+    public void migrate() {
+        migrateRefreshTokens();
+        migrateTokenBlacklist();
+        backfillAuditLogRollups();
+    }
+
+    /**
+     * Drop the refresh_tokens table of the one-token-per-user layout: a raw token column that is NOT NULL
+     * and a unique key on user_id. Its raw tokens cannot be turned into token families, so their holders
+     * sign in again, and the table is recreated empty in the current layout.
+     */
+    private void migrateRefreshTokens() {
+        if (!columnExists("refresh_tokens", "token")) {
+            return;
+        }
+        logger.warn("Dropping refresh_tokens of the previous layout; existing refresh tokens are revoked");
+        jdbcTemplate.execute("DROP TABLE refresh_tokens");
+    }
+
+    /**
+     * Replace the raw token column of token_blacklist with the revocation key. Tables of the baseline
+     * layout have no token_key column yet, so it is added first. Rows written before revocation keys
+     * existed get the key of their token: tokens of that time had no JWT ID, so the key is the token's
+     * SHA-256. Duplicate keys are reduced to the oldest row before the unique key is created.
+     */
+    private void migrateTokenBlacklist() {
+        if (!columnExists("token_blacklist", "token")) {
+            return;
+        }
+        logger.info("Replacing the raw token column of token_blacklist with the revocation key");
+        if (!columnExists("token_blacklist", "token_key")) {
+            jdbcTemplate.execute("ALTER TABLE token_blacklist ADD COLUMN token_key varchar(64) NULL");
+        }
+        jdbcTemplate.update("UPDATE IGNORE token_blacklist SET token_key = SHA2(token, 256) WHERE token_key IS NULL");
+        jdbcTemplate.update("DELETE FROM token_blacklist WHERE token_key IS NULL");
+        jdbcTemplate.update("DELETE newer FROM token_blacklist newer JOIN token_blacklist older "
+                + "ON older.token_key = newer.token_key AND older.id < newer.id");
+        jdbcTemplate.execute("ALTER TABLE token_blacklist DROP COLUMN token, MODIFY token_key varchar(64) NOT NULL");
+        if (!indexExists("token_blacklist", "uk_token_blacklist_token_key")) {
+            jdbcTemplate.execute("ALTER TABLE token_blacklist ADD CONSTRAINT uk_token_blacklist_token_key UNIQUE (token_key)");
+        }
+    }
+
+    /**
+     * Create audit_log_rollups on a database that has audit logs from before rollups existed, and fill it
+     * from those logs, so audit statistics cover the history and not only what is logged after the upgrade.
+     * The table is created here with the layout of the entity, because Hibernate would create it empty
+     * only after this runs. The rollup store waits for the migrations, so no rollup is written meanwhile.
+     * This reads the whole audit log once; it runs on the first start after the upgrade only.
+     */
+    private void backfillAuditLogRollups() {
+        if (!tableExists("audit_logs") || tableExists("audit_log_rollups")) {
+            return;
+        }
+        logger.info("Creating audit_log_rollups from the existing audit logs");
+        jdbcTemplate.execute("CREATE TABLE audit_log_rollups ("
+                + "action varchar(50) NOT NULL, "
+                + "bucket_start datetime(6) NOT NULL, "
+                + "client_id bigint NOT NULL, "
+                + "granularity char(1) NOT NULL, "
+                + "event_count bigint NOT NULL, "
+                + "PRIMARY KEY (action, bucket_start, client_id, granularity), "
+                + "KEY idx_audit_log_rollups_client_bucket (client_id, granularity, bucket_start), "
+                + "KEY idx_audit_log_rollups_granularity_bucket (granularity, bucket_start))");
+
+        Map<AuditRollupStore.Granularity, String> bucketStarts = Map.of(
+                AuditRollupStore.Granularity.MINUTE, "DATE_FORMAT(`timestamp`, '%Y-%m-%d %H:%i:00')",
+                AuditRollupStore.Granularity.HOUR, "DATE_FORMAT(`timestamp`, '%Y-%m-%d %H:00:00')",
+                AuditRollupStore.Granularity.DAY, "DATE(`timestamp`)");
+        for (Map.Entry<AuditRollupStore.Granularity, String> entry : bucketStarts.entrySet()) {
+            String bucketStart = entry.getValue();
+            int rows = jdbcTemplate.update("INSERT INTO audit_log_rollups "
+                    + "(client_id, granularity, bucket_start, action, event_count) "
+                    + "SELECT COALESCE(client_id, " + AuditRollupStore.NO_CLIENT + "), ?, " + bucketStart + ", action, COUNT(*) "
+                    + "FROM audit_logs WHERE `timestamp` IS NOT NULL "
+                    + "GROUP BY COALESCE(client_id, " + AuditRollupStore.NO_CLIENT + "), " + bucketStart + ", action",
+                    entry.getKey().getCode());
+            logger.info("Backfilled {} {} audit log rollups", rows, entry.getKey());
+        }
+    }
+
+    private boolean tableExists(String table) {
+        Integer count = jdbcTemplate.queryForObject(TABLE_EXISTS_SQL, Integer.class, table);
+        return count != null && count > 0;
+    }
+
+    private boolean columnExists(String table, String column) {
+        Integer count = jdbcTemplate.queryForObject(COLUMN_EXISTS_SQL, Integer.class, table, column);
+        return count != null && count > 0;
+    }
+
+    private boolean indexExists(String table, String index) {
+        Integer count = jdbcTemplate.queryForObject(INDEX_EXISTS_SQL, Integer.class, table, index);
+        return count != null && count > 0;
+    }
+
+    /**
+     * Makes the entity manager factory, and with it Hibernate's schema update, wait for the migrations
+     */
+    @Component
+    public static class EntityManagerFactoryDependency extends EntityManagerFactoryDependsOnPostProcessor {
+
+        public EntityManagerFactoryDependency() {
+            super(LegacySchemaMigration.class);
+        }
+    }
+}
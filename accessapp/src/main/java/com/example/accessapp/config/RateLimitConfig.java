@@ -0,0 +1,34 @@
+package com.example.accessapp.config;
+
+import com.example.accessapp.security.ratelimit.DistributedRateLimiter;
+import com.example.accessapp.security.ratelimit.JdbcRateLimitStore;
+import com.example.accessapp.security.ratelimit.RateLimitProperties;
+import com.example.accessapp.security.ratelimit.RateLimiter;
+import com.example.accessapp.security.ratelimit.SlidingWindowRateLimiter;
+import com.example.accessapp.security.ratelimit.TokenBucketRateLimiter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Configuration class for the rate limiting engine.
+ * Selects the limiter store and algorithm from the rate limit properties.
+ */
+@Configuration
+public class RateLimitConfig {
+
+    /**
+     * Create the rate limiter for the configured store and algorithm.
+     * The JDBC store shares counts across nodes and always uses a sliding window counter.
+     */
+    @Bean
+    public RateLimiter rateLimiter(RateLimitProperties properties, JdbcTemplate jdbcTemplate) {
+        if (properties.getStore() == RateLimitProperties.Store.JDBC) {
+            return new DistributedRateLimiter(new JdbcRateLimitStore(jdbcTemplate));
+        }
+        if (properties.getAlgorithm() == RateLimitProperties.Algorithm.TOKEN_BUCKET) {
+            return new TokenBucketRateLimiter();
+        }
+        return new SlidingWindowRateLimiter();
+    }
+}
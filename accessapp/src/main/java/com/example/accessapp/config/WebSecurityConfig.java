@@ -1,20 +1,33 @@
 package com.example.accessapp.config;
 
+import com.example.accessapp.security.BoundedPasswordEncoder;
+import com.example.accessapp.security.CachingDaoAuthenticationProvider;
+import com.example.accessapp.security.PasswordHashingExecutor;
 import com.example.accessapp.security.RateLimitingFilter;
+import com.example.accessapp.security.VerifiedCredentialCache;
 import com.example.accessapp.security.jwt.AuthEntryPointJwt;
 import com.example.accessapp.security.jwt.AuthTokenFilter;
+import com.example.accessapp.security.password.PasswordEncoderFactory;
+import com.example.accessapp.security.permission.RequiresPermission;
+import com.example.accessapp.security.permission.RequiresPermissionAuthorizationManager;
 import com.example.accessapp.security.services.UserDetailsServiceImpl;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.Pointcuts;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.authorization.method.AuthorizationInterceptorsOrder;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -45,6 +58,15 @@ public class WebSecurityConfig {
     @Autowired
     private RateLimitingFilter rateLimitingFilter;
 
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Autowired
+    private PasswordEncoderFactory passwordEncoderFactory;
+
+    @Autowired
+    private VerifiedCredentialCache verifiedCredentialCache;
+
     /**
      * Create JWT authentication filter bean
      * This filter intercepts requests and validates JWT tokens
@@ -54,16 +76,34 @@ public class WebSecurityConfig {
         return new AuthTokenFilter();
     }
 
+    /**
+     * Create the method interceptor enforcing @RequiresPermission
+     * Runs at the same position as @PreAuthorize, checking compiled permission bitsets instead of SpEL
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor requiresPermissionAuthorization(RequiresPermissionAuthorizationManager authorizationManager) {
+        AuthorizationManagerBeforeMethodInterceptor interceptor = new AuthorizationManagerBeforeMethodInterceptor(
+                Pointcuts.union(new AnnotationMatchingPointcut(RequiresPermission.class, true),
+                        AnnotationMatchingPointcut.forMethodAnnotation(RequiresPermission.class)),
+                authorizationManager);
+        interceptor.setOrder(AuthorizationInterceptorsOrder.PRE_AUTHORIZE.getOrder());
+        return interceptor;
+    }
+
     /**
      * Configure authentication provider with user details service and password encoder
-     * Uses DaoAuthenticationProvider to authenticate users against the database
+     * Uses DaoAuthenticationProvider to authenticate users against the database,
+     * skipping the password hash for credentials verified within the credential cache TTL
      */
     @Bean
     public DaoAuthenticationProvider authenticationProvider() {
-        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
+        DaoAuthenticationProvider authProvider = new CachingDaoAuthenticationProvider(verifiedCredentialCache);
         
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        // Rehash passwords stored with an outdated algorithm or cost on successful login
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         
         return authProvider;
     }
@@ -79,11 +119,12 @@ public class WebSecurityConfig {
 
     /**
      * Create password encoder bean
-     * Uses BCrypt with strength factor 12 for secure password hashing
+     * Hashes with the algorithm and cost configured under accessapp.passwordEncoding (BCrypt strength 12 by default),
+     * run on the bounded password hashing executor instead of request threads
      */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12); // Increased strength from default 10 to 12
+        return new BoundedPasswordEncoder(passwordEncoderFactory.create(), passwordHashingExecutor);
     }
 
     /**
@@ -96,7 +137,7 @@ public class WebSecurityConfig {
         configuration.setAllowedOrigins(Collections.singletonList("*")); // Consider restricting to specific origins in production
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "X-Requested-With"));
-        configuration.setExposedHeaders(Arrays.asList("Authorization"));
+        configuration.setExposedHeaders(Arrays.asList("Authorization", "X-RateLimit-Limit", "X-RateLimit-Remaining", "X-RateLimit-Reset", "Retry-After", "X-Next-Cursor"));
         configuration.setMaxAge(3600L);
         
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
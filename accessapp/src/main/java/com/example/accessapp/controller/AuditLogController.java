@@ -1,19 +1,35 @@
 package com.example.accessapp.controller;
 
+import com.example.accessapp.audit.AuditLogExporter;
+import com.example.accessapp.audit.AuditRollupStore;
+import com.example.accessapp.dto.AuditLogCursor;
+import com.example.accessapp.dto.AuditLogSearchCriteria;
+import com.example.accessapp.dto.AuditStatsResponse;
+import com.example.accessapp.dto.BaseResponse;
 import com.example.accessapp.entity.AuditLog;
 import com.example.accessapp.repository.AuditLogRepository;
+import com.example.accessapp.repository.AuditLogSpecifications;
+import com.example.accessapp.security.permission.RequiresPermission;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Controller for audit log management endpoints.
@@ -23,9 +39,29 @@ import java.time.LocalDateTime;
 @RequestMapping("/api/audit-logs")
 public class AuditLogController {
 
+    // Response header carrying the cursor of the next slice, absent on the last slice
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final int MAX_SLICE_SIZE = 500;
+
+    // Maximum length of the text searched for in the details, which are at most 500 characters
+    private static final int MAX_SEARCH_TEXT_LENGTH = 500;
+
+    // Maximum number of buckets per statistics request
+    private static final long MAX_STATS_BUCKETS = 10000;
+
+    // Starting position when no cursor is given: newer than any entry
+    private static final AuditLogCursor HEAD = new AuditLogCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
     @Autowired
     private AuditLogRepository auditLogRepository;
 
+    @Autowired
+    private AuditLogExporter auditLogExporter;
+
+    @Autowired
+    private AuditRollupStore auditRollupStore;
+
     /**
      * Get all audit logs with pagination
      *
@@ -40,7 +76,7 @@ public class AuditLogController {
         @ApiResponse(responseCode = "200", description = "Paginated list of audit logs returned successfully")
     })
     @GetMapping
-    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN')")
+    @RequiresPermission(roles = {"ADMIN", "SUPER_ADMIN"})
     public ResponseEntity<Page<AuditLog>> getAllAuditLogs(Pageable pageable) {
         // For simplicity, using a default client ID of 1L
         Long clientId = 1L;
@@ -88,7 +124,7 @@ public class AuditLogController {
         @ApiResponse(responseCode = "200", description = "Paginated list of audit logs for the action type returned successfully")
     })
     @GetMapping("/action/{action}")
-    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN')")
+    @RequiresPermission(roles = {"ADMIN", "SUPER_ADMIN"})
     public ResponseEntity<Page<AuditLog>> getAuditLogsByAction(
             @PathVariable String action,
             Pageable pageable) {
@@ -114,7 +150,7 @@ public class AuditLogController {
         @ApiResponse(responseCode = "200", description = "Paginated list of audit logs for the time range returned successfully")
     })
     @GetMapping("/time-range")
-    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN')")
+    @RequiresPermission(roles = {"ADMIN", "SUPER_ADMIN"})
     public ResponseEntity<Page<AuditLog>> getAuditLogsByTimeRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime,
@@ -151,4 +187,333 @@ public class AuditLogController {
         Page<AuditLog> auditLogs = auditLogRepository.findByUserIdAndActionAndClientId(userId, action, clientId, pageable);
         return ResponseEntity.ok(auditLogs);
     }
-}
\ No newline at end of file
+
+    /**
+     * Get audit logs with keyset pagination
+     *
+     * @param after cursor of the last entry already seen, or null for the newest entries
+     * @param size maximum number of entries to return
+     * @return slice of audit logs older than the cursor, newest first
+     */
+    @Operation(
+        summary = "Get all audit logs (cursor)",
+        description = "Retrieve audit logs newest first using keyset pagination. Pass the X-Next-Cursor header of the previous response as 'after'. Requires ADMIN or SUPER_ADMIN role."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Slice of audit logs returned successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor")
+    })
+    @GetMapping("/cursor")
+    @RequiresPermission(roles = {"ADMIN", "SUPER_ADMIN"})
+    public ResponseEntity<?> getAuditLogsAfter(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size) {
+        // For simplicity, using a default client ID of 1L
+        Long clientId = 1L;
+        try {
+            AuditLogCursor cursor = resolveCursor(after, null);
+            return toSliceResponse(auditLogRepository.findByClientIdBefore(
+                    clientId, cursor.getTimestamp(), cursor.getId(), sliceRequest(size)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(BaseResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * Get audit logs by user ID with keyset pagination
+     *
+     * @param userId the user ID
+     * @param after cursor of the last entry already seen, or null for the newest entries
+     * @param size maximum number of entries to return
+     * @return slice of audit logs for the user older than the cursor, newest first
+     */
+    @Operation(
+        summary = "Get audit logs by user ID (cursor)",
+        description = "Retrieve audit logs for a specific user using keyset pagination. Requires ADMIN, SUPER_ADMIN, or the user themselves."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Slice of audit logs for the user returned successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor")
+    })
+    @GetMapping("/user/{userId}/cursor")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN') or @userSecurity.isCurrentUser(#userId)")
+    public ResponseEntity<?> getAuditLogsByUserIdAfter(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size) {
+        // For simplicity, using a default client ID of 1L
+        Long clientId = 1L;
+        try {
+            AuditLogCursor cursor = resolveCursor(after, null);
+            return toSliceResponse(auditLogRepository.findByUserIdAndClientIdBefore(
+                    userId, clientId, cursor.getTimestamp(), cursor.getId(), sliceRequest(size)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(BaseResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * Get audit logs by action type with keyset pagination
+     *
+     * @param action the action type
+     * @param after cursor of the last entry already seen, or null for the newest entries
+     * @param size maximum number of entries to return
+     * @return slice of audit logs for the action type older than the cursor, newest first
+     */
+    @Operation(
+        summary = "Get audit logs by action type (cursor)",
+        description = "Retrieve audit logs for a specific action type using keyset pagination. Requires ADMIN or SUPER_ADMIN role."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Slice of audit logs for the action type returned successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor")
+    })
+    @GetMapping("/action/{action}/cursor")
+    @RequiresPermission(roles = {"ADMIN", "SUPER_ADMIN"})
+    public ResponseEntity<?> getAuditLogsByActionAfter(
+            @PathVariable String action,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size) {
+        // For simplicity, using a default client ID of 1L
+        Long clientId = 1L;
+        try {
+            AuditLogCursor cursor = resolveCursor(after, null);
+            return toSliceResponse(auditLogRepository.findByActionAndClientIdBefore(
+                    action, clientId, cursor.getTimestamp(), cursor.getId(), sliceRequest(size)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(BaseResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * Get audit logs by time range with keyset pagination
+     *
+     * @param startTime the start time
+     * @param endTime the end time
+     * @param after cursor of the last entry already seen, or null to start at the end time
+     * @param size maximum number of entries to return
+     * @return slice of audit logs for the time range older than the cursor, newest first
+     */
+    @Operation(
+        summary = "Get audit logs by time range (cursor)",
+        description = "Retrieve audit logs for a specific time range using keyset pagination. Requires ADMIN or SUPER_ADMIN role."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Slice of audit logs for the time range returned successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor")
+    })
+    @GetMapping("/time-range/cursor")
+    @RequiresPermission(roles = {"ADMIN", "SUPER_ADMIN"})
+    public ResponseEntity<?> getAuditLogsByTimeRangeAfter(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size) {
+        // For simplicity, using a default client ID of 1L
+        Long clientId = 1L;
+        try {
+            AuditLogCursor cursor = resolveCursor(after, endTime);
+            return toSliceResponse(auditLogRepository.findByTimestampAfterAndClientIdBefore(
+                    startTime, clientId, cursor.getTimestamp(), cursor.getId(), sliceRequest(size)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(BaseResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * Search audit logs by any combination of filters with keyset pagination
+     *
+     * @param userId optional user ID filter
+     * @param action optional action filter
+     * @param entityType optional entity type filter
+     * @param entityId optional entity ID filter
+     * @param ipAddress optional IP address filter
+     * @param startTime optional inclusive start time
+     * @param endTime optional inclusive end time
+     * @param q optional text to search for in the details
+     * @param after cursor of the last entry already seen, or null to start at the end time
+     * @param size maximum number of entries to return
+     * @return slice of matching audit logs older than the cursor, newest first
+     */
+    @Operation(
+        summary = "Search audit logs (cursor)",
+        description = "Search audit logs by any combination of user, action, entity, IP address, time range and text in the details, newest first using keyset pagination. Pass the X-Next-Cursor header of the previous response as 'after'. Requires ADMIN or SUPER_ADMIN role."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Slice of matching audit logs returned successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor or time range")
+    })
+    @GetMapping("/search")
+    @RequiresPermission(roles = {"ADMIN", "SUPER_ADMIN"})
+    public ResponseEntity<?> searchAuditLogs(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String action,
+            @RequestParam(required = false) String entityType,
+            @RequestParam(required = false) Long entityId,
+            @RequestParam(required = false) String ipAddress,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size) {
+        // For simplicity, using a default client ID of 1L
+        Long clientId = 1L;
+
+        if (startTime != null && endTime != null && startTime.isAfter(endTime)) {
+            return ResponseEntity.badRequest().body(BaseResponse.error("Start time must not be after end time"));
+        }
+        if (q != null && q.length() > MAX_SEARCH_TEXT_LENGTH) {
+            return ResponseEntity.badRequest().body(BaseResponse.error(
+                    "Search text must not exceed " + MAX_SEARCH_TEXT_LENGTH + " characters"));
+        }
+
+        AuditLogSearchCriteria criteria = new AuditLogSearchCriteria();
+        criteria.setUserId(userId);
+        criteria.setAction(action);
+        criteria.setEntityType(entityType);
+        criteria.setEntityId(entityId);
+        criteria.setIpAddress(ipAddress);
+        criteria.setStartTime(startTime);
+        criteria.setEndTime(endTime);
+        criteria.setText(q);
+
+        try {
+            AuditLogCursor cursor = resolveCursor(after, endTime);
+            Pageable pageable = sliceRequest(size);
+            int pageSize = pageable.getPageSize();
+
+            // One row past the page tells whether there is a next slice, without a count query
+            List<AuditLog> rows = auditLogRepository.findBy(
+                    AuditLogSpecifications.search(clientId, criteria, cursor),
+                    query -> query.sortBy(AuditLogSpecifications.NEWEST_FIRST).limit(pageSize + 1).all());
+            boolean hasNext = rows.size() > pageSize;
+            List<AuditLog> content = hasNext ? rows.subList(0, pageSize) : rows;
+            return toSliceResponse(new SliceImpl<>(content, pageable, hasNext));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(BaseResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * Export audit logs as a stream
+     *
+     * @param format output format, NDJSON or CSV
+     * @param gzip whether to gzip the output
+     * @param startTime optional inclusive start time
+     * @param endTime optional inclusive end time
+     * @param userId optional user ID filter
+     * @param action optional action filter
+     * @return audit logs streamed oldest first
+     */
+    @Operation(
+        summary = "Export audit logs",
+        description = "Stream audit logs as NDJSON or CSV, optionally gzipped. Rows are streamed from the database without being held in memory. Requires ADMIN or SUPER_ADMIN role."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Audit logs streamed successfully")
+    })
+    @GetMapping("/export")
+    @RequiresPermission(roles = {"ADMIN", "SUPER_ADMIN"})
+    public ResponseEntity<StreamingResponseBody> exportAuditLogs(
+            @RequestParam(defaultValue = "NDJSON") AuditLogExporter.Format format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String action) {
+        // For simplicity, using a default client ID of 1L
+        Long clientId = 1L;
+
+        String filename = "audit-logs." + format.getExtension() + (gzip ? ".gz" : "");
+        MediaType contentType = gzip ? MediaType.parseMediaType("application/gzip") : MediaType.parseMediaType(format.getContentType());
+
+        StreamingResponseBody body = outputStream ->
+                auditLogExporter.export(outputStream, format, gzip, clientId, startTime, endTime, userId, action);
+
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+
+    /**
+     * Get audit log statistics as time series
+     *
+     * @param granularity bucket size: MINUTE, HOUR or DAY
+     * @param from optional inclusive start time, rounded down to a bucket start
+     * @param to optional exclusive end time, defaults to now
+     * @param actions optional actions to include, all actions if absent
+     * @return entry counts per action and bucket
+     */
+    @Operation(
+        summary = "Get audit log statistics",
+        description = "Retrieve the number of audit log entries per action and minute, hour or day, read from pre-aggregated rollups. Defaults to the last hour, day or 30 days depending on the granularity. Requires ADMIN or SUPER_ADMIN role."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Statistics returned successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid time range")
+    })
+    @GetMapping("/stats")
+    @RequiresPermission(roles = {"ADMIN", "SUPER_ADMIN"})
+    public ResponseEntity<?> getAuditStats(
+            @RequestParam(defaultValue = "HOUR") AuditRollupStore.Granularity granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) List<String> actions) {
+        // For simplicity, using a default client ID of 1L
+        Long clientId = 1L;
+
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : switch (granularity) {
+            case MINUTE -> end.minusHours(1);
+            case HOUR -> end.minusDays(1);
+            case DAY -> end.minusDays(30);
+        };
+        if (!start.isBefore(end)) {
+            return ResponseEntity.badRequest().body(BaseResponse.error("'from' must be before 'to'"));
+        }
+        if (granularity.bucketsBetween(start, end) > MAX_STATS_BUCKETS) {
+            return ResponseEntity.badRequest().body(BaseResponse.error(
+                    "Time range spans more than " + MAX_STATS_BUCKETS + " buckets; use a coarser granularity"));
+        }
+
+        AuditStatsResponse response = new AuditStatsResponse(granularity.name(), granularity.bucketOf(start), end);
+        Map<String, Map<LocalDateTime, Long>> counts = auditRollupStore.query(
+                clientId, granularity, start, end, actions != null ? actions : List.of());
+        for (Map.Entry<String, Map<LocalDateTime, Long>> entry : counts.entrySet()) {
+            AuditStatsResponse.Series series = new AuditStatsResponse.Series(entry.getKey());
+            for (Map.Entry<LocalDateTime, Long> bucket : entry.getValue().entrySet()) {
+                series.getPoints().add(new AuditStatsResponse.Point(bucket.getKey(), bucket.getValue()));
+                series.setTotal(series.getTotal() + bucket.getValue());
+            }
+            response.getSeries().add(series);
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Parse the cursor parameter, starting from the newest entry (or the end time, inclusive) when absent
+     */
+    private AuditLogCursor resolveCursor(String after, LocalDateTime endTime) {
+        AuditLogCursor endCursor = endTime != null ? new AuditLogCursor(endTime, Long.MAX_VALUE) : HEAD;
+        if (after == null || after.isBlank()) {
+            return endCursor;
+        }
+        AuditLogCursor cursor = AuditLogCursor.parse(after);
+        return cursor.getTimestamp().isAfter(endCursor.getTimestamp()) ? endCursor : cursor;
+    }
+
+    private Pageable sliceRequest(int size) {
+        return PageRequest.of(0, Math.max(1, Math.min(size, MAX_SLICE_SIZE)));
+    }
+
+    private ResponseEntity<Slice<AuditLog>> toSliceResponse(Slice<AuditLog> slice) {
+        if (!slice.hasNext() || slice.getContent().isEmpty()) {
+            return ResponseEntity.ok(slice);
+        }
+        AuditLog last = slice.getContent().get(slice.getContent().size() - 1);
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, AuditLogCursor.of(last).toString())
+                .body(slice);
+    }
+}
@@ -1,11 +1,14 @@
 package com.example.accessapp.controller;
 
 import com.example.accessapp.dto.*;
+import com.example.accessapp.exception.PasswordHashingRejectedException;
 import com.example.accessapp.exception.TokenRefreshException;
 import com.example.accessapp.service.AuthService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.LockedException;
 import org.springframework.web.bind.annotation.*;
@@ -50,6 +53,8 @@ public class AuthController {
             return ResponseEntity.ok(jwtResponse);
         } catch (LockedException e) {
             return ResponseEntity.badRequest().body(BaseResponse.error(e.getMessage()));
+        } catch (PasswordHashingRejectedException e) {
+            return serviceUnavailable(e);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(BaseResponse.error("Authentication failed: " + e.getMessage()));
         }
@@ -78,6 +83,8 @@ public class AuthController {
         try {
             authService.registerUser(registerRequest, request, clientId);
             return ResponseEntity.ok(BaseResponse.success("User registered successfully"));
+        } catch (PasswordHashingRejectedException e) {
+            return serviceUnavailable(e);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(BaseResponse.error(e.getMessage()));
         }
@@ -141,4 +148,10 @@ public class AuthController {
             return ResponseEntity.badRequest().body(BaseResponse.error(e.getMessage()));
         }
     }
+
+    private ResponseEntity<?> serviceUnavailable(PasswordHashingRejectedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(BaseResponse.error(e.getMessage()));
+    }
 }
\ No newline at end of file
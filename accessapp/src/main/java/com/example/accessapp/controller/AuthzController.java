@@ -0,0 +1,54 @@
+package com.example.accessapp.controller;
+
+import com.example.accessapp.dto.AuthzCheckRequest;
+import com.example.accessapp.dto.AuthzCheckResponse;
+import com.example.accessapp.dto.BaseResponse;
+import com.example.accessapp.security.permission.RequiresPermission;
+import com.example.accessapp.service.AuthorizationService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+
+/**
+ * Controller for authorization decisions requested by other services.
+ */
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/authz")
+public class AuthzController {
+
+    @Autowired
+    private AuthorizationService authorizationService;
+
+    /**
+     * Decide a batch of (user, permission, resource) checks
+     *
+     * @param request the checks to decide
+     * @return one decision per check, in request order
+     */
+    @Operation(
+        summary = "Batch authorization check",
+        description = "Decide up to " + AuthzCheckRequest.MAX_CHECKS + " checks of whether a user holds a permission " +
+                "(or a ROLE_ authority), optionally for a resource of a given client. Decisions are returned as a string " +
+                "with one character per check in request order, '1' for allowed and '0' for denied. " +
+                "Requires ADMIN or SUPER_ADMIN role."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Checks decided successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid checks")
+    })
+    @PostMapping("/check")
+    @RequiresPermission(roles = {"ADMIN", "SUPER_ADMIN"})
+    public ResponseEntity<?> check(@Valid @RequestBody AuthzCheckRequest request) {
+        try {
+            AuthzCheckResponse response = authorizationService.checkAll(request.getChecks());
+            return ResponseEntity.ok(BaseResponse.success("Checks decided successfully", response));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(BaseResponse.error(e.getMessage()));
+        }
+    }
+}
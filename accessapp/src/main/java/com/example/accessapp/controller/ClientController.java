@@ -2,11 +2,11 @@ package com.example.accessapp.controller;
 
 import com.example.accessapp.dto.BaseResponse;
 import com.example.accessapp.entity.Client;
+import com.example.accessapp.security.permission.RequiresPermission;
 import com.example.accessapp.service.ClientService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -38,7 +38,7 @@ public class ClientController {
         @ApiResponse(responseCode = "200", description = "List of clients returned successfully")
     })
     @GetMapping
-    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @RequiresPermission(roles = "SUPER_ADMIN")
     public ResponseEntity<List<Client>> getAllClients() {
         List<Client> clients = clientService.findAll();
         return ResponseEntity.ok(clients);
@@ -59,7 +59,7 @@ public class ClientController {
         @ApiResponse(responseCode = "404", description = "Client not found")
     })
     @GetMapping("/{id}")
-    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @RequiresPermission(roles = "SUPER_ADMIN")
     public ResponseEntity<?> getClientById(@PathVariable Long id) {
         return clientService.findById(id)
                 .map(ResponseEntity::ok)
@@ -81,7 +81,7 @@ public class ClientController {
         @ApiResponse(responseCode = "400", description = "Client creation failed")
     })
     @PostMapping
-    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @RequiresPermission(roles = "SUPER_ADMIN")
     public ResponseEntity<?> createClient(@Valid @RequestBody Client client) {
         if (clientService.existsByName(client.getName())) {
             return ResponseEntity.badRequest().body(BaseResponse.error("Client name already exists"));
@@ -108,7 +108,7 @@ public class ClientController {
         @ApiResponse(responseCode = "404", description = "Client not found")
     })
     @PutMapping("/{id}")
-    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @RequiresPermission(roles = "SUPER_ADMIN")
     public ResponseEntity<?> updateClient(@PathVariable Long id, @Valid @RequestBody Client client) {
         return clientService.findById(id)
                 .map(existingClient -> {
@@ -138,7 +138,7 @@ public class ClientController {
         @ApiResponse(responseCode = "400", description = "Delete failed")
     })
     @DeleteMapping("/{id}")
-    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @RequiresPermission(roles = "SUPER_ADMIN")
     public ResponseEntity<?> deleteClient(@PathVariable Long id) {
         try {
             clientService.deleteById(id);
@@ -164,7 +164,7 @@ public class ClientController {
         @ApiResponse(responseCode = "400", description = "Update failed")
     })
     @PutMapping("/{id}/status")
-    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @RequiresPermission(roles = "SUPER_ADMIN")
     public ResponseEntity<?> updateClientStatus(@PathVariable Long id, @RequestParam boolean enabled) {
         try {
             Client client = clientService.updateEnabledStatus(id, enabled);
@@ -189,7 +189,7 @@ public class ClientController {
         @ApiResponse(responseCode = "400", description = "API key generation failed")
     })
     @PostMapping("/{id}/api-key")
-    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @RequiresPermission(roles = "SUPER_ADMIN")
     public ResponseEntity<?> generateNewApiKey(@PathVariable Long id) {
         try {
             Client client = clientService.generateNewApiKey(id);
@@ -2,11 +2,11 @@ package com.example.accessapp.controller;
 
 import com.example.accessapp.dto.BaseResponse;
 import com.example.accessapp.entity.Permission;
+import com.example.accessapp.security.permission.RequiresPermission;
 import com.example.accessapp.service.PermissionService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -38,7 +38,7 @@ public class PermissionController {
         @ApiResponse(responseCode = "200", description = "List of permissions returned successfully")
     })
     @GetMapping
-    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN')")
+    @RequiresPermission(roles = {"ADMIN", "SUPER_ADMIN"})
     public ResponseEntity<List<Permission>> getAllPermissions() {
         List<Permission> permissions = permissionService.findAll();
         return ResponseEntity.ok(permissions);
@@ -59,7 +59,7 @@ public class PermissionController {
         @ApiResponse(responseCode = "404", description = "Permission not found")
     })
     @GetMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN')")
+    @RequiresPermission(roles = {"ADMIN", "SUPER_ADMIN"})
     public ResponseEntity<?> getPermissionById(@PathVariable Long id) {
         return permissionService.findById(id)
                 .map(ResponseEntity::ok)
@@ -81,7 +81,7 @@ public class PermissionController {
         @ApiResponse(responseCode = "400", description = "Permission creation failed")
     })
     @PostMapping
-    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @RequiresPermission(roles = "SUPER_ADMIN")
     public ResponseEntity<?> createPermission(@Valid @RequestBody Permission permission) {
         // For simplicity, using a default client ID of 1L
         permission.setClientId(1L);
@@ -110,7 +110,7 @@ public class PermissionController {
         @ApiResponse(responseCode = "404", description = "Permission not found")
     })
     @PutMapping("/{id}")
-    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @RequiresPermission(roles = "SUPER_ADMIN")
     public ResponseEntity<?> updatePermission(@PathVariable Long id, @Valid @RequestBody Permission permission) {
         return permissionService.findById(id)
                 .map(existingPermission -> {
@@ -139,7 +139,7 @@ public class PermissionController {
         @ApiResponse(responseCode = "400", description = "Delete failed")
     })
     @DeleteMapping("/{id}")
-    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @RequiresPermission(roles = "SUPER_ADMIN")
     public ResponseEntity<?> deletePermission(@PathVariable Long id) {
         try {
             permissionService.deleteById(id);
@@ -163,7 +163,7 @@ public class PermissionController {
         @ApiResponse(responseCode = "200", description = "List of permissions for the client returned successfully")
     })
     @GetMapping("/client/{clientId}")
-    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @RequiresPermission(roles = "SUPER_ADMIN")
     public ResponseEntity<List<Permission>> getPermissionsByClientId(@PathVariable Long clientId) {
         List<Permission> permissions = permissionService.findAllByClientId(clientId);
         return ResponseEntity.ok(permissions);
@@ -2,11 +2,11 @@ package com.example.accessapp.controller;
 
 import com.example.accessapp.dto.BaseResponse;
 import com.example.accessapp.entity.Role;
+import com.example.accessapp.security.permission.RequiresPermission;
 import com.example.accessapp.service.RoleService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -38,7 +38,7 @@ public class RoleController {
         @ApiResponse(responseCode = "200", description = "List of roles returned successfully")
     })
     @GetMapping
-    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN')")
+    @RequiresPermission(roles = {"ADMIN", "SUPER_ADMIN"})
     public ResponseEntity<List<Role>> getAllRoles() {
         List<Role> roles = roleService.findAll();
         return ResponseEntity.ok(roles);
@@ -59,7 +59,7 @@ public class RoleController {
         @ApiResponse(responseCode = "404", description = "Role not found")
     })
     @GetMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN')")
+    @RequiresPermission(roles = {"ADMIN", "SUPER_ADMIN"})
     public ResponseEntity<?> getRoleById(@PathVariable Long id) {
         return roleService.findById(id)
                 .map(ResponseEntity::ok)
@@ -81,7 +81,7 @@ public class RoleController {
         @ApiResponse(responseCode = "400", description = "Role creation failed")
     })
     @PostMapping
-    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @RequiresPermission(roles = "SUPER_ADMIN")
     public ResponseEntity<?> createRole(@Valid @RequestBody Role role) {
         // For simplicity, using a default client ID of 1L
         role.setClientId(1L);
@@ -110,7 +110,7 @@ public class RoleController {
         @ApiResponse(responseCode = "404", description = "Role not found")
     })
     @PutMapping("/{id}")
-    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @RequiresPermission(roles = "SUPER_ADMIN")
     public ResponseEntity<?> updateRole(@PathVariable Long id, @Valid @RequestBody Role role) {
         return roleService.findById(id)
                 .map(existingRole -> {
@@ -139,7 +139,7 @@ public class RoleController {
         @ApiResponse(responseCode = "400", description = "Delete failed")
     })
     @DeleteMapping("/{id}")
-    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @RequiresPermission(roles = "SUPER_ADMIN")
     public ResponseEntity<?> deleteRole(@PathVariable Long id) {
         try {
             roleService.deleteById(id);
@@ -165,7 +165,7 @@ public class RoleController {
         @ApiResponse(responseCode = "400", description = "Add failed")
     })
     @PostMapping("/{roleId}/permissions/{permissionId}")
-    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @RequiresPermission(roles = "SUPER_ADMIN")
     public ResponseEntity<?> addPermissionToRole(@PathVariable Long roleId, @PathVariable Long permissionId) {
         try {
             Role updatedRole = roleService.addPermissionToRole(roleId, permissionId);
@@ -191,7 +191,7 @@ public class RoleController {
         @ApiResponse(responseCode = "400", description = "Remove failed")
     })
     @DeleteMapping("/{roleId}/permissions/{permissionId}")
-    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @RequiresPermission(roles = "SUPER_ADMIN")
     public ResponseEntity<?> removePermissionFromRole(@PathVariable Long roleId, @PathVariable Long permissionId) {
         try {
             Role updatedRole = roleService.removePermissionFromRole(roleId, permissionId);
@@ -215,7 +215,7 @@ public class RoleController {
         @ApiResponse(responseCode = "200", description = "List of roles for the client returned successfully")
     })
     @GetMapping("/client/{clientId}")
-    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @RequiresPermission(roles = "SUPER_ADMIN")
     public ResponseEntity<List<Role>> getRolesByClientId(@PathVariable Long clientId) {
         List<Role> roles = roleService.findAllByClientId(clientId);
         return ResponseEntity.ok(roles);
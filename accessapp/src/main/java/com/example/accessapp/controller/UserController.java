@@ -2,16 +2,27 @@ package com.example.accessapp.controller;
 
 import com.example.accessapp.dto.BaseResponse;
 import com.example.accessapp.dto.UserDto;
+import com.example.accessapp.dto.UserImportReport;
+import com.example.accessapp.dto.UserSummaryDto;
 import com.example.accessapp.entity.User;
+import com.example.accessapp.security.permission.RequiresPermission;
+import com.example.accessapp.security.services.UserDetailsImpl;
 import com.example.accessapp.service.UserService;
+import com.example.accessapp.userimport.UserImporter;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -23,9 +34,15 @@ import java.util.stream.Collectors;
 @RequestMapping("/api/users")
 public class UserController {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int MAX_SLICE_SIZE = 1000;
+
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserImporter userImporter;
+
     /**
      * Get all users
      *
@@ -39,9 +56,9 @@ public class UserController {
         @ApiResponse(responseCode = "200", description = "List of users returned successfully")
     })
     @GetMapping
-    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN')")
+    @RequiresPermission(roles = {"ADMIN", "SUPER_ADMIN"})
     public ResponseEntity<?> getAllUsers() {
-        // For simplicity, not implementing pagination
+        // Unpaginated; roles and permissions are fetched with the users. See /page and /cursor for paginated listings
         List<UserDto> users = userService.findAll().stream()
                 .map(userService::convertToDto)
                 .collect(Collectors.toList());
@@ -49,6 +66,59 @@ public class UserController {
         return ResponseEntity.ok(users);
     }
 
+    /**
+     * Get a page of user summaries
+     *
+     * @param pageable pagination information
+     * @return page of user summaries with role names
+     */
+    @Operation(
+        summary = "Get users (paginated)",
+        description = "Retrieve a page of users with their role names, ordered by ID unless a sort by id, username or email is given. Requires ADMIN or SUPER_ADMIN role."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Page of users returned successfully"),
+        @ApiResponse(responseCode = "400", description = "Unsupported sort property")
+    })
+    @GetMapping("/page")
+    @RequiresPermission(roles = {"ADMIN", "SUPER_ADMIN"})
+    public ResponseEntity<?> getUsersPage(Pageable pageable) {
+        try {
+            return ResponseEntity.ok(userService.findSummaries(pageable));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(BaseResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * Get user summaries with keyset pagination
+     *
+     * @param after ID of the last user already seen, or null for the first users
+     * @param size maximum number of users to return
+     * @return slice of user summaries with IDs above the cursor
+     */
+    @Operation(
+        summary = "Get users (cursor)",
+        description = "Retrieve users with their role names in ID order using keyset pagination. Pass the X-Next-Cursor header of the previous response as 'after'. Requires ADMIN or SUPER_ADMIN role."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Slice of users returned successfully")
+    })
+    @GetMapping("/cursor")
+    @RequiresPermission(roles = {"ADMIN", "SUPER_ADMIN"})
+    public ResponseEntity<Slice<UserSummaryDto>> getUsersAfter(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "20") int size) {
+        Slice<UserSummaryDto> slice = userService.findSummariesAfter(after, Math.max(1, Math.min(size, MAX_SLICE_SIZE)));
+        if (!slice.hasNext() || slice.getContent().isEmpty()) {
+            return ResponseEntity.ok(slice);
+        }
+        UserSummaryDto last = slice.getContent().get(slice.getContent().size() - 1);
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, String.valueOf(last.getId()))
+                .body(slice);
+    }
+
     /**
      * Get a user by ID
      *
@@ -88,7 +158,7 @@ public class UserController {
         @ApiResponse(responseCode = "400", description = "Update failed")
     })
     @PutMapping("/{id}/status")
-    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN')")
+    @RequiresPermission(roles = {"ADMIN", "SUPER_ADMIN"})
     public ResponseEntity<?> updateUserStatus(@PathVariable Long id, @RequestParam boolean enabled) {
         try {
             User user = userService.updateEnabledStatus(id, enabled);
@@ -113,7 +183,7 @@ public class UserController {
         @ApiResponse(responseCode = "400", description = "Delete failed")
     })
     @DeleteMapping("/{id}")
-    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @RequiresPermission(roles = "SUPER_ADMIN")
     public ResponseEntity<?> deleteUser(@PathVariable Long id) {
         try {
             userService.deleteById(id);
@@ -137,7 +207,7 @@ public class UserController {
         @ApiResponse(responseCode = "200", description = "List of users for the client returned successfully")
     })
     @GetMapping("/client/{clientId}")
-    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @RequiresPermission(roles = "SUPER_ADMIN")
     public ResponseEntity<?> getUsersByClientId(@PathVariable Long clientId) {
         List<UserDto> users = userService.findAllByClientId(clientId).stream()
                 .map(userService::convertToDto)
@@ -171,4 +241,49 @@ public class UserController {
             return ResponseEntity.badRequest().body(BaseResponse.error(e.getMessage()));
         }
     }
+
+    /**
+     * Import users in bulk
+     *
+     * @param request the request whose body is the CSV or NDJSON file
+     * @return the result of every row
+     */
+    @Operation(
+        summary = "Bulk import users",
+        description = "Create users from a streamed file: CSV (text/csv) with a header row naming the columns " +
+                "username, email, password, firstName, lastName, phoneNumber and roles (separated by ';'), " +
+                "or NDJSON (application/x-ndjson) with one registration object per line. " +
+                "Rows are validated like registrations and reported individually. Requires ADMIN or SUPER_ADMIN role."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Import finished; see the per-row results"),
+        @ApiResponse(responseCode = "400", description = "Unsupported or unreadable file")
+    })
+    @PostMapping(value = "/bulk", consumes = {"text/csv", "application/x-ndjson"})
+    @RequiresPermission(roles = {"ADMIN", "SUPER_ADMIN"})
+    public ResponseEntity<?> bulkImportUsers(HttpServletRequest request) {
+        // For simplicity, using a default client ID of 1L
+        Long clientId = 1L;
+        try {
+            UserImporter.Format format = UserImporter.Format.fromContentType(request.getContentType());
+            UserImportReport report = userImporter.importUsers(request.getInputStream(), format, clientId,
+                    currentUserId(), getClientIp(request), request.getHeader("User-Agent"));
+            return ResponseEntity.ok(report);
+        } catch (IOException | RuntimeException e) {
+            return ResponseEntity.badRequest().body(BaseResponse.error(e.getMessage()));
+        }
+    }
+
+    private Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl) {
+            return ((UserDetailsImpl) authentication.getPrincipal()).getId();
+        }
+        return null;
+    }
+
+    private String getClientIp(HttpServletRequest request) {
+        // X-Forwarded-For from trusted proxies is already applied by the server
+        return request.getRemoteAddr();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,65 @@
+package com.example.accessapp.dto;
+
+import com.example.accessapp.entity.AuditLog;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Position in the audit log ordered by timestamp and ID, newest first.
+ * Encoded as {@code <timestamp>,<id>}, e.g. {@code 2025-05-29T09:03:45.617961,12};
+ * a page starting after a cursor contains the entries strictly older than it.
+ */
+public class AuditLogCursor {
+
+    private final LocalDateTime timestamp;
+    private final Long id;
+
+    public AuditLogCursor(LocalDateTime timestamp, Long id) {
+        this.timestamp = timestamp;
+        this.id = id;
+    }
+
+    /**
+     * Parse a cursor from its string form
+     *
+     * @param value the encoded cursor
+     * @return the cursor
+     * @throws IllegalArgumentException if the value is not a valid cursor
+     */
+    public static AuditLogCursor parse(String value) {
+        int separator = value != null ? value.lastIndexOf(',') : -1;
+        if (separator <= 0) {
+            throw new IllegalArgumentException("Invalid cursor, expected <timestamp>,<id>: " + value);
+        }
+        try {
+            return new AuditLogCursor(LocalDateTime.parse(value.substring(0, separator).trim()),
+                    Long.parseLong(value.substring(separator + 1).trim()));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor, expected <timestamp>,<id>: " + value);
+        }
+    }
+
+    /**
+     * Create the cursor pointing at an audit log entry
+     *
+     * @param auditLog the entry
+     * @return the cursor of the entry
+     */
+    public static AuditLogCursor of(AuditLog auditLog) {
+        return new AuditLogCursor(auditLog.getTimestamp(), auditLog.getId());
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return timestamp + "," + id;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.accessapp.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filters of an audit log search. Every filter is optional; null filters are ignored
+ * and the given ones are combined with AND.
+ */
+public class AuditLogSearchCriteria {
+
+    private Long userId;
+    private String action;
+    private String entityType;
+    private Long entityId;
+    private String ipAddress;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private String text; // Searched for anywhere in the details
+
+    // Constructors
+    public AuditLogSearchCriteria() {
+    }
+
+    // Getters and Setters
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public void setAction(String action) {
+        this.action = action;
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public void setEntityType(String entityType) {
+        this.entityType = entityType;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(Long entityId) {
+        this.entityId = entityId;
+    }
+
+    public String getIpAddress() {
+        return ipAddress;
+    }
+
+    public void setIpAddress(String ipAddress) {
+        this.ipAddress = ipAddress;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalDateTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalDateTime endTime) {
+        this.endTime = endTime;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.accessapp.dto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Response DTO for audit log statistics.
+ * Contains one time series of entry counts per action; buckets without entries are omitted.
+ */
+public class AuditStatsResponse {
+    private String granularity;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private List<Series> series = new ArrayList<>();
+
+    // Constructors
+    public AuditStatsResponse() {
+    }
+
+    public AuditStatsResponse(String granularity, LocalDateTime from, LocalDateTime to) {
+        this.granularity = granularity;
+        this.from = from;
+        this.to = to;
+    }
+
+    // Getters and Setters
+    public String getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(String granularity) {
+        this.granularity = granularity;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDateTime from) {
+        this.from = from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDateTime to) {
+        this.to = to;
+    }
+
+    public List<Series> getSeries() {
+        return series;
+    }
+
+    public void setSeries(List<Series> series) {
+        this.series = series;
+    }
+
+    /**
+     * Counts of one action per bucket, in time order
+     */
+    public static class Series {
+        private String action;
+        private long total;
+        private List<Point> points = new ArrayList<>();
+
+        public Series() {
+        }
+
+        public Series(String action) {
+            this.action = action;
+        }
+
+        public String getAction() {
+            return action;
+        }
+
+        public void setAction(String action) {
+            this.action = action;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public void setTotal(long total) {
+            this.total = total;
+        }
+
+        public List<Point> getPoints() {
+            return points;
+        }
+
+        public void setPoints(List<Point> points) {
+            this.points = points;
+        }
+    }
+
+    /**
+     * Number of entries in the bucket starting at a time
+     */
+    public static class Point {
+        private LocalDateTime bucketStart;
+        private long count;
+
+        public Point() {
+        }
+
+        public Point(LocalDateTime bucketStart, long count) {
+            this.bucketStart = bucketStart;
+            this.count = count;
+        }
+
+        public LocalDateTime getBucketStart() {
+            return bucketStart;
+        }
+
+        public void setBucketStart(LocalDateTime bucketStart) {
+            this.bucketStart = bucketStart;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(long count) {
+            this.count = count;
+        }
+    }
+}
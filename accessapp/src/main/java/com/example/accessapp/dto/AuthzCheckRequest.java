@@ -0,0 +1,86 @@
+package com.example.accessapp.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Request DTO for batch authorization checks.
+ * Contains the (user, permission, resource) tuples to decide, in the order the decisions are returned.
+ */
+public class AuthzCheckRequest {
+    public static final int MAX_CHECKS = 1000;
+
+    @NotEmpty(message = "Checks cannot be empty")
+    @Size(max = MAX_CHECKS, message = "At most " + MAX_CHECKS + " checks are allowed per request")
+    private List<@Valid @NotNull Check> checks;
+
+    // Constructors
+    public AuthzCheckRequest() {
+    }
+
+    public AuthzCheckRequest(List<Check> checks) {
+        this.checks = checks;
+    }
+
+    // Getters and Setters
+    public List<Check> getChecks() {
+        return checks;
+    }
+
+    public void setChecks(List<Check> checks) {
+        this.checks = checks;
+    }
+
+    /**
+     * A single question: may the user use the permission on a resource of the client
+     */
+    public static class Check {
+        @NotNull(message = "User ID cannot be null")
+        private Long userId;
+
+        @NotBlank(message = "Permission cannot be blank")
+        private String permission;
+
+        private Long clientId; // Client owning the resource; null if the resource is not client-scoped
+
+        // Constructors
+        public Check() {
+        }
+
+        public Check(Long userId, String permission, Long clientId) {
+            this.userId = userId;
+            this.permission = permission;
+            this.clientId = clientId;
+        }
+
+        // Getters and Setters
+        public Long getUserId() {
+            return userId;
+        }
+
+        public void setUserId(Long userId) {
+            this.userId = userId;
+        }
+
+        public String getPermission() {
+            return permission;
+        }
+
+        public void setPermission(String permission) {
+            this.permission = permission;
+        }
+
+        public Long getClientId() {
+            return clientId;
+        }
+
+        public void setClientId(Long clientId) {
+            this.clientId = clientId;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.accessapp.dto;
+
+/**
+ * Response DTO for batch authorization checks.
+ * Decisions are a string with one character per check, in request order: '1' if allowed, '0' if denied.
+ */
+public class AuthzCheckResponse {
+    private String decisions;
+    private int allowed;
+    private int denied;
+
+    // Constructors
+    public AuthzCheckResponse() {
+    }
+
+    public AuthzCheckResponse(String decisions, int allowed, int denied) {
+        this.decisions = decisions;
+        this.allowed = allowed;
+        this.denied = denied;
+    }
+
+    // Getters and Setters
+    public String getDecisions() {
+        return decisions;
+    }
+
+    public void setDecisions(String decisions) {
+        this.decisions = decisions;
+    }
+
+    public int getAllowed() {
+        return allowed;
+    }
+
+    public void setAllowed(int allowed) {
+        this.allowed = allowed;
+    }
+
+    public int getDenied() {
+        return denied;
+    }
+
+    public void setDenied(int denied) {
+        this.denied = denied;
+    }
+}
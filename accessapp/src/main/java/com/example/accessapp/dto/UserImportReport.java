@@ -0,0 +1,146 @@
+package com.example.accessapp.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Response DTO for bulk user imports.
+ * Contains totals and one result per input row, in input order.
+ */
+public class UserImportReport {
+    private int total;
+    private int imported;
+    private int failed;
+    private long durationMs;
+    private List<RowResult> results = new ArrayList<>();
+
+    // Constructors
+    public UserImportReport() {
+    }
+
+    /**
+     * Record a row that was imported
+     */
+    public void imported(long line, String username, Long userId) {
+        results.add(new RowResult(line, username, RowResult.CREATED, userId, null));
+        total++;
+        imported++;
+    }
+
+    /**
+     * Record a row that was rejected
+     */
+    public void failed(long line, String username, String error) {
+        results.add(new RowResult(line, username, RowResult.FAILED, null, error));
+        total++;
+        failed++;
+    }
+
+    // Getters and Setters
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getImported() {
+        return imported;
+    }
+
+    public void setImported(int imported) {
+        this.imported = imported;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    public List<RowResult> getResults() {
+        return results;
+    }
+
+    public void setResults(List<RowResult> results) {
+        this.results = results;
+    }
+
+    /**
+     * Outcome of a single input row
+     */
+    public static class RowResult {
+        public static final String CREATED = "CREATED";
+        public static final String FAILED = "FAILED";
+
+        private long line;
+        private String username;
+        private String status;
+        private Long userId;
+        private String error;
+
+        // Constructors
+        public RowResult() {
+        }
+
+        public RowResult(long line, String username, String status, Long userId, String error) {
+            this.line = line;
+            this.username = username;
+            this.status = status;
+            this.userId = userId;
+            this.error = error;
+        }
+
+        // Getters and Setters
+        public long getLine() {
+            return line;
+        }
+
+        public void setLine(long line) {
+            this.line = line;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public void setStatus(String status) {
+            this.status = status;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public void setUserId(Long userId) {
+            this.userId = userId;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public void setError(String error) {
+            this.error = error;
+        }
+    }
+}
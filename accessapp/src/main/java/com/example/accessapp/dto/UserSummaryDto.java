@@ -0,0 +1,120 @@
+package com.example.accessapp.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lightweight Data Transfer Object for user listings.
+ * Built directly by a projection query and carries role names only, so listing users
+ * does not load role entities or their permissions.
+ */
+public class UserSummaryDto {
+    private Long id;
+    private String username;
+    private String email;
+    private String firstName;
+    private String lastName;
+    private String phoneNumber;
+    private boolean enabled;
+    private Long clientId;
+    private List<String> roles = new ArrayList<>();
+
+    // Constructors
+    public UserSummaryDto() {
+    }
+
+    /**
+     * Projection constructor, splitting the full name into first and last name like UserDto
+     */
+    public UserSummaryDto(Long id, String username, String email, String fullName, String phoneNumber,
+                          boolean enabled, Long clientId) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+        this.phoneNumber = phoneNumber;
+        this.enabled = enabled;
+        this.clientId = clientId;
+
+        if (fullName != null && !fullName.isEmpty()) {
+            String[] nameParts = fullName.split(" ", 2);
+            this.firstName = nameParts[0];
+            this.lastName = nameParts.length > 1 ? nameParts[1] : "";
+        } else {
+            this.firstName = "";
+            this.lastName = "";
+        }
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public void setLastName(String lastName) {
+        this.lastName = lastName;
+    }
+
+    public String getPhoneNumber() {
+        return phoneNumber;
+    }
+
+    public void setPhoneNumber(String phoneNumber) {
+        this.phoneNumber = phoneNumber;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Long getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(Long clientId) {
+        this.clientId = clientId;
+    }
+
+    public List<String> getRoles() {
+        return roles;
+    }
+
+    public void setRoles(List<String> roles) {
+        this.roles = roles;
+    }
+}
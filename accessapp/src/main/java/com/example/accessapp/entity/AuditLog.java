@@ -11,7 +11,13 @@ import java.time.LocalDateTime;
  * Used for auditing and security monitoring.
  */
 @Entity
-@Table(name = "audit_logs")
+@Table(name = "audit_logs", indexes = {
+    @Index(name = "idx_audit_logs_client_timestamp", columnList = "client_id, timestamp, id"),
+    @Index(name = "idx_audit_logs_client_user_timestamp", columnList = "client_id, user_id, timestamp"),
+    @Index(name = "idx_audit_logs_client_action_timestamp", columnList = "client_id, action, timestamp"),
+    @Index(name = "idx_audit_logs_client_entity_timestamp", columnList = "client_id, entity_type, entity_id, timestamp"),
+    @Index(name = "idx_audit_logs_client_ip_timestamp", columnList = "client_id, ip_address, timestamp")
+})
 public class AuditLog {
     
     @Id
@@ -44,8 +50,8 @@ public class AuditLog {
     @Column(name = "user_agent")
     private String userAgent; // Browser/client info
     
-    @Column(name = "timestamp")
-    private LocalDateTime timestamp;
+    @Column(name = "timestamp", nullable = false)
+    private LocalDateTime timestamp; // Partitioning column when audit_logs is partitioned
     
     @Column(name = "client_id")
     private Long clientId; // For multi-tenant support
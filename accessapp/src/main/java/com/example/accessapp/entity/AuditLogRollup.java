@@ -0,0 +1,50 @@
+package com.example.accessapp.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Entity holding the number of audit log entries of one client and action in one minute, hour or day.
+ * Maintained incrementally as audit logs are written, so statistics are read from a few rows
+ * instead of counting raw entries.
+ * Rows are written with batched native upserts rather than through the entity manager.
+ */
+@Entity
+@Table(name = "audit_log_rollups",
+       indexes = {
+           @Index(name = "idx_audit_log_rollups_client_bucket", columnList = "client_id, granularity, bucket_start"),
+           @Index(name = "idx_audit_log_rollups_granularity_bucket", columnList = "granularity, bucket_start")
+       })
+public class AuditLogRollup {
+    
+    @EmbeddedId
+    private AuditLogRollupKey id;
+    
+    @Column(name = "event_count", nullable = false)
+    private long eventCount;
+    
+    // Constructors
+    public AuditLogRollup() {
+    }
+    
+    public AuditLogRollup(AuditLogRollupKey id, long eventCount) {
+        this.id = id;
+        this.eventCount = eventCount;
+    }
+    
+    // Getters and Setters
+    public AuditLogRollupKey getId() {
+        return id;
+    }
+    
+    public void setId(AuditLogRollupKey id) {
+        this.id = id;
+    }
+    
+    public long getEventCount() {
+        return eventCount;
+    }
+    
+    public void setEventCount(long eventCount) {
+        this.eventCount = eventCount;
+    }
+}
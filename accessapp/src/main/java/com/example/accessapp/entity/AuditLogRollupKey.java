@@ -0,0 +1,90 @@
+package com.example.accessapp.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Embeddable composite key for AuditLogRollup entity.
+ */
+@Embeddable
+public class AuditLogRollupKey implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    @Column(name = "client_id")
+    private Long clientId; // 0 for entries without a client
+    
+    @Column(name = "granularity", length = 1, columnDefinition = "char(1)")
+    private String granularity; // m (minute), h (hour) or d (day)
+    
+    @Column(name = "bucket_start")
+    private LocalDateTime bucketStart;
+    
+    @Column(name = "action", length = 50)
+    private String action;
+    
+    // Default constructor
+    public AuditLogRollupKey() {
+    }
+    
+    public AuditLogRollupKey(Long clientId, String granularity, LocalDateTime bucketStart, String action) {
+        this.clientId = clientId;
+        this.granularity = granularity;
+        this.bucketStart = bucketStart;
+        this.action = action;
+    }
+    
+    // Getters and setters
+    public Long getClientId() {
+        return clientId;
+    }
+    
+    public void setClientId(Long clientId) {
+        this.clientId = clientId;
+    }
+    
+    public String getGranularity() {
+        return granularity;
+    }
+    
+    public void setGranularity(String granularity) {
+        this.granularity = granularity;
+    }
+    
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+    
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+    
+    public String getAction() {
+        return action;
+    }
+    
+    public void setAction(String action) {
+        this.action = action;
+    }
+    
+    // Equals and hashCode methods
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AuditLogRollupKey that = (AuditLogRollupKey) o;
+        return Objects.equals(clientId, that.clientId) &&
+               Objects.equals(granularity, that.granularity) &&
+               Objects.equals(bucketStart, that.bucketStart) &&
+               Objects.equals(action, that.action);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(clientId, granularity, bucketStart, action);
+    }
+}
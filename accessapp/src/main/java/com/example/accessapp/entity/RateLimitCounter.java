@@ -0,0 +1,60 @@
+package com.example.accessapp.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Entity holding a shared request counter for one rate limit key and fixed window.
+ * Used by the distributed rate limiter so that all nodes count against the same budget.
+ * Rows are written with batched native upserts rather than through the entity manager.
+ */
+@Entity
+@Table(name = "rate_limit_counters",
+       indexes = {
+           @Index(name = "idx_rate_limit_counters_expires_at", columnList = "expires_at")
+       })
+public class RateLimitCounter {
+    
+    @EmbeddedId
+    private RateLimitCounterKey id;
+    
+    @Column(name = "request_count", nullable = false)
+    private long requestCount;
+    
+    @Column(name = "expires_at", nullable = false)
+    private long expiresAt; // Epoch milliseconds after which the row no longer affects any limit
+    
+    // Constructors
+    public RateLimitCounter() {
+    }
+    
+    public RateLimitCounter(RateLimitCounterKey id, long requestCount, long expiresAt) {
+        this.id = id;
+        this.requestCount = requestCount;
+        this.expiresAt = expiresAt;
+    }
+    
+    // Getters and Setters
+    public RateLimitCounterKey getId() {
+        return id;
+    }
+    
+    public void setId(RateLimitCounterKey id) {
+        this.id = id;
+    }
+    
+    public long getRequestCount() {
+        return requestCount;
+    }
+    
+    public void setRequestCount(long requestCount) {
+        this.requestCount = requestCount;
+    }
+    
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+    
+    public void setExpiresAt(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
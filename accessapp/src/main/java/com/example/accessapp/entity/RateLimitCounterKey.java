@@ -0,0 +1,63 @@
+package com.example.accessapp.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Embeddable composite key for RateLimitCounter entity.
+ */
+@Embeddable
+public class RateLimitCounterKey implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    @Column(name = "limit_key", length = 255)
+    private String limitKey;
+    
+    @Column(name = "window_start")
+    private Long windowStart; // Window start in epoch milliseconds
+    
+    // Default constructor
+    public RateLimitCounterKey() {
+    }
+    
+    public RateLimitCounterKey(String limitKey, Long windowStart) {
+        this.limitKey = limitKey;
+        this.windowStart = windowStart;
+    }
+    
+    // Getters and setters
+    public String getLimitKey() {
+        return limitKey;
+    }
+    
+    public void setLimitKey(String limitKey) {
+        this.limitKey = limitKey;
+    }
+    
+    public Long getWindowStart() {
+        return windowStart;
+    }
+    
+    public void setWindowStart(Long windowStart) {
+        this.windowStart = windowStart;
+    }
+    
+    // Equals and hashCode methods
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RateLimitCounterKey that = (RateLimitCounterKey) o;
+        return Objects.equals(limitKey, that.limitKey) && 
+               Objects.equals(windowStart, that.windowStart);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(limitKey, windowStart);
+    }
+}
@@ -7,28 +7,53 @@ import java.time.Instant;
 /**
  * Entity for storing refresh tokens.
  * Used for JWT token refresh functionality.
+ * Each row is one token family, started by a login on one device and rotated on every refresh,
+ * so a user can be signed in on several devices at once. Only the SHA-256 of the current token is stored.
  */
 @Entity
-@Table(name = "refresh_tokens")
+@Table(name = "refresh_tokens",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_refresh_tokens_token_hash", columnNames = "token_hash"),
+        @UniqueConstraint(name = "uk_refresh_tokens_family_id", columnNames = "family_id")
+    },
+    indexes = {
+        @Index(name = "idx_refresh_tokens_user_id", columnList = "user_id"),
+        @Index(name = "idx_refresh_tokens_expiry_date", columnList = "expiry_date")
+    })
 public class RefreshToken {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
-    @Column(nullable = false, unique = true)
-    private String token;
+    @Column(name = "family_id", nullable = false, length = 36, columnDefinition = "char(36)")
+    private String familyId; // Shared by all tokens rotated from the same login
     
-    @Column(nullable = false)
+    @Column(name = "token_hash", nullable = false, length = 64, columnDefinition = "char(64)")
+    private String tokenHash; // SHA-256 of the current token, hex encoded
+    
+    @Column(name = "expiry_date", nullable = false)
     private Instant expiryDate;
     
-    @OneToOne
-    @JoinColumn(name = "user_id", referencedColumnName = "id")
+    @Column(name = "rotation_count", nullable = false)
+    private long rotationCount;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", referencedColumnName = "id", nullable = false)
     private User user;
     
+    @Column(name = "user_id", insertable = false, updatable = false)
+    private Long userId;
+    
     @Column(name = "client_id")
     private Long clientId; // For multi-tenant support
     
+    @Transient
+    private String token; // Raw token, only known right after it is issued
+    
+    @Transient
+    private String username; // Username of the owner, filled in by lookups
+    
     // Constructors
     public RefreshToken() {
     }
@@ -42,12 +67,20 @@ public class RefreshToken {
         this.id = id;
     }
     
-    public String getToken() {
-        return token;
+    public String getFamilyId() {
+        return familyId;
     }
     
-    public void setToken(String token) {
-        this.token = token;
+    public void setFamilyId(String familyId) {
+        this.familyId = familyId;
+    }
+    
+    public String getTokenHash() {
+        return tokenHash;
+    }
+    
+    public void setTokenHash(String tokenHash) {
+        this.tokenHash = tokenHash;
     }
     
     public Instant getExpiryDate() {
@@ -58,6 +91,14 @@ public class RefreshToken {
         this.expiryDate = expiryDate;
     }
     
+    public long getRotationCount() {
+        return rotationCount;
+    }
+    
+    public void setRotationCount(long rotationCount) {
+        this.rotationCount = rotationCount;
+    }
+    
     public User getUser() {
         return user;
     }
@@ -66,6 +107,14 @@ public class RefreshToken {
         this.user = user;
     }
     
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
     public Long getClientId() {
         return clientId;
     }
@@ -73,4 +122,20 @@ public class RefreshToken {
     public void setClientId(Long clientId) {
         this.clientId = clientId;
     }
-}
\ No newline at end of file
+    
+    public String getToken() {
+        return token;
+    }
+    
+    public void setToken(String token) {
+        this.token = token;
+    }
+    
+    public String getUsername() {
+        return username;
+    }
+    
+    public void setUsername(String username) {
+        this.username = username;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.accessapp.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Entity for the security change feed shared by all nodes.
+ * Each row records a revocation or invalidation made on one node; every node tails the table
+ * by ID and applies the events to its local blacklist and caches.
+ */
+@Entity
+@Table(name = "security_events",
+       indexes = {
+           @Index(name = "idx_security_events_created_at", columnList = "created_at")
+       })
+public class SecurityEvent {
+
+    /**
+     * Kind of change recorded by an event
+     */
+    public enum Type {
+        TOKEN_REVOKED,     // subjectKey is the token revocation key, expiresAt the token expiry
+        USER_CHANGED,      // userId (and subjectKey, the username, when known) identify the user
+        ALL_USERS_CHANGED  // Every user's cached details and token version are stale
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", length = 32, nullable = false)
+    private Type eventType;
+
+    @Column(name = "subject_key", length = 255)
+    private String subjectKey;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "expires_at")
+    private Long expiresAt; // Epoch milliseconds
+
+    @Column(name = "origin_node", length = 36, nullable = false)
+    private String originNode;
+
+    @Column(name = "created_at", nullable = false)
+    private long createdAt; // Epoch milliseconds
+
+    // Constructors
+    public SecurityEvent() {
+    }
+
+    public SecurityEvent(Type eventType, String subjectKey, Long userId, Long expiresAt) {
+        this.eventType = eventType;
+        this.subjectKey = subjectKey;
+        this.userId = userId;
+        this.expiresAt = expiresAt;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Type getEventType() {
+        return eventType;
+    }
+
+    public void setEventType(Type eventType) {
+        this.eventType = eventType;
+    }
+
+    public String getSubjectKey() {
+        return subjectKey;
+    }
+
+    public void setSubjectKey(String subjectKey) {
+        this.subjectKey = subjectKey;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public String getOriginNode() {
+        return originNode;
+    }
+
+    public void setOriginNode(String originNode) {
+        this.originNode = originNode;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -1,25 +1,26 @@
 package com.example.accessapp.entity;
 
 import jakarta.persistence.*;
-import jakarta.validation.constraints.NotBlank;
 
 import java.time.LocalDateTime;
 
 /**
  * Entity for tracking invalidated JWT tokens.
  * Used for logout and token invalidation tracking.
+ * Only the revocation key is stored, never the token itself.
  */
 @Entity
-@Table(name = "token_blacklist")
+@Table(name = "token_blacklist",
+    uniqueConstraints = @UniqueConstraint(name = "uk_token_blacklist_token_key", columnNames = "token_key"),
+    indexes = @Index(name = "idx_token_blacklist_expiry_date", columnList = "expiry_date"))
 public class TokenBlacklist {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
-    @NotBlank
-    @Column(length = 500)
-    private String token;
+    @Column(name = "token_key", nullable = false, length = 64)
+    private String tokenKey; // JWT ID (jti), or SHA-256 of the token for tokens issued without one
     
     @Column(name = "expiry_date")
     private LocalDateTime expiryDate;
@@ -35,14 +36,14 @@ public class TokenBlacklist {
         this.blacklistedAt = LocalDateTime.now();
     }
     
-    public TokenBlacklist(String token, LocalDateTime expiryDate) {
-        this.token = token;
+    public TokenBlacklist(String tokenKey, LocalDateTime expiryDate) {
+        this.tokenKey = tokenKey;
         this.expiryDate = expiryDate;
         this.blacklistedAt = LocalDateTime.now();
     }
     
-    public TokenBlacklist(String token, LocalDateTime expiryDate, Long clientId) {
-        this.token = token;
+    public TokenBlacklist(String tokenKey, LocalDateTime expiryDate, Long clientId) {
+        this.tokenKey = tokenKey;
         this.expiryDate = expiryDate;
         this.clientId = clientId;
         this.blacklistedAt = LocalDateTime.now();
@@ -57,12 +58,12 @@ public class TokenBlacklist {
         this.id = id;
     }
     
-    public String getToken() {
-        return token;
+    public String getTokenKey() {
+        return tokenKey;
     }
     
-    public void setToken(String token) {
-        this.token = token;
+    public void setTokenKey(String tokenKey) {
+        this.tokenKey = tokenKey;
     }
     
     public LocalDateTime getExpiryDate() {
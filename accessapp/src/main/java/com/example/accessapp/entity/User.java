@@ -52,6 +52,11 @@ public class User {
     @Column(name = "is_super_admin")
     private boolean superAdmin = false;
     
+    // Bumped when roles or enabled status change to invalidate issued tokens; only ever changed by an
+    // atomic UPDATE, so saving a user loaded before a bump cannot write the old version back
+    @Column(name = "token_version", nullable = false, updatable = false)
+    private long tokenVersion = 0;
+    
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<UserRole> userRoles = new HashSet<>();
     
@@ -149,6 +154,14 @@ public class User {
         this.superAdmin = superAdmin;
     }
     
+    public long getTokenVersion() {
+        return tokenVersion;
+    }
+    
+    public void setTokenVersion(long tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
+    
     public Set<UserRole> getUserRoles() {
         return userRoles;
     }
@@ -0,0 +1,223 @@
+package com.example.accessapp.housekeeping;
+
+import com.example.accessapp.audit.AuditPartitionManager;
+import com.example.accessapp.audit.AuditRollupStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Periodically deletes expired refresh tokens, expired token blacklist rows, audit logs past their
+ * client's retention and fine-grained audit rollups past theirs.
+ * Rows are deleted with autocommitted {@code DELETE ... LIMIT chunkSize} statements driven by the
+ * expiry and (client_id, timestamp) indexes, pausing between chunks, so no statement holds InnoDB locks
+ * for long. A run stops after maxRunMs and continues on the next run.
+ * When audit_logs is partitioned, logs kept for the longest retention are left to the partition manager,
+ * which drops whole months instead.
+ * For each table, the lag gauge reports how long the oldest row that is due for deletion has been due.
+ * It stays near zero while the reaper keeps up.
+ * A run holds a scheduler thread for up to maxRunMs, so the scheduler pool is sized to keep
+ * the frequent tasks, such as the security event feed, running in the meantime.
+ */
+@Component
+public class DatabaseReaper {
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseReaper.class);
+
+    static final String REFRESH_TOKENS = "refresh_tokens";
+    static final String TOKEN_BLACKLIST = "token_blacklist";
+    static final String AUDIT_LOGS = "audit_logs";
+    static final String AUDIT_LOG_ROLLUPS = "audit_log_rollups";
+
+    private static final String DELETE_REFRESH_TOKENS_SQL = "DELETE FROM refresh_tokens WHERE expiry_date < ? LIMIT ?";
+    private static final String OLDEST_REFRESH_TOKEN_SQL = "SELECT MIN(expiry_date) FROM refresh_tokens";
+
+    private static final String DELETE_BLACKLIST_SQL = "DELETE FROM token_blacklist WHERE expiry_date < ? LIMIT ?";
+    private static final String OLDEST_BLACKLIST_SQL = "SELECT MIN(expiry_date) FROM token_blacklist";
+
+    private static final String AUDIT_CLIENTS_SQL = "SELECT DISTINCT client_id FROM audit_logs";
+    private static final String DELETE_AUDIT_SQL = "DELETE FROM audit_logs WHERE client_id = ? AND timestamp < ? LIMIT ?";
+    private static final String DELETE_AUDIT_NO_CLIENT_SQL =
+            "DELETE FROM audit_logs WHERE client_id IS NULL AND timestamp < ? LIMIT ?";
+    private static final String OLDEST_AUDIT_SQL = "SELECT MIN(timestamp) FROM audit_logs WHERE client_id = ?";
+    private static final String OLDEST_AUDIT_NO_CLIENT_SQL = "SELECT MIN(timestamp) FROM audit_logs WHERE client_id IS NULL";
+
+    private static final String DELETE_ROLLUPS_SQL =
+            "DELETE FROM audit_log_rollups WHERE granularity = ? AND bucket_start < ? LIMIT ?";
+    private static final String OLDEST_ROLLUP_SQL = "SELECT MIN(bucket_start) FROM audit_log_rollups WHERE granularity = ?";
+
+    private final HousekeepingProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final AuditPartitionManager auditPartitionManager;
+
+    private final Map<String, Counter> purgedCounters = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> lagMs = new ConcurrentHashMap<>();
+    private final Timer runTimer;
+
+    // End of the current run's time budget
+    private long deadline;
+
+    public DatabaseReaper(HousekeepingProperties properties, JdbcTemplate jdbcTemplate,
+                          AuditPartitionManager auditPartitionManager, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.auditPartitionManager = auditPartitionManager;
+
+        this.runTimer = Timer.builder("accessapp.housekeeping.run").register(meterRegistry);
+        for (String table : List.of(REFRESH_TOKENS, TOKEN_BLACKLIST, AUDIT_LOGS, AUDIT_LOG_ROLLUPS)) {
+            purgedCounters.put(table, Counter.builder("accessapp.housekeeping.purged")
+                    .tag("table", table).register(meterRegistry));
+            AtomicLong lag = new AtomicLong();
+            lagMs.put(table, lag);
+            Gauge.builder("accessapp.housekeeping.lag", lag, AtomicLong::get)
+                    .tag("table", table).register(meterRegistry);
+        }
+    }
+
+    /**
+     * Delete the rows of every table that are due, within the time budget of one run
+     */
+    @Scheduled(fixedDelayString = "${accessapp.housekeeping.intervalMs:300000}",
+            initialDelayString = "${accessapp.housekeeping.intervalMs:300000}")
+    public void run() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        deadline = System.currentTimeMillis() + properties.getMaxRunMs();
+        try {
+            purgeExpiredTokens(REFRESH_TOKENS, DELETE_REFRESH_TOKENS_SQL, OLDEST_REFRESH_TOKEN_SQL);
+            purgeExpiredTokens(TOKEN_BLACKLIST, DELETE_BLACKLIST_SQL, OLDEST_BLACKLIST_SQL);
+            purgeAuditLogs();
+            purgeAuditRollups();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.error("Housekeeping run failed: {}", e.getMessage());
+        } finally {
+            runTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Get the lag of a table
+     *
+     * @param table the table name
+     * @return milliseconds the oldest row due for deletion has been due, as of the last run
+     */
+    public long getLagMs(String table) {
+        AtomicLong lag = lagMs.get(table);
+        return lag != null ? lag.get() : 0;
+    }
+
+    private void purgeExpiredTokens(String table, String deleteSql, String oldestSql) throws InterruptedException {
+        LocalDateTime cutoff = LocalDateTime.now().minus(Duration.ofMillis(properties.getExpiredTokenGraceMs()));
+        Timestamp cutoffTimestamp = Timestamp.valueOf(cutoff);
+
+        int purged = purge(table, deleteSql, cutoffTimestamp);
+        if (purged > 0) {
+            logger.debug("Purged {} expired rows from {}", purged, table);
+        }
+        lagMs.get(table).set(lagSince(jdbcTemplate.queryForObject(oldestSql, Timestamp.class), cutoffTimestamp));
+    }
+
+    private void purgeAuditLogs() throws InterruptedException {
+        long maxLag = 0;
+        int total = 0;
+        int dropRetentionDays = auditPartitionManager.getDropRetentionDays();
+        for (Long clientId : jdbcTemplate.queryForList(AUDIT_CLIENTS_SQL, Long.class)) {
+            int retentionDays = properties.getAuditLogs().getRetentionDays(clientId);
+            if (retentionDays <= 0 || (dropRetentionDays > 0 && retentionDays >= dropRetentionDays)) {
+                // Kept forever, or removed by dropping partitions
+                continue;
+            }
+            Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(retentionDays));
+
+            total += clientId != null
+                    ? purge(AUDIT_LOGS, DELETE_AUDIT_SQL, clientId, cutoff)
+                    : purge(AUDIT_LOGS, DELETE_AUDIT_NO_CLIENT_SQL, cutoff);
+
+            Timestamp oldest = clientId != null
+                    ? jdbcTemplate.queryForObject(OLDEST_AUDIT_SQL, Timestamp.class, clientId)
+                    : jdbcTemplate.queryForObject(OLDEST_AUDIT_NO_CLIENT_SQL, Timestamp.class);
+            maxLag = Math.max(maxLag, lagSince(oldest, cutoff));
+        }
+        if (total > 0) {
+            logger.debug("Purged {} audit logs past retention", total);
+        }
+        lagMs.get(AUDIT_LOGS).set(maxLag);
+    }
+
+    private void purgeAuditRollups() throws InterruptedException {
+        long maxLag = 0;
+        int total = 0;
+        HousekeepingProperties.AuditRollups rollups = properties.getAuditRollups();
+        Map<AuditRollupStore.Granularity, Integer> retentionDays = Map.of(
+                AuditRollupStore.Granularity.MINUTE, rollups.getMinuteRetentionDays(),
+                AuditRollupStore.Granularity.HOUR, rollups.getHourRetentionDays());
+        for (Map.Entry<AuditRollupStore.Granularity, Integer> entry : retentionDays.entrySet()) {
+            if (entry.getValue() <= 0) {
+                continue;
+            }
+            String code = entry.getKey().getCode();
+            Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(entry.getValue()));
+            total += purge(AUDIT_LOG_ROLLUPS, DELETE_ROLLUPS_SQL, code, cutoff);
+            maxLag = Math.max(maxLag, lagSince(jdbcTemplate.queryForObject(OLDEST_ROLLUP_SQL, Timestamp.class, code), cutoff));
+        }
+        if (total > 0) {
+            logger.debug("Purged {} audit rollups past retention", total);
+        }
+        lagMs.get(AUDIT_LOG_ROLLUPS).set(maxLag);
+    }
+
+    /**
+     * Delete rows in chunks until a chunk comes back short or the run's time budget is used up
+     *
+     * @param table the table name, for metrics
+     * @param sql the DELETE statement, taking the chunk size as its last parameter
+     * @param args the other parameters of the statement
+     * @return the number of rows deleted
+     */
+    private int purge(String table, String sql, Object... args) throws InterruptedException {
+        int chunkSize = properties.getChunkSize();
+        Object[] params = new Object[args.length + 1];
+        System.arraycopy(args, 0, params, 0, args.length);
+        params[args.length] = chunkSize;
+
+        Counter purgedCounter = purgedCounters.get(table);
+        int total = 0;
+        int deleted;
+        do {
+            if (System.currentTimeMillis() >= deadline) {
+                break;
+            }
+            deleted = jdbcTemplate.update(sql, params);
+            total += deleted;
+            purgedCounter.increment(deleted);
+            if (deleted == chunkSize && properties.getPauseMs() > 0) {
+                // Let other transactions get at the rows and the purge thread catch up
+                Thread.sleep(properties.getPauseMs());
+            }
+        } while (deleted == chunkSize);
+        return total;
+    }
+
+    private static long lagSince(Timestamp oldest, Timestamp cutoff) {
+        return oldest != null ? Math.max(0, cutoff.getTime() - oldest.getTime()) : 0;
+    }
+}
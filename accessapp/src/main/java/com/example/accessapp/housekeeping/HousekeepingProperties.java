@@ -0,0 +1,161 @@
+package com.example.accessapp.housekeeping;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Housekeeping configuration bound from {@code accessapp.housekeeping.*} properties.
+ * Expired refresh tokens and blacklist rows are deleted once they are older than the grace period;
+ * audit logs are deleted once they are older than the retention of their client, and minute and hour
+ * audit rollups once they are older than their own retention.
+ */
+@Component
+@ConfigurationProperties(prefix = "accessapp.housekeeping")
+public class HousekeepingProperties {
+
+    private boolean enabled = true;
+    private long intervalMs = 300000;
+    private int chunkSize = 1000;
+    private long pauseMs = 50;
+    private long maxRunMs = 60000;
+    private long expiredTokenGraceMs = 0;
+    private final AuditLogs auditLogs = new AuditLogs();
+    private final AuditRollups auditRollups = new AuditRollups();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getIntervalMs() {
+        return intervalMs;
+    }
+
+    public void setIntervalMs(long intervalMs) {
+        this.intervalMs = intervalMs;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public long getPauseMs() {
+        return pauseMs;
+    }
+
+    public void setPauseMs(long pauseMs) {
+        this.pauseMs = pauseMs;
+    }
+
+    public long getMaxRunMs() {
+        return maxRunMs;
+    }
+
+    public void setMaxRunMs(long maxRunMs) {
+        this.maxRunMs = maxRunMs;
+    }
+
+    public long getExpiredTokenGraceMs() {
+        return expiredTokenGraceMs;
+    }
+
+    public void setExpiredTokenGraceMs(long expiredTokenGraceMs) {
+        this.expiredTokenGraceMs = expiredTokenGraceMs;
+    }
+
+    public AuditLogs getAuditLogs() {
+        return auditLogs;
+    }
+
+    public AuditRollups getAuditRollups() {
+        return auditRollups;
+    }
+
+    /**
+     * Audit log retention, with optional overrides per client
+     */
+    public static class AuditLogs {
+        private int retentionDays = 0; // 0 keeps audit logs forever
+        private Map<Long, Integer> clients = new HashMap<>(); // Client ID to retention days
+
+        public int getRetentionDays() {
+            return retentionDays;
+        }
+
+        public void setRetentionDays(int retentionDays) {
+            this.retentionDays = retentionDays;
+        }
+
+        public Map<Long, Integer> getClients() {
+            return clients;
+        }
+
+        public void setClients(Map<Long, Integer> clients) {
+            this.clients = clients;
+        }
+
+        /**
+         * Get the retention of a client's audit logs
+         *
+         * @param clientId the client ID, or null for logs without a client
+         * @return the retention in days, 0 to keep them forever
+         */
+        public int getRetentionDays(Long clientId) {
+            Integer days = clientId != null ? clients.get(clientId) : null;
+            return days != null ? days : retentionDays;
+        }
+
+        /**
+         * Get the longest retention of any client's audit logs
+         *
+         * @return the longest retention in days, 0 if the logs of some client are kept forever
+         */
+        public int getLongestRetentionDays() {
+            if (retentionDays <= 0) {
+                return 0;
+            }
+            int longest = retentionDays;
+            for (Integer days : clients.values()) {
+                if (days == null || days <= 0) {
+                    return 0;
+                }
+                longest = Math.max(longest, days);
+            }
+            return longest;
+        }
+    }
+
+    /**
+     * Retention of the minute and hour audit rollups; day rollups are kept forever
+     */
+    public static class AuditRollups {
+        private int minuteRetentionDays = 7;
+        private int hourRetentionDays = 90;
+
+        public int getMinuteRetentionDays() {
+            return minuteRetentionDays;
+        }
+
+        public void setMinuteRetentionDays(int minuteRetentionDays) {
+            this.minuteRetentionDays = minuteRetentionDays;
+        }
+
+        public int getHourRetentionDays() {
+            return hourRetentionDays;
+        }
+
+        public void setHourRetentionDays(int hourRetentionDays) {
+            this.hourRetentionDays = hourRetentionDays;
+        }
+    }
+}
@@ -3,7 +3,11 @@ package com.example.accessapp.repository;
 import com.example.accessapp.entity.AuditLog;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
@@ -11,7 +15,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
+public interface AuditLogRepository extends JpaRepository<AuditLog, Long>, JpaSpecificationExecutor<AuditLog> {
     
     /**
      * Find audit logs by user ID without pagination
@@ -197,4 +201,82 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
      * @return a page of audit logs
      */
     Page<AuditLog> findByUserIdAndActionAndClientIdAndTimestampBetween(Long userId, String action, Long clientId, LocalDateTime startTime, LocalDateTime endTime, Pageable pageable);
-}
\ No newline at end of file
+
+    /*
+     * Keyset pagination: each query returns the entries strictly older than (timestamp, id), newest first.
+     * The redundant "timestamp <= :timestamp" bound lets MySQL seek into the composite index
+     * instead of scanning from the start; no COUNT query is issued for a Slice.
+     * Bounds compare the timestamp column itself rather than an expression of it, so when audit_logs
+     * is partitioned by month MySQL skips the partitions outside the range.
+     */
+
+    /**
+     * Find audit logs of a client older than a cursor position
+     * @param clientId the client ID to search for
+     * @param timestamp the timestamp of the cursor
+     * @param id the ID of the cursor
+     * @param pageable the page size
+     * @return a slice of audit logs
+     */
+    @Query("SELECT a FROM AuditLog a WHERE a.clientId = :clientId "
+            + "AND a.timestamp <= :timestamp AND (a.timestamp < :timestamp OR a.id < :id) "
+            + "ORDER BY a.timestamp DESC, a.id DESC")
+    Slice<AuditLog> findByClientIdBefore(@Param("clientId") Long clientId,
+                                         @Param("timestamp") LocalDateTime timestamp,
+                                         @Param("id") Long id,
+                                         Pageable pageable);
+
+    /**
+     * Find audit logs of a user and client older than a cursor position
+     * @param userId the user ID to search for
+     * @param clientId the client ID to search for
+     * @param timestamp the timestamp of the cursor
+     * @param id the ID of the cursor
+     * @param pageable the page size
+     * @return a slice of audit logs
+     */
+    @Query("SELECT a FROM AuditLog a WHERE a.clientId = :clientId AND a.userId = :userId "
+            + "AND a.timestamp <= :timestamp AND (a.timestamp < :timestamp OR a.id < :id) "
+            + "ORDER BY a.timestamp DESC, a.id DESC")
+    Slice<AuditLog> findByUserIdAndClientIdBefore(@Param("userId") Long userId,
+                                                  @Param("clientId") Long clientId,
+                                                  @Param("timestamp") LocalDateTime timestamp,
+                                                  @Param("id") Long id,
+                                                  Pageable pageable);
+
+    /**
+     * Find audit logs of an action and client older than a cursor position
+     * @param action the action to search for
+     * @param clientId the client ID to search for
+     * @param timestamp the timestamp of the cursor
+     * @param id the ID of the cursor
+     * @param pageable the page size
+     * @return a slice of audit logs
+     */
+    @Query("SELECT a FROM AuditLog a WHERE a.clientId = :clientId AND a.action = :action "
+            + "AND a.timestamp <= :timestamp AND (a.timestamp < :timestamp OR a.id < :id) "
+            + "ORDER BY a.timestamp DESC, a.id DESC")
+    Slice<AuditLog> findByActionAndClientIdBefore(@Param("action") String action,
+                                                  @Param("clientId") Long clientId,
+                                                  @Param("timestamp") LocalDateTime timestamp,
+                                                  @Param("id") Long id,
+                                                  Pageable pageable);
+
+    /**
+     * Find audit logs of a client from a start time and older than a cursor position
+     * @param startTime the start time
+     * @param clientId the client ID to search for
+     * @param timestamp the timestamp of the cursor
+     * @param id the ID of the cursor
+     * @param pageable the page size
+     * @return a slice of audit logs
+     */
+    @Query("SELECT a FROM AuditLog a WHERE a.clientId = :clientId AND a.timestamp >= :startTime "
+            + "AND a.timestamp <= :timestamp AND (a.timestamp < :timestamp OR a.id < :id) "
+            + "ORDER BY a.timestamp DESC, a.id DESC")
+    Slice<AuditLog> findByTimestampAfterAndClientIdBefore(@Param("startTime") LocalDateTime startTime,
+                                                          @Param("clientId") Long clientId,
+                                                          @Param("timestamp") LocalDateTime timestamp,
+                                                          @Param("id") Long id,
+                                                          Pageable pageable);
+}
@@ -0,0 +1,92 @@
+package com.example.accessapp.repository;
+
+import com.example.accessapp.dto.AuditLogCursor;
+import com.example.accessapp.dto.AuditLogSearchCriteria;
+import com.example.accessapp.entity.AuditLog;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds audit log searches as a single query.
+ * Every filter is an equality or range comparison on the plain column, never wrapped in a function,
+ * so the optimizer can pick the composite index whose (client_id, column) prefix matches the most
+ * selective filter given, and range partitions outside the time range are pruned.
+ * The free text filter cannot use an index and is only checked on the rows the other filters select.
+ */
+public final class AuditLogSpecifications {
+
+    // Keyset order of the search results, matching the cursor
+    public static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("timestamp"), Sort.Order.desc("id"));
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private AuditLogSpecifications() {
+    }
+
+    /**
+     * Build the search for a client's audit logs older than a cursor
+     *
+     * @param clientId the client ID
+     * @param criteria the filters, null ones are ignored
+     * @param cursor the last entry already seen, or the position to start from
+     * @return the specification, to be sorted by {@link #NEWEST_FIRST}
+     */
+    public static Specification<AuditLog> search(Long clientId, AuditLogSearchCriteria criteria, AuditLogCursor cursor) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.equal(root.get("clientId"), clientId));
+
+            if (criteria.getUserId() != null) {
+                predicates.add(cb.equal(root.get("userId"), criteria.getUserId()));
+            }
+            if (hasText(criteria.getAction())) {
+                predicates.add(cb.equal(root.get("action"), criteria.getAction()));
+            }
+            if (hasText(criteria.getEntityType())) {
+                predicates.add(cb.equal(root.get("entityType"), criteria.getEntityType()));
+            }
+            if (criteria.getEntityId() != null) {
+                predicates.add(cb.equal(root.get("entityId"), criteria.getEntityId()));
+            }
+            if (hasText(criteria.getIpAddress())) {
+                predicates.add(cb.equal(root.get("ipAddress"), criteria.getIpAddress()));
+            }
+            if (criteria.getStartTime() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("timestamp"), criteria.getStartTime()));
+            }
+
+            // Keyset position; the end time is folded into the cursor by the caller
+            predicates.add(cb.lessThanOrEqualTo(root.get("timestamp"), cursor.getTimestamp()));
+            predicates.add(cb.or(
+                    cb.lessThan(root.get("timestamp"), cursor.getTimestamp()),
+                    cb.lessThan(root.get("id"), cursor.getId())));
+
+            if (hasText(criteria.getText())) {
+                predicates.add(cb.like(root.get("details"), "%" + escapeLike(criteria.getText()) + "%", LIKE_ESCAPE));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Escape the LIKE wildcards in a search text so it matches literally
+     */
+    private static String escapeLike(String text) {
+        StringBuilder escaped = new StringBuilder(text.length() + 8);
+        for (char c : text.toCharArray()) {
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+}
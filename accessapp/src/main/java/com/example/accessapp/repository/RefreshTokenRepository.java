@@ -1,35 +1,40 @@
 package com.example.accessapp.repository;
 
 import com.example.accessapp.entity.RefreshToken;
-import com.example.accessapp.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-
-import java.util.Optional;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
     
     /**
-     * Find a refresh token by its token value
-     * @param token the token value to search for
-     * @return an Optional containing the refresh token if found
+     * Check if a token family still exists
+     * @param familyId the family ID
+     * @return true if the family has not been revoked or expired
      */
-    Optional<RefreshToken> findByToken(String token);
+    boolean existsByFamilyId(String familyId);
     
     /**
-     * Delete all refresh tokens for a specific user
-     * @param user the user whose tokens should be deleted
-     * @return the number of tokens deleted
+     * Delete a token family
+     * @param familyId the family ID
+     * @return the number of families deleted
      */
     @Modifying
-    int deleteByUser(User user);
+    @Transactional
+    @Query("DELETE FROM RefreshToken r WHERE r.familyId = :familyId")
+    int deleteByFamilyId(@Param("familyId") String familyId);
     
     /**
-     * Find all refresh tokens for a specific user
-     * @param user the user whose tokens should be found
-     * @return an Optional containing the refresh token if found
+     * Delete all refresh tokens for a specific user, on every device
+     * @param userId the ID of the user whose tokens should be deleted
+     * @return the number of tokens deleted
      */
-    Optional<RefreshToken> findByUser(User user);
-}
\ No newline at end of file
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RefreshToken r WHERE r.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+}
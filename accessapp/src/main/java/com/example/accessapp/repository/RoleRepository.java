@@ -2,6 +2,8 @@ package com.example.accessapp.repository;
 
 import com.example.accessapp.entity.Role;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -30,4 +32,12 @@ public interface RoleRepository extends JpaRepository<Role, Long> {
      * @return a list of roles
      */
     List<Role> findAllByClientId(Long clientId);
+
+    /**
+     * Get the stored name of a role without loading the entity
+     * @param id the role ID
+     * @return an Optional containing the name if the role exists
+     */
+    @Query("SELECT r.name FROM Role r WHERE r.id = :id")
+    Optional<String> findNameById(@Param("id") Long id);
 }
\ No newline at end of file
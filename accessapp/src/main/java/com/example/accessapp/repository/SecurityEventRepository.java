@@ -0,0 +1,44 @@
+package com.example.accessapp.repository;
+
+import com.example.accessapp.entity.SecurityEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface SecurityEventRepository extends JpaRepository<SecurityEvent, Long> {
+
+    /**
+     * Find the events after a high-water mark, oldest first
+     *
+     * @param id the ID of the last event already read
+     * @param pageable the batch size
+     * @return the next batch of events
+     */
+    List<SecurityEvent> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * Find the ID of the latest event
+     *
+     * @return the highest event ID, or 0 if there are no events
+     */
+    @Query("SELECT COALESCE(MAX(e.id), 0) FROM SecurityEvent e")
+    Long findMaxId();
+
+    /**
+     * Delete events created before a point in time
+     *
+     * @param cutoff epoch milliseconds
+     * @return the number of events deleted
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM SecurityEvent e WHERE e.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") long cutoff);
+}
@@ -4,29 +4,15 @@ import com.example.accessapp.entity.TokenBlacklist;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
 
 @Repository
 public interface TokenBlacklistRepository extends JpaRepository<TokenBlacklist, Long> {
     
-    /**
-     * Find a blacklisted token by its token value
-     * @param token the token value to search for
-     * @return an Optional containing the blacklisted token if found
-     */
-    Optional<TokenBlacklist> findByToken(String token);
-    
-    /**
-     * Check if a token is blacklisted
-     * @param token the token value to check
-     * @return true if the token is blacklisted, false otherwise
-     */
-    boolean existsByToken(String token);
-    
     /**
      * Delete all expired blacklisted tokens
      * @param now the current time
@@ -34,22 +20,30 @@ public interface TokenBlacklistRepository extends JpaRepository<TokenBlacklist,
      */
     @Modifying
     @Query("DELETE FROM TokenBlacklist t WHERE t.expiryDate < ?1")
-    int deleteAllExpiredTokens(Instant now);
+    int deleteAllExpiredTokens(LocalDateTime now);
     
     /**
-     * Check if a token is blacklisted for a specific client
+     * Find all blacklisted tokens for a specific client
      *
-     * @param token the token string
      * @param clientId the client ID
-     * @return true if the token is blacklisted for the client, false otherwise
+     * @return list of blacklisted tokens for the client
+     */
+    List<TokenBlacklist> findByClientId(Long clientId);
+
+    /**
+     * Check if a token is blacklisted by its revocation key
+     *
+     * @param tokenKey the JWT ID or token hash
+     * @return true if the token is blacklisted, false otherwise
      */
-    boolean existsByTokenAndClientId(String token, Long clientId);
+    boolean existsByTokenKey(String tokenKey);
 
     /**
-     * Find all blacklisted tokens for a specific client
+     * Find the revocation keys and expiry dates of blacklisted tokens that have not expired yet
      *
-     * @param clientId the client ID
-     * @return list of blacklisted tokens for the client
+     * @param now the current time
+     * @return rows of [tokenKey, expiryDate]
      */
-    List<TokenBlacklist> findByClientId(Long clientId);
-}
\ No newline at end of file
+    @Query("SELECT t.tokenKey, t.expiryDate FROM TokenBlacklist t WHERE t.tokenKey IS NOT NULL AND t.expiryDate > :now")
+    List<Object[]> findActiveTokenKeys(@Param("now") LocalDateTime now);
+}
@@ -1,11 +1,18 @@
 package com.example.accessapp.repository;
 
+import com.example.accessapp.dto.UserSummaryDto;
 import com.example.accessapp.entity.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -49,4 +56,120 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     @Query("SELECT u FROM User u JOIN u.userRoles ur JOIN ur.role r WHERE r.name = :roleName")
     Optional<User> findFirstByRoleName(@Param("roleName") String roleName);
+
+    /**
+     * Get the current token version of a user without loading the entity
+     * @param id the user ID
+     * @return an Optional containing the token version if the user exists
+     */
+    @Query("SELECT u.tokenVersion FROM User u WHERE u.id = :id")
+    Optional<Long> findTokenVersionById(@Param("id") Long id);
+
+    /**
+     * Increment the token version of a user
+     * @param id the user ID
+     * @return the number of users updated
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.tokenVersion = u.tokenVersion + 1 WHERE u.id = :id")
+    int incrementTokenVersion(@Param("id") Long id);
+
+    /**
+     * Increment the token version of every user holding a role
+     * @param roleId the role ID
+     * @return the number of users updated
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.tokenVersion = u.tokenVersion + 1 WHERE u.id IN (SELECT ur.user.id FROM UserRole ur WHERE ur.role.id = :roleId)")
+    int incrementTokenVersionByRoleId(@Param("roleId") Long roleId);
+
+    /**
+     * Get the status, client and role IDs of a set of users without loading the entities
+     * @param ids the user IDs
+     * @return one row of (user ID, enabled, client ID, role ID) per role assignment,
+     *         with a null role ID for users without roles
+     */
+    @Query("SELECT u.id, u.enabled, u.clientId, ur.role.id FROM User u LEFT JOIN u.userRoles ur WHERE u.id IN :ids")
+    List<Object[]> findRoleAssignmentsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Find all users with their roles and the roles' permissions fetched in the same query
+     * @return a list of users
+     */
+    @Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.userRoles ur LEFT JOIN FETCH ur.role r " +
+           "LEFT JOIN FETCH r.rolePermissions rp LEFT JOIN FETCH rp.permission")
+    List<User> findAllWithRoles();
+
+    /**
+     * Find all users of a client with their roles and the roles' permissions fetched in the same query
+     * @param clientId the client ID
+     * @return a list of users
+     */
+    @Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.userRoles ur LEFT JOIN FETCH ur.role r " +
+           "LEFT JOIN FETCH r.rolePermissions rp LEFT JOIN FETCH rp.permission WHERE u.clientId = :clientId")
+    List<User> findAllWithRolesByClientId(@Param("clientId") Long clientId);
+
+    /**
+     * Get a page of user summaries without loading the entities; roles are not filled in
+     * @param pageable pagination information
+     * @return a page of user summaries
+     */
+    @Query(value = "SELECT new com.example.accessapp.dto.UserSummaryDto(u.id, u.username, u.email, u.FullName, " +
+                   "u.phoneNumber, u.enabled, u.clientId) FROM User u",
+           countQuery = "SELECT COUNT(u) FROM User u")
+    Page<UserSummaryDto> findSummaries(Pageable pageable);
+
+    /**
+     * Get the user summaries with IDs above a cursor, in ID order; roles are not filled in
+     * @param afterId the ID of the last user already read
+     * @param pageable the slice size
+     * @return a slice of user summaries
+     */
+    @Query("SELECT new com.example.accessapp.dto.UserSummaryDto(u.id, u.username, u.email, u.FullName, " +
+           "u.phoneNumber, u.enabled, u.clientId) FROM User u WHERE u.id > :afterId ORDER BY u.id ASC")
+    Slice<UserSummaryDto> findSummariesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Find which of the given usernames are taken
+     * @param usernames the usernames to check
+     * @return the usernames that exist
+     */
+    @Query("SELECT u.username FROM User u WHERE u.username IN :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    /**
+     * Find which of the given emails are in use
+     * @param emails the emails to check
+     * @return the emails that exist
+     */
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    /**
+     * Find which of the given phone numbers are in use
+     * @param phoneNumbers the phone numbers to check
+     * @return the phone numbers that exist
+     */
+    @Query("SELECT u.phoneNumber FROM User u WHERE u.phoneNumber IN :phoneNumbers")
+    List<String> findExistingPhoneNumbers(@Param("phoneNumbers") Collection<String> phoneNumbers);
+
+    /**
+     * Get the IDs of users by username without loading the entities
+     * @param usernames the usernames
+     * @return one row of (user ID, username) per user found
+     */
+    @Query("SELECT u.id, u.username FROM User u WHERE u.username IN :usernames")
+    List<Object[]> findIdsByUsernameIn(@Param("usernames") Collection<String> usernames);
+
+    /**
+     * Replace the password hash of a user
+     * @param username the username
+     * @param password the new password hash
+     * @return the number of users updated
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :password WHERE u.username = :username")
+    int updatePasswordByUsername(@Param("username") String username, @Param("password") String password);
 }
\ No newline at end of file
@@ -3,8 +3,11 @@ package com.example.accessapp.repository;
 import com.example.accessapp.entity.UserRole;
 import com.example.accessapp.entity.UserRoleKey;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -43,4 +46,12 @@ public interface UserRoleRepository extends JpaRepository<UserRole, UserRoleKey>
      * @return true if the user has the role, false otherwise
      */
     boolean existsByIdUserIdAndIdRoleId(Long userId, Long roleId);
+
+    /**
+     * Get the role names of a set of users without loading the entities
+     * @param userIds the user IDs
+     * @return one row of (user ID, role name) per role assignment
+     */
+    @Query("SELECT ur.user.id, r.name FROM UserRole ur JOIN ur.role r WHERE ur.user.id IN :userIds ORDER BY r.name")
+    List<Object[]> findRoleNamesByUserIdIn(@Param("userIds") Collection<Long> userIds);
 }
\ No newline at end of file
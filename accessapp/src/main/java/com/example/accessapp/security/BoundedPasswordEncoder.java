@@ -0,0 +1,43 @@
+package com.example.accessapp.security;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Password encoder that runs the hashing and verification of a delegate encoder on the
+ * PasswordHashingExecutor, so that request threads only wait for the result within its admission limits.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final PasswordHashingExecutor executor;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, PasswordHashingExecutor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return executor.execute(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return executor.execute(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // Only inspects the hash prefix, cheap enough for the calling thread
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Get the wrapped encoder, for callers that schedule hashing on their own bounded pool
+     *
+     * @return the delegate encoder
+     */
+    public PasswordEncoder getDelegate() {
+        return delegate;
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.accessapp.security;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Bounded in-process cache whose entries expire a fixed time after they are stored.
+ * Entries live in a LinkedHashMap in access order under a lock, so a full cache drops its least
+ * recently used entry in constant time instead of scanning for a victim.
+ * A value loaded while its key is being invalidated must not be cached again afterwards: callers take
+ * a stamp of the key before loading, and a put with a stamp older than the key's last invalidation
+ * is ignored.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class BoundedTtlCache<K, V> {
+
+    // Invalidations are counted per stripe of keys; a key shares its stripe with unrelated keys,
+    // which only makes some puts racing their invalidation be ignored needlessly
+    private static final int STRIPES = 64;
+
+    private final LinkedHashMap<K, CacheEntry<V>> entries;
+    private final long ttlMs;
+
+    // Bumped by invalidations that are not by key, which affect every stamp
+    private final AtomicLong allInvalidations = new AtomicLong();
+    private final AtomicLongArray keyInvalidations = new AtomicLongArray(STRIPES);
+
+    // Statistics
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public BoundedTtlCache(int maxSize, long ttlMs) {
+        this.ttlMs = ttlMs;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, CacheEntry<V>> eldest) {
+                if (size() > maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Get a cached value if present and not expired
+     *
+     * @param key the key
+     * @return the cached value, or null on a miss
+     */
+    public V get(K key) {
+        synchronized (entries) {
+            CacheEntry<V> entry = entries.get(key);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            if (entry.isExpired(System.currentTimeMillis())) {
+                entries.remove(key);
+                evictions.increment();
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.value;
+        }
+    }
+
+    /**
+     * Take the stamp of a key, to be passed to {@link #put(Object, Object, long)} after loading its value
+     *
+     * @param key the key
+     * @return the stamp
+     */
+    public long stamp(K key) {
+        return allInvalidations.get() + keyInvalidations.get(stripe(key));
+    }
+
+    /**
+     * Store a value unless its key was invalidated since the stamp was taken
+     *
+     * @param key the key
+     * @param value the value
+     * @param stamp the stamp taken before the value was loaded
+     * @return true if the value was stored
+     */
+    public boolean put(K key, V value, long stamp) {
+        synchronized (entries) {
+            if (stamp(key) != stamp) {
+                return false;
+            }
+            entries.put(key, new CacheEntry<>(value, System.currentTimeMillis() + ttlMs));
+            return true;
+        }
+    }
+
+    /**
+     * Remove the value of a key
+     *
+     * @param key the key
+     */
+    public void invalidate(K key) {
+        synchronized (entries) {
+            keyInvalidations.incrementAndGet(stripe(key));
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Remove every value matching a condition
+     *
+     * @param condition the condition
+     */
+    public void invalidateIf(Predicate<V> condition) {
+        synchronized (entries) {
+            allInvalidations.incrementAndGet();
+            entries.values().removeIf(entry -> condition.test(entry.value));
+        }
+    }
+
+    /**
+     * Remove every value
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            allInvalidations.incrementAndGet();
+            entries.clear();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static int stripe(Object key) {
+        return (key.hashCode() & Integer.MAX_VALUE) % STRIPES;
+    }
+
+    /**
+     * Helper class holding a cached value and its expiry time
+     */
+    private static class CacheEntry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        CacheEntry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.accessapp.security;
+
+import com.example.accessapp.security.services.UserDetailsImpl;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * DaoAuthenticationProvider that consults the VerifiedCredentialCache before verifying a password,
+ * so that repeated logins with the same credentials within the cache TTL skip the password hash.
+ * Account status checks still run on every login, before the password check.
+ */
+public class CachingDaoAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private final VerifiedCredentialCache verifiedCredentialCache;
+
+    public CachingDaoAuthenticationProvider(VerifiedCredentialCache verifiedCredentialCache) {
+        this.verifiedCredentialCache = verifiedCredentialCache;
+    }
+
+    @Override
+    protected void additionalAuthenticationChecks(UserDetails userDetails,
+                                                  UsernamePasswordAuthenticationToken authentication)
+            throws AuthenticationException {
+        if (!verifiedCredentialCache.isEnabled() || authentication.getCredentials() == null) {
+            super.additionalAuthenticationChecks(userDetails, authentication);
+            return;
+        }
+
+        String presentedPassword = authentication.getCredentials().toString();
+        if (verifiedCredentialCache.isVerified(userDetails.getUsername(), presentedPassword, userDetails.getPassword())) {
+            return;
+        }
+
+        // Taken before hashing, so a verification that races an invalidation of the user is not cached
+        long stamp = verifiedCredentialCache.stamp(userDetails.getUsername());
+        super.additionalAuthenticationChecks(userDetails, authentication);
+        Long userId = userDetails instanceof UserDetailsImpl ? ((UserDetailsImpl) userDetails).getId() : null;
+        verifiedCredentialCache.put(userDetails.getUsername(), userId, presentedPassword, userDetails.getPassword(), stamp);
+    }
+}
@@ -1,162 +1,313 @@
 package com.example.accessapp.security;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Service to track login attempts and implement account lockout functionality.
- * Protects against brute force attacks by temporarily blocking accounts after multiple failed login attempts.
+ * Protects against brute force attacks by temporarily blocking accounts after multiple failed login attempts,
+ * and blocking client IPs that fail across many accounts (credential stuffing).
+ * Attempt records are updated with atomic operations, expire after a quiet period and are
+ * removed by a background sweeper; the number of tracked keys is capped.
  */
 @Service
 public class LoginAttemptService {
     private static final Logger logger = LoggerFactory.getLogger(LoginAttemptService.class);
-    
-    // Cache of login attempts, keyed by username
-    private final Map<String, LoginAttemptInfo> attemptsCache = new ConcurrentHashMap<>();
-    
+
+    // Attempts keyed by username and by client IP
+    private final Map<String, LoginAttemptInfo> attemptsByUsername = new ConcurrentHashMap<>();
+    private final Map<String, LoginAttemptInfo> attemptsByIp = new ConcurrentHashMap<>();
+
     // Configuration
     private static final int MAX_ATTEMPTS = 5; // Maximum number of failed attempts before lockout
     private static final long LOCKOUT_DURATION_MINUTES = 15; // Lockout duration in minutes
-    
+    private static final int MAX_IP_ATTEMPTS = 50; // Maximum failed attempts from one IP before it is blocked
+    private static final long ATTEMPT_WINDOW_MINUTES = 15; // Failures older than this are forgotten
+    private static final int MAX_TRACKED_KEYS = 100_000; // Hard cap per map to bound memory
+    private static final long SWEEP_INTERVAL_MS = 60_000;
+
+    // Metrics
+    private final AtomicLong lockoutCount = new AtomicLong();
+    private final Counter lockoutCounter;
+    private final Counter droppedCounter;
+    private volatile double lockoutsPerMinute;
+    private long lockoutCountAtLastSweep;
+    private long lastSweepTime = System.currentTimeMillis();
+
+    public LoginAttemptService(MeterRegistry meterRegistry) {
+        this.lockoutCounter = Counter.builder("accessapp.login.lockouts").register(meterRegistry);
+        this.droppedCounter = Counter.builder("accessapp.login.attempts.dropped").register(meterRegistry);
+        Gauge.builder("accessapp.login.attempts.tracked.usernames", attemptsByUsername, Map::size).register(meterRegistry);
+        Gauge.builder("accessapp.login.attempts.tracked.ips", attemptsByIp, Map::size).register(meterRegistry);
+        Gauge.builder("accessapp.login.lockouts.per.minute", this, LoginAttemptService::getLockoutsPerMinute).register(meterRegistry);
+    }
+
     /**
      * Record a failed login attempt for a username
-     * 
+     *
      * @param username The username that failed to login
      */
     public void loginFailed(String username) {
-        if (username == null) {
-            return;
+        loginFailed(username, null);
+    }
+
+    /**
+     * Record a failed login attempt for a username and the client IP it came from
+     *
+     * @param username The username that failed to login
+     * @param ipAddress The client IP address, or null if unknown
+     */
+    public void loginFailed(String username, String ipAddress) {
+        if (username != null) {
+            LoginAttemptInfo attemptInfo = recordFailure(attemptsByUsername, username, MAX_ATTEMPTS);
+            if (attemptInfo != null) {
+                logger.debug("Failed login attempt for user: {}. Attempts: {}", username, attemptInfo.getFailedAttempts());
+            }
         }
-        
-        LoginAttemptInfo attemptInfo = attemptsCache.computeIfAbsent(username, k -> new LoginAttemptInfo());
-        attemptInfo.addFailedAttempt();
-        
-        logger.debug("Failed login attempt for user: {}. Attempts: {}", username, attemptInfo.getFailedAttempts());
-        
-        // If max attempts reached, set lockout time
-        if (attemptInfo.getFailedAttempts() >= MAX_ATTEMPTS) {
-            attemptInfo.setLockoutTime(System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(LOCKOUT_DURATION_MINUTES));
-            logger.warn("Account locked for user: {} due to {} failed attempts. Locked until: {}", 
-                    username, attemptInfo.getFailedAttempts(), attemptInfo.getLockoutTime());
+
+        if (ipAddress != null) {
+            recordFailure(attemptsByIp, ipAddress, MAX_IP_ATTEMPTS);
         }
     }
-    
+
     /**
      * Record a successful login for a username
      * Resets the failed attempt counter
-     * 
+     *
      * @param username The username that successfully logged in
      */
     public void loginSucceeded(String username) {
         if (username == null) {
             return;
         }
-        
+
         // Remove from cache on successful login
-        attemptsCache.remove(username);
+        attemptsByUsername.remove(username);
         logger.debug("Successful login for user: {}. Attempts reset.", username);
     }
-    
+
     /**
      * Check if a username is currently locked out
-     * 
+     *
      * @param username The username to check
      * @return true if the account is locked, false otherwise
      */
     public boolean isLocked(String username) {
-        if (username == null) {
-            return false;
-        }
-        
-        LoginAttemptInfo attemptInfo = attemptsCache.get(username);
-        if (attemptInfo == null) {
-            return false;
-        }
-        
-        // Check if lockout time is set and still valid
-        if (attemptInfo.getLockoutTime() > 0) {
-            boolean locked = System.currentTimeMillis() < attemptInfo.getLockoutTime();
-            
-            // If lockout has expired, remove from cache
-            if (!locked) {
-                attemptsCache.remove(username);
-                logger.debug("Lockout expired for user: {}", username);
-            }
-            
-            return locked;
-        }
-        
-        return false;
+        return username != null && isLocked(attemptsByUsername, username);
     }
-    
+
+    /**
+     * Check if a client IP is currently blocked
+     *
+     * @param ipAddress The client IP address to check
+     * @return true if the IP is blocked, false otherwise
+     */
+    public boolean isIpBlocked(String ipAddress) {
+        return ipAddress != null && isLocked(attemptsByIp, ipAddress);
+    }
+
     /**
      * Get the number of minutes remaining in the lockout period
-     * 
+     *
      * @param username The username to check
      * @return The number of minutes remaining, or 0 if not locked
      */
     public long getLockoutMinutesRemaining(String username) {
-        if (username == null) {
-            return 0;
-        }
-        
-        LoginAttemptInfo attemptInfo = attemptsCache.get(username);
-        if (attemptInfo == null || attemptInfo.getLockoutTime() <= 0) {
-            return 0;
-        }
-        
-        long remainingMs = attemptInfo.getLockoutTime() - System.currentTimeMillis();
-        if (remainingMs <= 0) {
-            return 0;
-        }
-        
-        return TimeUnit.MILLISECONDS.toMinutes(remainingMs) + 1; // Round up to the next minute
+        return username == null ? 0 : getLockoutMinutesRemaining(attemptsByUsername, username);
     }
-    
+
+    /**
+     * Get the number of minutes remaining in the block period of a client IP
+     *
+     * @param ipAddress The client IP address to check
+     * @return The number of minutes remaining, or 0 if not blocked
+     */
+    public long getIpBlockMinutesRemaining(String ipAddress) {
+        return ipAddress == null ? 0 : getLockoutMinutesRemaining(attemptsByIp, ipAddress);
+    }
+
     /**
      * Get the maximum allowed attempts before lockout
-     * 
+     *
      * @return The maximum number of attempts
      */
     public int getMaxAttempts() {
         return MAX_ATTEMPTS;
     }
-    
+
     /**
      * Get the lockout duration in minutes
-     * 
+     *
      * @return The lockout duration
      */
     public long getLockoutDurationMinutes() {
         return LOCKOUT_DURATION_MINUTES;
     }
-    
+
+    /**
+     * Get the number of usernames and IPs currently tracked
+     *
+     * @return The number of tracked keys
+     */
+    public int getTrackedKeyCount() {
+        return attemptsByUsername.size() + attemptsByIp.size();
+    }
+
+    /**
+     * Get the lockout rate measured over the last sweep interval
+     *
+     * @return The number of lockouts per minute
+     */
+    public double getLockoutsPerMinute() {
+        return lockoutsPerMinute;
+    }
+
+    /**
+     * Periodically remove records whose lockout has ended and whose failures have aged out,
+     * and update the lockout rate
+     */
+    @Scheduled(fixedRate = SWEEP_INTERVAL_MS)
+    public void sweepExpired() {
+        long now = System.currentTimeMillis();
+        int removed = sweep(attemptsByUsername, now) + sweep(attemptsByIp, now);
+
+        long lockouts = lockoutCount.get();
+        synchronized (this) {
+            long elapsed = Math.max(1, now - lastSweepTime);
+            lockoutsPerMinute = (lockouts - lockoutCountAtLastSweep) * (double) TimeUnit.MINUTES.toMillis(1) / elapsed;
+            lockoutCountAtLastSweep = lockouts;
+            lastSweepTime = now;
+        }
+
+        if (removed > 0) {
+            logger.debug("Removed {} expired login attempt records", removed);
+        }
+    }
+
     /**
-     * Helper class to store login attempt information
+     * Add a failure to the record of a key, locking it once the threshold is reached
+     *
+     * @return the updated record, or null if the key could not be tracked because the map is full
+     */
+    private LoginAttemptInfo recordFailure(Map<String, LoginAttemptInfo> attempts, String key, int maxAttempts) {
+        long now = System.currentTimeMillis();
+
+        LoginAttemptInfo attemptInfo = attempts.get(key);
+        if (attemptInfo == null) {
+            if (attempts.size() >= MAX_TRACKED_KEYS) {
+                sweep(attempts, now);
+                if (attempts.size() >= MAX_TRACKED_KEYS) {
+                    droppedCounter.increment();
+                    logger.warn("Login attempt tracking is full; not tracking: {}", key);
+                    return null;
+                }
+            }
+            attemptInfo = attempts.computeIfAbsent(key, k -> new LoginAttemptInfo());
+        }
+
+        int failures = attemptInfo.addFailedAttempt(now);
+
+        // If max attempts reached, set lockout time once per lockout period
+        if (failures >= maxAttempts) {
+            long lockoutTime = now + TimeUnit.MINUTES.toMillis(LOCKOUT_DURATION_MINUTES);
+            if (attemptInfo.lock(now, lockoutTime)) {
+                lockoutCount.incrementAndGet();
+                lockoutCounter.increment();
+                logger.warn("Locked: {} due to {} failed attempts. Locked until: {}", key, failures, lockoutTime);
+            }
+        }
+
+        return attemptInfo;
+    }
+
+    private boolean isLocked(Map<String, LoginAttemptInfo> attempts, String key) {
+        LoginAttemptInfo attemptInfo = attempts.get(key);
+        if (attemptInfo == null) {
+            return false;
+        }
+
+        long lockoutTime = attemptInfo.getLockoutTime();
+        if (lockoutTime <= 0) {
+            return false;
+        }
+
+        boolean locked = System.currentTimeMillis() < lockoutTime;
+
+        // If lockout has expired, remove from cache
+        if (!locked) {
+            attempts.remove(key, attemptInfo);
+            logger.debug("Lockout expired for: {}", key);
+        }
+
+        return locked;
+    }
+
+    private long getLockoutMinutesRemaining(Map<String, LoginAttemptInfo> attempts, String key) {
+        LoginAttemptInfo attemptInfo = attempts.get(key);
+        if (attemptInfo == null || attemptInfo.getLockoutTime() <= 0) {
+            return 0;
+        }
+
+        long remainingMs = attemptInfo.getLockoutTime() - System.currentTimeMillis();
+        if (remainingMs <= 0) {
+            return 0;
+        }
+
+        return TimeUnit.MILLISECONDS.toMinutes(remainingMs) + 1; // Round up to the next minute
+    }
+
+    private int sweep(Map<String, LoginAttemptInfo> attempts, long now) {
+        int before = attempts.size();
+        long windowMs = TimeUnit.MINUTES.toMillis(ATTEMPT_WINDOW_MINUTES);
+        attempts.values().removeIf(attemptInfo -> attemptInfo.isExpired(now, windowMs));
+        return before - attempts.size();
+    }
+
+    /**
+     * Helper class to store login attempt information.
+     * All fields are updated atomically so concurrent login threads do not lose updates.
      */
     private static class LoginAttemptInfo {
-        private int failedAttempts;
-        private long lockoutTime;
-        
-        public void addFailedAttempt() {
-            failedAttempts++;
+        private final AtomicInteger failedAttempts = new AtomicInteger();
+        private final AtomicLong lockoutTime = new AtomicLong();
+        private volatile long lastFailureTime;
+
+        public int addFailedAttempt(long now) {
+            lastFailureTime = now;
+            return failedAttempts.incrementAndGet();
         }
-        
+
         public int getFailedAttempts() {
-            return failedAttempts;
+            return failedAttempts.get();
         }
-        
-        public void setLockoutTime(long lockoutTime) {
-            this.lockoutTime = lockoutTime;
+
+        /**
+         * Set the lockout time unless a lockout is already in effect
+         *
+         * @return true if this call started a new lockout
+         */
+        public boolean lock(long now, long until) {
+            long current = lockoutTime.get();
+            return current <= now && lockoutTime.compareAndSet(current, until);
         }
-        
+
         public long getLockoutTime() {
-            return lockoutTime;
+            return lockoutTime.get();
+        }
+
+        public boolean isExpired(long now, long windowMs) {
+            return lockoutTime.get() <= now && now - lastFailureTime > windowMs;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,114 @@
+package com.example.accessapp.security;
+
+import com.example.accessapp.exception.PasswordHashingRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dedicated, bounded executor for password hashing and verification.
+ * Hashing is deliberately slow and CPU bound, so it runs on one thread per core with a bounded queue
+ * instead of on request threads. When the queue is full, or a task waits longer than the configured
+ * limit, the caller is rejected immediately with a PasswordHashingRejectedException (HTTP 503):
+ * a login burst then ties up at most threads + queueCapacity request threads, and other endpoints keep being served.
+ */
+@Component
+public class PasswordHashingExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final long maxWaitMs;
+
+    private final Timer hashTimer;
+    private final Timer queueWaitTimer;
+    private final Counter rejectedCounter;
+
+    public PasswordHashingExecutor(@Value("${accessapp.passwordHashing.threads:0}") int threads,
+                                   @Value("${accessapp.passwordHashing.queueCapacity:64}") int queueCapacity,
+                                   @Value("${accessapp.passwordHashing.maxWaitMs:2000}") long maxWaitMs,
+                                   MeterRegistry meterRegistry) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.maxWaitMs = maxWaitMs;
+
+        this.hashTimer = Timer.builder("accessapp.password.hashing.duration").register(meterRegistry);
+        this.queueWaitTimer = Timer.builder("accessapp.password.hashing.queue.wait").register(meterRegistry);
+        this.rejectedCounter = Counter.builder("accessapp.password.hashing.rejected").register(meterRegistry);
+        Gauge.builder("accessapp.password.hashing.queue.depth", executor, e -> e.getQueue().size()).register(meterRegistry);
+        Gauge.builder("accessapp.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Run a hashing task on the executor and wait for its result
+     *
+     * @param task the task, e.g. encoding or matching a password
+     * @return the result of the task
+     * @throws PasswordHashingRejectedException if the executor is saturated or the task waited too long
+     */
+    public <T> T execute(Callable<T> task) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                queueWaitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                long start = System.nanoTime();
+                try {
+                    return task.call();
+                } finally {
+                    hashTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new PasswordHashingRejectedException("Server is busy, please try again shortly");
+        }
+
+        try {
+            return future.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Drop the task if it has not started yet so it does not waste a worker
+            future.cancel(false);
+            rejectedCounter.increment();
+            throw new PasswordHashingRejectedException("Server is busy, please try again shortly");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingRejectedException("Interrupted while waiting for password hashing");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Password hashing failed", cause);
+        }
+    }
+}
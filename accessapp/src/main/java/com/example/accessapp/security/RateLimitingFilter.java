@@ -1,5 +1,12 @@
 package com.example.accessapp.security;
 
+import com.example.accessapp.security.ratelimit.RateLimitDecision;
+import com.example.accessapp.security.ratelimit.RateLimitProperties;
+import com.example.accessapp.security.ratelimit.RateLimitRule;
+import com.example.accessapp.security.ratelimit.RateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -7,31 +14,49 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.lang.NonNull;
 
 import java.io.IOException;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Filter to implement rate limiting based on IP address and endpoint.
  * Protects against brute force attacks and API abuse.
- * Uses a simple in-memory implementation with sliding window approach.
+ * Delegates to a pluggable RateLimiter engine and applies per-route limits from configuration.
  */
 @Component
 public class RateLimitingFilter extends OncePerRequestFilter {
     private static final Logger logger = LoggerFactory.getLogger(RateLimitingFilter.class);
     
-    // Cache to store request counts per IP and endpoint
-    private final Map<String, RequestCounter> requestCounts = new ConcurrentHashMap<>();
+    private final RateLimiter rateLimiter;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
     
-    // Rate limit configuration
-    private static final int AUTH_ENDPOINT_LIMIT = 5; // 5 requests per minute for auth endpoints
-    private static final int DEFAULT_ENDPOINT_LIMIT = 60; // 60 requests per minute for other endpoints
-    private static final long WINDOW_SIZE_MS = TimeUnit.MINUTES.toMillis(1); // 1 minute window
+    // Route rules in match order, followed by the default rule
+    private final List<String> routePatterns = new ArrayList<>();
+    private final List<RateLimitRule> routeRules = new ArrayList<>();
+    private final RateLimitRule defaultRule;
+    
+    private final Counter rejectedCounter;
+    
+    public RateLimitingFilter(RateLimiter rateLimiter, RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        
+        for (RateLimitProperties.Route route : properties.getRoutes()) {
+            long windowMs = route.getWindowMs() != null ? route.getWindowMs() : properties.getWindowMs();
+            routePatterns.add(route.getPattern());
+            routeRules.add(new RateLimitRule(route.getPattern(), route.getLimit(), windowMs));
+        }
+        this.defaultRule = new RateLimitRule("default", properties.getDefaultLimit(), properties.getWindowMs());
+        
+        this.rejectedCounter = Counter.builder("accessapp.ratelimit.rejected").register(meterRegistry);
+        Gauge.builder("accessapp.ratelimit.keys", rateLimiter, RateLimiter::size).register(meterRegistry);
+    }
     
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain)
@@ -49,11 +74,15 @@ public class RateLimitingFilter extends OncePerRequestFilter {
         String key = clientIp + ":" + endpoint;
         
         // Determine rate limit based on endpoint
-        int rateLimit = endpoint.startsWith("/api/auth/") ? AUTH_ENDPOINT_LIMIT : DEFAULT_ENDPOINT_LIMIT;
+        RateLimitRule rule = resolveRule(endpoint);
+        RateLimitDecision decision = rateLimiter.tryAcquire(key, rule);
+        writeRateLimitHeaders(response, decision);
         
         // Check if rate limit is exceeded
-        if (isRateLimitExceeded(key, rateLimit)) {
+        if (!decision.isAllowed()) {
+            rejectedCounter.increment();
             logger.warn("Rate limit exceeded for IP: {} on endpoint: {}", clientIp, endpoint);
+            response.setHeader("Retry-After", String.valueOf(toSecondsRoundedUp(decision.getResetMs())));
             response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
             response.setContentType("application/json");
             response.getWriter().write("{\"status\":\"error\",\"message\":\"Rate limit exceeded. Please try again later.\"}");
@@ -65,41 +94,48 @@ public class RateLimitingFilter extends OncePerRequestFilter {
     }
     
     /**
-     * Check if rate limit is exceeded for the given key
-     * 
-     * @param key The cache key (IP + endpoint)
-     * @param limit The rate limit to apply
-     * @return true if rate limit is exceeded, false otherwise
+     * Periodically drop limiter state for keys whose budget is fully restored,
+     * so the key space does not grow with every client that ever made a request
      */
-    private boolean isRateLimitExceeded(String key, int limit) {
-        long currentTime = System.currentTimeMillis();
-        
-        // Get or create counter for this key
-        RequestCounter counter = requestCounts.computeIfAbsent(key, k -> new RequestCounter());
-        
-        // Clean up old requests outside the window
-        counter.removeOldRequests(currentTime - WINDOW_SIZE_MS);
-        
-        // Check if limit is exceeded
-        if (counter.getRequestCount() >= limit) {
-            return true;
+    @Scheduled(fixedDelayString = "${accessapp.rateLimit.evictionIntervalMs:60000}")
+    public void evictIdleKeys() {
+        int evicted = rateLimiter.evictIdle();
+        if (evicted > 0) {
+            logger.debug("Evicted {} idle rate limit keys", evicted);
         }
-        
-        // Add current request to counter
-        counter.addRequest(currentTime);
-        return false;
+    }
+    
+    /**
+     * Find the first configured rule whose pattern matches the path
+     */
+    private RateLimitRule resolveRule(String path) {
+        for (int i = 0; i < routePatterns.size(); i++) {
+            if (pathMatcher.match(routePatterns.get(i), path)) {
+                return routeRules.get(i);
+            }
+        }
+        return defaultRule;
+    }
+    
+    /**
+     * Add standard rate limit headers so clients can pace themselves
+     */
+    private void writeRateLimitHeaders(HttpServletResponse response, RateLimitDecision decision) {
+        response.setHeader("X-RateLimit-Limit", String.valueOf(decision.getLimit()));
+        response.setHeader("X-RateLimit-Remaining", String.valueOf(decision.getRemaining()));
+        response.setHeader("X-RateLimit-Reset", String.valueOf(toSecondsRoundedUp(decision.getResetMs())));
+    }
+    
+    private static long toSecondsRoundedUp(long millis) {
+        return (millis + TimeUnit.SECONDS.toMillis(1) - 1) / TimeUnit.SECONDS.toMillis(1);
     }
     
     /**
      * Get client IP address from request
-     * Handles X-Forwarded-For header for proxy scenarios
+     * X-Forwarded-For is applied by the server only when sent by a trusted proxy
+     * (server.forward-headers-strategy), so clients cannot pick the address they are limited by.
      */
     private String getClientIp(HttpServletRequest request) {
-        String xForwardedFor = request.getHeader("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-            // Get the first IP in the chain (client IP)
-            return xForwardedFor.split(",")[0].trim();
-        }
         return request.getRemoteAddr();
     }
     
@@ -116,32 +152,4 @@ public class RateLimitingFilter extends OncePerRequestFilter {
         String path = request.getRequestURI();
         return path.startsWith("/static/") || path.startsWith("/public/");
     }
-    
-    /**
-     * Helper class to track request counts with timestamps
-     */
-    private static class RequestCounter {
-        private final Map<Long, Integer> requestTimestamps = new ConcurrentHashMap<>();
-        
-        /**
-         * Add a request at the current timestamp
-         */
-        public void addRequest(long timestamp) {
-            requestTimestamps.compute(timestamp, (k, v) -> (v == null) ? 1 : v + 1);
-        }
-        
-        /**
-         * Remove requests older than the cutoff time
-         */
-        public void removeOldRequests(long cutoffTime) {
-            requestTimestamps.keySet().removeIf(timestamp -> timestamp < cutoffTime);
-        }
-        
-        /**
-         * Get the total request count in the current window
-         */
-        public int getRequestCount() {
-            return requestTimestamps.values().stream().mapToInt(Integer::intValue).sum();
-        }
-    }
-}
\ No newline at end of file
+}
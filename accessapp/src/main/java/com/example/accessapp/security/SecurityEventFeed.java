@@ -0,0 +1,217 @@
+package com.example.accessapp.security;
+
+import com.example.accessapp.entity.SecurityEvent;
+import com.example.accessapp.repository.SecurityEventRepository;
+import com.example.accessapp.security.jwt.TokenRevocationStore;
+import com.example.accessapp.security.jwt.TokenVersionRegistry;
+import com.example.accessapp.security.services.RoleAuthorityRegistry;
+import com.example.accessapp.security.services.UserDetailsCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Propagates revocations and user invalidations between nodes through the security_events table.
+ * Services publish an event after changing state locally; every node polls the table for events
+ * above its high-water mark in batches and applies the ones published by other nodes to its
+ * local token blacklist, user details and credential caches and token version registry.
+ * Changes therefore reach other nodes within one poll interval, and requests never query the table.
+ */
+@Component
+public class SecurityEventFeed {
+    private static final Logger logger = LoggerFactory.getLogger(SecurityEventFeed.class);
+
+    // Identifies events published by this node, which are already applied locally
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final SecurityEventRepository securityEventRepository;
+    private final TokenRevocationStore tokenRevocationStore;
+    private final UserDetailsCache userDetailsCache;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final RoleAuthorityRegistry roleAuthorityRegistry;
+    private final VerifiedCredentialCache verifiedCredentialCache;
+
+    private final int batchSize;
+    private final long gapTimeoutMs;
+    private final long retentionMs;
+
+    // ID of the last event applied; only touched by the polling thread after startup
+    private long highWaterMark;
+    // When the poller first waited on a missing ID right above the high-water mark, 0 if not waiting
+    private long gapSince;
+    private volatile long lagMs;
+
+    private final Counter appliedCounter;
+    private final Timer propagationTimer;
+
+    public SecurityEventFeed(SecurityEventRepository securityEventRepository,
+                             TokenRevocationStore tokenRevocationStore,
+                             UserDetailsCache userDetailsCache,
+                             TokenVersionRegistry tokenVersionRegistry,
+                             RoleAuthorityRegistry roleAuthorityRegistry,
+                             VerifiedCredentialCache verifiedCredentialCache,
+                             @Value("${accessapp.securityEvents.batchSize:500}") int batchSize,
+                             @Value("${accessapp.securityEvents.gapTimeoutMs:5000}") long gapTimeoutMs,
+                             @Value("${accessapp.securityEvents.retentionMs:86400000}") long retentionMs,
+                             MeterRegistry meterRegistry) {
+        this.securityEventRepository = securityEventRepository;
+        this.tokenRevocationStore = tokenRevocationStore;
+        this.userDetailsCache = userDetailsCache;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.roleAuthorityRegistry = roleAuthorityRegistry;
+        this.verifiedCredentialCache = verifiedCredentialCache;
+        this.batchSize = batchSize;
+        this.gapTimeoutMs = gapTimeoutMs;
+        this.retentionMs = retentionMs;
+
+        this.appliedCounter = Counter.builder("accessapp.security.events.applied").register(meterRegistry);
+        this.propagationTimer = Timer.builder("accessapp.security.events.propagation").register(meterRegistry);
+        Gauge.builder("accessapp.security.events.lag", this, SecurityEventFeed::getLagMs).register(meterRegistry);
+    }
+
+    /**
+     * Start tailing from the latest event; older events are already reflected in the database
+     * state that local caches and the blacklist load from
+     */
+    @PostConstruct
+    public void init() {
+        highWaterMark = securityEventRepository.findMaxId();
+    }
+
+    /**
+     * Publish the revocation of a token
+     *
+     * @param tokenKey the revocation key of the token
+     * @param expiresAt the expiry of the token
+     */
+    public void publishTokenRevoked(String tokenKey, Instant expiresAt) {
+        publish(new SecurityEvent(SecurityEvent.Type.TOKEN_REVOKED, tokenKey, null, expiresAt.toEpochMilli()));
+    }
+
+    /**
+     * Publish a change to a user's status, roles or details
+     *
+     * @param userId the user ID
+     * @param username the username, or null if unknown
+     */
+    public void publishUserChanged(Long userId, String username) {
+        publish(new SecurityEvent(SecurityEvent.Type.USER_CHANGED, username, userId, null));
+    }
+
+    /**
+     * Publish a change that affects every user, such as a role's permissions
+     */
+    public void publishAllUsersChanged() {
+        publish(new SecurityEvent(SecurityEvent.Type.ALL_USERS_CHANGED, null, null, null));
+    }
+
+    /**
+     * Get the replication lag observed by the last poll
+     *
+     * @return milliseconds between publication and local application of the oldest event applied by the last poll
+     */
+    public long getLagMs() {
+        return lagMs;
+    }
+
+    /**
+     * Read and apply the events published since the last poll
+     */
+    @Scheduled(fixedDelayString = "${accessapp.securityEvents.pollIntervalMs:500}")
+    public void poll() {
+        try {
+            List<SecurityEvent> events = securityEventRepository.findByIdGreaterThanOrderByIdAsc(
+                    highWaterMark, PageRequest.of(0, batchSize));
+            long now = System.currentTimeMillis();
+            long maxLag = 0;
+
+            for (SecurityEvent event : events) {
+                if (event.getId() != highWaterMark + 1) {
+                    // A missing ID may belong to a transaction that has not committed yet; wait for it
+                    // for a while before assuming it was rolled back
+                    if (gapSince == 0) {
+                        gapSince = now;
+                    }
+                    if (now - gapSince < gapTimeoutMs) {
+                        break;
+                    }
+                    logger.debug("Skipping security event IDs {} to {}", highWaterMark + 1, event.getId() - 1);
+                }
+                gapSince = 0;
+
+                if (!nodeId.equals(event.getOriginNode())) {
+                    apply(event);
+                    appliedCounter.increment();
+                    long lag = Math.max(0, now - event.getCreatedAt());
+                    propagationTimer.record(lag, TimeUnit.MILLISECONDS);
+                    maxLag = Math.max(maxLag, lag);
+                }
+                highWaterMark = event.getId();
+            }
+
+            lagMs = maxLag;
+        } catch (Exception e) {
+            logger.error("Failed to poll security events: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Delete events older than the retention period
+     */
+    @Scheduled(fixedDelayString = "${accessapp.securityEvents.purgeIntervalMs:3600000}")
+    public void purgeExpired() {
+        try {
+            int purged = securityEventRepository.deleteCreatedBefore(System.currentTimeMillis() - retentionMs);
+            if (purged > 0) {
+                logger.debug("Purged {} old security events", purged);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to purge security events: {}", e.getMessage());
+        }
+    }
+
+    private void publish(SecurityEvent event) {
+        event.setOriginNode(nodeId);
+        event.setCreatedAt(System.currentTimeMillis());
+        securityEventRepository.save(event);
+    }
+
+    private void apply(SecurityEvent event) {
+        switch (event.getEventType()) {
+            case TOKEN_REVOKED:
+                if (event.getSubjectKey() != null && event.getExpiresAt() != null) {
+                    tokenRevocationStore.remember(event.getSubjectKey(), event.getExpiresAt());
+                }
+                break;
+            case USER_CHANGED:
+                if (event.getUserId() != null) {
+                    tokenVersionRegistry.evict(event.getUserId());
+                    userDetailsCache.invalidate(event.getUserId());
+                    verifiedCredentialCache.invalidate(event.getUserId());
+                }
+                userDetailsCache.invalidate(event.getSubjectKey());
+                verifiedCredentialCache.invalidate(event.getSubjectKey());
+                break;
+            case ALL_USERS_CHANGED:
+                tokenVersionRegistry.clear();
+                roleAuthorityRegistry.invalidateAll();
+                userDetailsCache.invalidateAll();
+                break;
+            default:
+                logger.warn("Ignoring unknown security event type: {}", event.getEventType());
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.accessapp.security;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, short-lived cache of successful password verifications, keyed by username.
+ * Each entry holds an HMAC of the password and the stored hash it was verified against, keyed with a
+ * server-side pepper, so a repeated login with the same password skips the deliberately slow hash
+ * while the cache never holds the password itself. Because the stored hash is part of the MAC, a password
+ * change or rehash makes old entries miss; entries are also dropped explicitly when a user is changed, disabled or deleted.
+ * Bounding, expiry and invalidation work like the user details cache, through {@link BoundedTtlCache}.
+ * Disabled by default.
+ */
+@Component
+public class VerifiedCredentialCache {
+    private static final Logger logger = LoggerFactory.getLogger(VerifiedCredentialCache.class);
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final BoundedTtlCache<String, CacheEntry> cache;
+
+    private final boolean enabled;
+    private final SecretKeySpec pepper;
+    private final ThreadLocal<Mac> macs;
+
+    // Lookups that found an entry for another password; counted as misses, not hits
+    private final LongAdder mismatches = new LongAdder();
+
+    public VerifiedCredentialCache(@Value("${accessapp.credentialCache.enabled:false}") boolean enabled,
+                                   @Value("${accessapp.credentialCache.maxSize:10000}") int maxSize,
+                                   @Value("${accessapp.credentialCache.ttlMs:60000}") long ttlMs,
+                                   @Value("${accessapp.credentialCache.pepper:}") String pepper,
+                                   MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.cache = new BoundedTtlCache<>(maxSize, ttlMs);
+        this.pepper = new SecretKeySpec(pepperBytes(pepper), HMAC_ALGORITHM);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+
+        FunctionCounter.builder("accessapp.credential.cache.hits", this, VerifiedCredentialCache::getHitCount).register(meterRegistry);
+        FunctionCounter.builder("accessapp.credential.cache.misses", this, VerifiedCredentialCache::getMissCount).register(meterRegistry);
+        FunctionCounter.builder("accessapp.credential.cache.evictions", cache, BoundedTtlCache::getEvictionCount).register(meterRegistry);
+        Gauge.builder("accessapp.credential.cache.size", cache, BoundedTtlCache::size).register(meterRegistry);
+        Gauge.builder("accessapp.credential.cache.hit.ratio", this, VerifiedCredentialCache::getHitRatio).register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Check if a password was recently verified against a stored hash
+     *
+     * @param username the username
+     * @param rawPassword the presented password
+     * @param encodedPassword the stored password hash
+     * @return true if the same password was verified against the same hash within the TTL
+     */
+    public boolean isVerified(String username, CharSequence rawPassword, String encodedPassword) {
+        if (!enabled || username == null || rawPassword == null || encodedPassword == null) {
+            return false;
+        }
+
+        CacheEntry entry = cache.get(username);
+        if (entry == null) {
+            return false;
+        }
+
+        if (!MessageDigest.isEqual(entry.mac, mac(username, rawPassword, encodedPassword))) {
+            mismatches.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Take the stamp of a username before verifying a password
+     *
+     * @param username the username
+     * @return the stamp to pass to {@link #put(String, Long, CharSequence, String, long)}
+     */
+    public long stamp(String username) {
+        return username != null ? cache.stamp(username) : 0;
+    }
+
+    /**
+     * Remember a successful verification, unless the user was invalidated since the stamp was taken
+     *
+     * @param username the username
+     * @param userId the user ID, used for invalidation by ID
+     * @param rawPassword the verified password
+     * @param encodedPassword the stored hash it was verified against
+     * @param stamp the stamp taken before the password was verified
+     */
+    public void put(String username, Long userId, CharSequence rawPassword, String encodedPassword, long stamp) {
+        if (!enabled || username == null || rawPassword == null || encodedPassword == null) {
+            return;
+        }
+        cache.put(username, new CacheEntry(userId, mac(username, rawPassword, encodedPassword)), stamp);
+    }
+
+    /**
+     * Forget the verification of a username
+     *
+     * @param username the username
+     */
+    public void invalidate(String username) {
+        if (username != null) {
+            cache.invalidate(username);
+        }
+    }
+
+    /**
+     * Forget the verification of a user by ID
+     *
+     * @param userId the user ID
+     */
+    public void invalidate(Long userId) {
+        if (userId != null) {
+            cache.invalidateIf(entry -> userId.equals(entry.userId));
+        }
+    }
+
+    /**
+     * Get the share of lookups answered from the cache
+     *
+     * @return hits divided by lookups, 0 if there were none
+     */
+    public double getHitRatio() {
+        long hitCount = getHitCount();
+        long total = hitCount + getMissCount();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    public long getHitCount() {
+        return cache.getHitCount() - mismatches.sum();
+    }
+
+    public long getMissCount() {
+        return cache.getMissCount() + mismatches.sum();
+    }
+
+    private byte[] mac(String username, CharSequence rawPassword, String encodedPassword) {
+        Mac mac = macs.get();
+        mac.update(username.getBytes(StandardCharsets.UTF_8));
+        mac.update((byte) 0);
+        mac.update(rawPassword.toString().getBytes(StandardCharsets.UTF_8));
+        mac.update((byte) 0);
+        return mac.doFinal(encodedPassword.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(pepper);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 not available", e);
+        }
+    }
+
+    private static byte[] pepperBytes(String pepper) {
+        if (pepper != null && !pepper.isEmpty()) {
+            return pepper.getBytes(StandardCharsets.UTF_8);
+        }
+        // Entries only live in this process, so a random per-process pepper is enough
+        byte[] random = new byte[32];
+        new SecureRandom().nextBytes(random);
+        logger.debug("No credential cache pepper configured, using a random one");
+        return random;
+    }
+
+    /**
+     * Helper class holding a verification MAC and the user it belongs to
+     */
+    private static class CacheEntry {
+        private final Long userId;
+        private final byte[] mac;
+
+        CacheEntry(Long userId, byte[] mac) {
+            this.userId = userId;
+            this.mac = mac;
+        }
+    }
+}
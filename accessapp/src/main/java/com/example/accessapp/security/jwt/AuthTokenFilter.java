@@ -1,6 +1,8 @@
 package com.example.accessapp.security.jwt;
 
+import com.example.accessapp.security.services.UserDetailsImpl;
 import com.example.accessapp.security.services.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -29,6 +31,12 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    @Autowired
+    private TokenRevocationStore tokenRevocationStore;
+
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
     /**
@@ -39,10 +47,14 @@ public class AuthTokenFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            // Verify and read the token in a single parse
+            Claims claims = jwt != null ? jwtUtils.parseClaims(jwt) : null;
+            if (claims != null && tokenRevocationStore.isRevoked(TokenRevocationStore.revocationKey(claims, jwt))) {
+                logger.warn("Rejected revoked JWT token for user: {}", claims.getSubject());
+                claims = null;
+            }
+            UserDetails userDetails = claims != null ? resolveUserDetails(claims) : null;
+            if (userDetails != null) {
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(
                                 userDetails,
@@ -53,7 +65,7 @@ public class AuthTokenFilter extends OncePerRequestFilter {
                 SecurityContextHolder.getContext().setAuthentication(authentication);
 
                 // Set userId as request attribute for downstream use (e.g., logout)
-                request.setAttribute("userId", ((com.example.accessapp.security.services.UserDetailsImpl) userDetails).getId());
+                request.setAttribute("userId", ((UserDetailsImpl) userDetails).getId());
             }
         } catch (Exception e) {
             logger.error("Cannot set user authentication: {}", e.getMessage());
@@ -62,6 +74,29 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Resolve the principal for a verified token.
+     * In stateless principal mode the principal is built from the token claims without
+     * a database lookup; otherwise, or for tokens issued without principal claims,
+     * the user is loaded by username.
+     *
+     * @return the user details, or null if the token is stale
+     */
+    private UserDetails resolveUserDetails(Claims claims) {
+        if (jwtUtils.isStatelessPrincipal()) {
+            UserDetailsImpl principal = jwtUtils.buildUserDetailsFromClaims(claims);
+            if (principal != null) {
+                if (!tokenVersionRegistry.isCurrent(principal.getId(), principal.getTokenVersion())) {
+                    logger.warn("Rejected stale JWT token for user: {}", principal.getUsername());
+                    return null;
+                }
+                return principal;
+            }
+        }
+
+        return userDetailsService.loadUserByUsername(claims.getSubject());
+    }
+
     /**
      * Extract JWT token from Authorization header
      */
@@ -0,0 +1,143 @@
+package com.example.accessapp.security.jwt;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Lock-free counting Bloom filter over strings.
+ * Counters are 4 bits wide and packed eight to an int. Unlike a plain Bloom filter, keys can be removed.
+ * A counter that reaches 15 saturates and is never decremented again, so the filter never produces
+ * false negatives; saturation only raises the false positive rate slightly.
+ */
+public class CountingBloomFilter {
+
+    private static final int COUNTER_BITS = 4;
+    private static final int COUNTERS_PER_WORD = Integer.SIZE / COUNTER_BITS;
+    private static final int COUNTER_MASK = (1 << COUNTER_BITS) - 1;
+    private static final int MIN_COUNTERS = 64;
+
+    private final AtomicIntegerArray words;
+    private final int counterCount;
+    private final int hashCount;
+
+    /**
+     * Create a filter sized for an expected number of entries
+     *
+     * @param expectedEntries number of entries expected at the same time
+     * @param falsePositiveRate target false positive rate at that size, between 0 and 1
+     */
+    public CountingBloomFilter(int expectedEntries, double falsePositiveRate) {
+        if (expectedEntries <= 0) {
+            throw new IllegalArgumentException("expectedEntries must be positive");
+        }
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1");
+        }
+
+        double ln2 = Math.log(2);
+        long optimalCounters = (long) Math.ceil(-expectedEntries * Math.log(falsePositiveRate) / (ln2 * ln2));
+        this.counterCount = (int) Math.min(Math.max(optimalCounters, MIN_COUNTERS), Integer.MAX_VALUE - COUNTERS_PER_WORD);
+        this.hashCount = Math.max(1, (int) Math.round((double) counterCount / expectedEntries * ln2));
+        this.words = new AtomicIntegerArray((counterCount + COUNTERS_PER_WORD - 1) / COUNTERS_PER_WORD);
+    }
+
+    /**
+     * Add a key
+     *
+     * @param key the key
+     */
+    public void add(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            increment(index(h1 + i * h2));
+        }
+    }
+
+    /**
+     * Remove a key that was previously added
+     *
+     * @param key the key
+     */
+    public void remove(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            decrement(index(h1 + i * h2));
+        }
+    }
+
+    /**
+     * Check if a key may have been added
+     *
+     * @param key the key
+     * @return false if the key was definitely not added, true if it probably was
+     */
+    public boolean mightContain(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            if (count(index(h1 + i * h2)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int index(int combinedHash) {
+        return (combinedHash & Integer.MAX_VALUE) % counterCount;
+    }
+
+    private int count(int counter) {
+        int shift = (counter % COUNTERS_PER_WORD) * COUNTER_BITS;
+        return (words.get(counter / COUNTERS_PER_WORD) >>> shift) & COUNTER_MASK;
+    }
+
+    private void increment(int counter) {
+        int word = counter / COUNTERS_PER_WORD;
+        int shift = (counter % COUNTERS_PER_WORD) * COUNTER_BITS;
+        while (true) {
+            int current = words.get(word);
+            if (((current >>> shift) & COUNTER_MASK) == COUNTER_MASK) {
+                return; // Saturated
+            }
+            if (words.compareAndSet(word, current, current + (1 << shift))) {
+                return;
+            }
+        }
+    }
+
+    private void decrement(int counter) {
+        int word = counter / COUNTERS_PER_WORD;
+        int shift = (counter % COUNTERS_PER_WORD) * COUNTER_BITS;
+        while (true) {
+            int current = words.get(word);
+            int count = (current >>> shift) & COUNTER_MASK;
+            if (count == 0 || count == COUNTER_MASK) {
+                return; // Empty, or saturated and no longer exact
+            }
+            if (words.compareAndSet(word, current, current - (1 << shift))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 64-bit FNV-1a over the characters, finished with the MurmurHash3 mixer
+     */
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -1,18 +1,25 @@
 package com.example.accessapp.security.jwt;
 
 import com.example.accessapp.entity.User;
+import com.example.accessapp.security.services.RoleAuthorityRegistry;
 import com.example.accessapp.security.services.UserDetailsImpl;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
 
 /**
  * Utility class for JWT token generation, validation, and parsing.
@@ -21,12 +28,42 @@ import java.util.Date;
 public class JwtUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+    private static final String ROLE_PREFIX = "ROLE_";
+
     @Value("${accessapp.jwt.secret}")
     private String jwtSecret;
 
     @Value("${accessapp.jwt.expirationMs}")
     private int jwtExpirationMs;
 
+    // When enabled, tokens carry the principal's identity and authorities so requests need no user lookup
+    @Value("${accessapp.jwt.statelessPrincipal:false}")
+    private boolean statelessPrincipal;
+
+    // Compact claim names used by the stateless principal mode
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_CLIENT_ID = "cid";
+    static final String CLAIM_ROLES = "rol";
+    static final String CLAIM_PERMISSIONS = "prm";
+    static final String CLAIM_SUPER_ADMIN = "sa";
+    static final String CLAIM_TOKEN_VERSION = "ver";
+
+    @Autowired
+    private RoleAuthorityRegistry roleAuthorityRegistry;
+
+    // Signing key and parser are derived from the secret once; JwtParser is immutable and thread-safe
+    private Key signingKey;
+    private JwtParser jwtParser;
+
+    /**
+     * Decode the secret and build the shared parser once the properties are injected
+     */
+    @PostConstruct
+    public void init() {
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        this.jwtParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+    }
+
     /**
      * Generate a JWT token for an authenticated user
      *
@@ -36,12 +73,17 @@ public class JwtUtils {
     public String generateJwtToken(Authentication authentication) {
         UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
 
-        return Jwts.builder()
-                .setSubject(userPrincipal.getUsername())
-                .setIssuedAt(new Date())
-                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(key())
-                .compact();
+        return generateJwtToken(userPrincipal);
+    }
+
+    /**
+     * Generate a JWT token for a loaded principal
+     *
+     * @param userPrincipal the user details
+     * @return the generated JWT token
+     */
+    public String generateJwtToken(UserDetailsImpl userPrincipal) {
+        return buildToken(userPrincipal.getUsername(), statelessPrincipal ? userPrincipal : null);
     }
 
     /**
@@ -51,54 +93,144 @@ public class JwtUtils {
      * @return the generated JWT token
      */
     public String generateTokenFromUser(User user) {
-        return Jwts.builder()
-                .setSubject(user.getUsername())
+        return buildToken(user.getUsername(), statelessPrincipal ? UserDetailsImpl.build(user, roleAuthorityRegistry) : null);
+    }
+
+    /**
+     * Build and sign a token, embedding principal claims when a principal is given
+     *
+     * @param subject the token subject (username)
+     * @param principal the principal whose claims to embed, or null for a subject-only token
+     * @return the signed JWT token
+     */
+    private String buildToken(String subject, UserDetailsImpl principal) {
+        JwtBuilder builder = Jwts.builder()
+                .setId(UUID.randomUUID().toString()) // Revocation key
+                .setSubject(subject)
                 .setIssuedAt(new Date())
-                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(key())
-                .compact();
+                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs));
+
+        if (principal != null) {
+            List<String> roles = new ArrayList<>();
+            List<String> permissions = new ArrayList<>();
+            for (GrantedAuthority authority : principal.getAuthorities()) {
+                String name = authority.getAuthority();
+                if (name.startsWith(ROLE_PREFIX)) {
+                    roles.add(name.substring(ROLE_PREFIX.length()));
+                } else {
+                    permissions.add(name);
+                }
+            }
+            builder.claim(CLAIM_USER_ID, principal.getId())
+                    .claim(CLAIM_CLIENT_ID, principal.getClientId())
+                    .claim(CLAIM_ROLES, roles)
+                    .claim(CLAIM_PERMISSIONS, permissions)
+                    .claim(CLAIM_SUPER_ADMIN, principal.isSuperAdmin())
+                    .claim(CLAIM_TOKEN_VERSION, principal.getTokenVersion());
+        }
+
+        return builder.signWith(key()).compact();
     }
 
     /**
-     * Get the signing key from the JWT secret
+     * Check if tokens are issued with embedded principal claims
      *
-     * @return the signing key
+     * @return true if stateless principal mode is enabled
      */
-    private Key key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+    public boolean isStatelessPrincipal() {
+        return statelessPrincipal;
     }
 
     /**
-     * Extract username from a JWT token
+     * Build the authenticated principal directly from verified token claims
      *
-     * @param token the JWT token
-     * @return the username
+     * @param claims the verified claims
+     * @return the user details, or null if the token carries no principal claims
      */
-    public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(key()).build().parseClaimsJws(token).getBody().getSubject();
+    public UserDetailsImpl buildUserDetailsFromClaims(Claims claims) {
+        Number userId = claims.get(CLAIM_USER_ID, Number.class);
+        Number tokenVersion = claims.get(CLAIM_TOKEN_VERSION, Number.class);
+        if (userId == null || tokenVersion == null) {
+            return null;
+        }
+        Number clientId = claims.get(CLAIM_CLIENT_ID, Number.class);
+        Boolean superAdmin = claims.get(CLAIM_SUPER_ADMIN, Boolean.class);
+
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        List<?> roles = claims.get(CLAIM_ROLES, List.class);
+        if (roles != null) {
+            roles.forEach(role -> authorities.add(roleAuthorityRegistry.authority(ROLE_PREFIX + role)));
+        }
+        List<?> permissions = claims.get(CLAIM_PERMISSIONS, List.class);
+        if (permissions != null) {
+            permissions.forEach(permission -> authorities.add(roleAuthorityRegistry.authority(permission.toString())));
+        }
+
+        return new UserDetailsImpl(
+                userId.longValue(),
+                claims.getSubject(),
+                null,
+                null,
+                true, // Disabled users get a new token version, so a current token implies enabled
+                Boolean.TRUE.equals(superAdmin),
+                clientId != null ? clientId.longValue() : null,
+                tokenVersion.longValue(),
+                authorities);
     }
 
     /**
-     * Validate a JWT token
+     * Get the signing key from the JWT secret
      *
-     * @param authToken the JWT token to validate
-     * @return true if the token is valid, false otherwise
+     * @return the signing key
      */
-    public boolean validateJwtToken(String authToken) {
+    private Key key() {
+        return signingKey;
+    }
+
+    /**
+     * Verify a JWT token and return its claims in a single parse.
+     * Callers that need several values from the same token should use this
+     * instead of validating and then extracting each value separately.
+     *
+     * @param authToken the JWT token
+     * @return the verified claims, or null if the token is invalid
+     */
+    public Claims parseClaims(String authToken) {
         try {
-            Jwts.parserBuilder().setSigningKey(key()).build().parseClaimsJws(authToken);
-            return true;
+            return jwtParser.parseClaimsJws(authToken).getBody();
         } catch (MalformedJwtException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
             logger.error("JWT token is expired: {}", e.getMessage());
         } catch (UnsupportedJwtException e) {
             logger.error("JWT token is unsupported: {}", e.getMessage());
+        } catch (JwtException e) {
+            logger.error("Invalid JWT signature: {}", e.getMessage());
         } catch (IllegalArgumentException e) {
             logger.error("JWT claims string is empty: {}", e.getMessage());
         }
 
-        return false;
+        return null;
+    }
+
+    /**
+     * Extract username from a JWT token
+     *
+     * @param token the JWT token
+     * @return the username
+     */
+    public String getUserNameFromJwtToken(String token) {
+        return jwtParser.parseClaimsJws(token).getBody().getSubject();
+    }
+
+    /**
+     * Validate a JWT token
+     *
+     * @param authToken the JWT token to validate
+     * @return true if the token is valid, false otherwise
+     */
+    public boolean validateJwtToken(String authToken) {
+        return parseClaims(authToken) != null;
     }
 
     /**
@@ -108,7 +240,7 @@ public class JwtUtils {
      * @return the expiration date
      */
     public java.time.Instant getExpirationDateFromJwtToken(String token) {
-        Date expiration = Jwts.parserBuilder().setSigningKey(key()).build().parseClaimsJws(token).getBody().getExpiration();
+        Date expiration = jwtParser.parseClaimsJws(token).getBody().getExpiration();
         return expiration.toInstant();
     }
 }
\ No newline at end of file
@@ -0,0 +1,198 @@
+package com.example.accessapp.security.jwt;
+
+import com.example.accessapp.repository.TokenBlacklistRepository;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Store of revoked (blacklisted) access tokens, keyed by JWT ID or, for tokens issued without one, by token hash.
+ * A counting Bloom filter answers the common "not revoked" case without touching the exact set;
+ * the exact set maps each revoked key to the token's expiry and is swept once tokens expire,
+ * since an expired token is rejected by signature validation anyway.
+ * Revocations are persisted to token_blacklist and loaded back on startup. Only the key is stored:
+ * tokens carrying stateless principal claims can be longer than any reasonable column.
+ */
+@Component
+public class TokenRevocationStore {
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationStore.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO token_blacklist (token_key, expiry_date, blacklisted_at, client_id) VALUES (?, ?, ?, ?)";
+
+    private final TokenBlacklistRepository tokenBlacklistRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final CountingBloomFilter bloomFilter;
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>(); // key -> expiry epoch millis
+
+    // Statistics
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder bloomFalsePositives = new LongAdder();
+
+    public TokenRevocationStore(TokenBlacklistRepository tokenBlacklistRepository,
+                                JdbcTemplate jdbcTemplate,
+                                @Value("${accessapp.jwt.revocation.expectedEntries:100000}") int expectedEntries,
+                                @Value("${accessapp.jwt.revocation.falsePositiveRate:0.01}") double falsePositiveRate,
+                                MeterRegistry meterRegistry) {
+        this.tokenBlacklistRepository = tokenBlacklistRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.bloomFilter = new CountingBloomFilter(expectedEntries, falsePositiveRate);
+
+        FunctionCounter.builder("accessapp.token.revocation.checks", checks, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("accessapp.token.revocation.bloom.false.positives", bloomFalsePositives, LongAdder::sum)
+                .register(meterRegistry);
+        Gauge.builder("accessapp.token.revocation.size", revoked, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Load the revocations that are still in effect from the database
+     */
+    @PostConstruct
+    public void load() {
+        long now = System.currentTimeMillis();
+        int loaded = 0;
+        for (Object[] row : tokenBlacklistRepository.findActiveTokenKeys(LocalDateTime.now())) {
+            long expiresAt = toEpochMillis((LocalDateTime) row[1]);
+            if (expiresAt > now) {
+                remember((String) row[0], expiresAt);
+                loaded++;
+            }
+        }
+        logger.info("Loaded {} revoked tokens", loaded);
+    }
+
+    /**
+     * Get the revocation key of a token
+     *
+     * @param claims the verified claims of the token, or null if the token could not be verified
+     * @param token the raw token
+     * @return the JWT ID, or the hex SHA-256 of the token if it has no ID
+     */
+    public static String revocationKey(Claims claims, String token) {
+        if (claims != null && claims.getId() != null) {
+            return claims.getId();
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Check if a token has been revoked
+     *
+     * @param key the revocation key of the token
+     * @return true if the token is revoked and not yet expired
+     */
+    public boolean isRevoked(String key) {
+        checks.increment();
+        if (!bloomFilter.mightContain(key)) {
+            return false;
+        }
+        Long expiresAt = revoked.get(key);
+        if (expiresAt == null) {
+            bloomFalsePositives.increment();
+            return false;
+        }
+        return expiresAt > System.currentTimeMillis();
+    }
+
+    /**
+     * Revoke a token until it expires, persisting the revocation
+     *
+     * @param key the revocation key of the token
+     * @param expiresAt the expiry of the token
+     * @param clientId the client ID
+     * @return true if the token was not revoked before
+     * @throws DataAccessException if the revocation could not be persisted
+     */
+    public boolean revoke(String key, Instant expiresAt, Long clientId) {
+        if (isRevoked(key)) {
+            return false;
+        }
+
+        try {
+            jdbcTemplate.update(INSERT_SQL, key,
+                    Timestamp.valueOf(LocalDateTime.ofInstant(expiresAt, ZoneId.systemDefault())),
+                    Timestamp.valueOf(LocalDateTime.now()), clientId);
+        } catch (DuplicateKeyException e) {
+            // Already revoked concurrently, possibly on another node
+            logger.debug("Token already blacklisted: {}", key);
+        }
+
+        remember(key, expiresAt.toEpochMilli());
+        return true;
+    }
+
+    /**
+     * Record a revocation in memory only, e.g. one already persisted elsewhere
+     *
+     * @param key the revocation key of the token
+     * @param expiresAtMillis the expiry of the token in epoch milliseconds
+     */
+    public void remember(String key, long expiresAtMillis) {
+        revoked.compute(key, (k, current) -> {
+            if (current == null) {
+                // Added to the filter before the entry becomes visible
+                bloomFilter.add(k);
+                return expiresAtMillis;
+            }
+            return Math.max(current, expiresAtMillis);
+        });
+    }
+
+    /**
+     * Get the number of revocations held in memory
+     *
+     * @return the number of revoked, unexpired tokens
+     */
+    public int size() {
+        return revoked.size();
+    }
+
+    /**
+     * Periodically drop revocations of tokens that have expired
+     */
+    @Scheduled(fixedRate = 60000)
+    public void sweepExpired() {
+        long now = System.currentTimeMillis();
+        int removed = 0;
+        for (Map.Entry<String, Long> entry : revoked.entrySet()) {
+            if (entry.getValue() <= now && revoked.remove(entry.getKey(), entry.getValue())) {
+                bloomFilter.remove(entry.getKey());
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            logger.debug("Removed {} expired token revocations", removed);
+        }
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return Timestamp.valueOf(dateTime).getTime();
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.accessapp.security.jwt;
+
+import com.example.accessapp.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the current token version of each user in memory.
+ * Tokens carrying an older version than the one recorded here were issued before
+ * a role or enabled-status change and must no longer be accepted.
+ * Versions are loaded lazily from the database the first time a user is seen.
+ */
+@Component
+public class TokenVersionRegistry {
+
+    // Version used for users that no longer exist, so every token is considered stale
+    private static final long MISSING_USER_VERSION = Long.MAX_VALUE;
+
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+
+    @Autowired
+    private UserRepository userRepository;
+
+    /**
+     * Check if a token version is still current for a user
+     *
+     * @param userId the user ID
+     * @param tokenVersion the version embedded in the token
+     * @return true if the token was issued at or after the latest version
+     */
+    public boolean isCurrent(Long userId, long tokenVersion) {
+        return tokenVersion >= getVersion(userId);
+    }
+
+    /**
+     * Get the current token version of a user
+     *
+     * @param userId the user ID
+     * @return the current version
+     */
+    public long getVersion(Long userId) {
+        return versions.computeIfAbsent(userId, id -> userRepository.findTokenVersionById(id)
+                .orElse(MISSING_USER_VERSION));
+    }
+
+    /**
+     * Forget the cached version of a user so it is reloaded on next use, e.g. after it was incremented
+     *
+     * @param userId the user ID
+     */
+    public void evict(Long userId) {
+        versions.remove(userId);
+    }
+
+    /**
+     * Forget all cached versions, e.g. after a bulk update
+     */
+    public void clear() {
+        versions.clear();
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.accessapp.security.password;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds the application's password encoder from PasswordEncodingProperties.
+ * New hashes use the configured algorithm and carry its id as a prefix ("{argon2}...");
+ * stored hashes of any supported algorithm are verified, including the unprefixed BCrypt hashes
+ * written before algorithms were configurable. A hash from another algorithm, or a BCrypt or Argon2 hash
+ * with a lower cost, reports upgradeEncoding, which makes DaoAuthenticationProvider rehash the password
+ * on the next successful login.
+ * PBKDF2 hashes do not record their iteration count, so stored {pbkdf2} hashes only match with the
+ * iteration count they were created with. PBKDF2 is therefore never calibrated, and changing
+ * {@code pbkdf2.iterations} makes every stored {pbkdf2} hash fail to match.
+ */
+@Component
+public class PasswordEncoderFactory {
+    private static final Logger logger = LoggerFactory.getLogger(PasswordEncoderFactory.class);
+
+    private static final String CALIBRATION_PASSWORD = "Calibration-Passw0rd!";
+    private static final int MAX_BCRYPT_STRENGTH = 16;
+    private static final int MAX_ARGON2_ITERATIONS = 10;
+
+    private final PasswordEncodingProperties properties;
+
+    public PasswordEncoderFactory(PasswordEncodingProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Create the password encoder, calibrating the cost of the selected algorithm first if enabled
+     *
+     * @return a delegating encoder hashing with the selected algorithm
+     */
+    public PasswordEncoder create() {
+        PasswordEncodingProperties.Algorithm algorithm = properties.getAlgorithm();
+        if (properties.isCalibrate()) {
+            calibrate(algorithm, properties.getTargetLatencyMs() * 1_000_000L);
+        }
+
+        BCryptPasswordEncoder bcrypt = bcrypt(properties.getBcrypt().getStrength());
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put(PasswordEncodingProperties.Algorithm.BCRYPT.getId(), bcrypt);
+        encoders.put(PasswordEncodingProperties.Algorithm.PBKDF2.getId(), pbkdf2(properties.getPbkdf2().getIterations()));
+        encoders.put(PasswordEncodingProperties.Algorithm.ARGON2.getId(), argon2(properties.getArgon2().getIterations()));
+
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(algorithm.getId(), encoders);
+        // Hashes stored before algorithms were configurable are unprefixed BCrypt
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        logger.info("Hashing passwords with {} ({})", algorithm, describe(algorithm));
+        return encoder;
+    }
+
+    /**
+     * Raise the cost of an algorithm until a hash takes about the target time, never going below the configured cost.
+     * Only BCrypt and Argon2 are calibrated, as their hashes record the cost they were created with.
+     */
+    private void calibrate(PasswordEncodingProperties.Algorithm algorithm, long targetNanos) {
+        switch (algorithm) {
+            case BCRYPT: {
+                PasswordEncodingProperties.Bcrypt bcrypt = properties.getBcrypt();
+                int strength = bcrypt.getStrength();
+                long nanos = measure(bcrypt(strength));
+                // Each step doubles the work; stop before the next one would overshoot the target
+                while (strength < MAX_BCRYPT_STRENGTH && nanos * 2 <= targetNanos) {
+                    strength++;
+                    nanos *= 2;
+                }
+                bcrypt.setStrength(strength);
+                break;
+            }
+            case PBKDF2:
+                // A calibrated count could differ between restarts or nodes and lock out every {pbkdf2} hash
+                logger.info("PBKDF2 is not calibrated; using the configured {} iterations", properties.getPbkdf2().getIterations());
+                return;
+            case ARGON2: {
+                PasswordEncodingProperties.Argon2 argon2 = properties.getArgon2();
+                long nanos = measure(argon2(argon2.getIterations()));
+                // Memory stays fixed; work is linear in the iterations
+                long iterations = argon2.getIterations() * targetNanos / Math.max(1, nanos);
+                argon2.setIterations((int) Math.max(argon2.getIterations(), Math.min(iterations, MAX_ARGON2_ITERATIONS)));
+                break;
+            }
+            default:
+                throw new IllegalStateException("Unsupported password hashing algorithm: " + algorithm);
+        }
+        logger.info("Calibrated {} to {} for a target of {} ms", algorithm, describe(algorithm), properties.getTargetLatencyMs());
+    }
+
+    /**
+     * Measure the time of one hash: the fastest of a few runs after a warm-up
+     */
+    private static long measure(PasswordEncoder encoder) {
+        encoder.encode(CALIBRATION_PASSWORD);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            encoder.encode(CALIBRATION_PASSWORD);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private String describe(PasswordEncodingProperties.Algorithm algorithm) {
+        switch (algorithm) {
+            case BCRYPT:
+                return "strength " + properties.getBcrypt().getStrength();
+            case PBKDF2:
+                return properties.getPbkdf2().getIterations() + " iterations";
+            case ARGON2:
+                PasswordEncodingProperties.Argon2 argon2 = properties.getArgon2();
+                return argon2.getMemoryKb() + " KB, " + argon2.getIterations() + " iterations, parallelism " + argon2.getParallelism();
+            default:
+                return algorithm.name();
+        }
+    }
+
+    private static BCryptPasswordEncoder bcrypt(int strength) {
+        return new BCryptPasswordEncoder(strength);
+    }
+
+    private Pbkdf2PasswordEncoder pbkdf2(int iterations) {
+        return new Pbkdf2PasswordEncoder("", properties.getPbkdf2().getSaltLength(), iterations,
+                Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256);
+    }
+
+    private Argon2PasswordEncoder argon2(int iterations) {
+        PasswordEncodingProperties.Argon2 argon2 = properties.getArgon2();
+        return new Argon2PasswordEncoder(argon2.getSaltLength(), argon2.getHashLength(), argon2.getParallelism(),
+                argon2.getMemoryKb(), iterations);
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.accessapp.security.password;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Password hashing algorithm and cost configuration bound from {@code accessapp.passwordEncoding.*} properties.
+ * The BCrypt and Argon2 costs are minimums: with calibration enabled, the cost of the selected algorithm
+ * is raised at startup until a hash takes about targetLatencyMs on the current hardware.
+ * The PBKDF2 iterations are used as configured.
+ */
+@Component
+@ConfigurationProperties(prefix = "accessapp.passwordEncoding")
+public class PasswordEncodingProperties {
+
+    /**
+     * Algorithm used to hash new passwords; hashes of the other algorithms are still verified
+     */
+    public enum Algorithm {
+        BCRYPT("bcrypt"),
+        PBKDF2("pbkdf2"),
+        ARGON2("argon2"); // Argon2id
+
+        private final String id;
+
+        Algorithm(String id) {
+            this.id = id;
+        }
+
+        /**
+         * Get the prefix identifying hashes of this algorithm, e.g. "{bcrypt}"
+         */
+        public String getId() {
+            return id;
+        }
+    }
+
+    private Algorithm algorithm = Algorithm.BCRYPT;
+    private boolean calibrate = false;
+    private long targetLatencyMs = 250;
+    private final Bcrypt bcrypt = new Bcrypt();
+    private final Pbkdf2 pbkdf2 = new Pbkdf2();
+    private final Argon2 argon2 = new Argon2();
+
+    public Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(Algorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public boolean isCalibrate() {
+        return calibrate;
+    }
+
+    public void setCalibrate(boolean calibrate) {
+        this.calibrate = calibrate;
+    }
+
+    public long getTargetLatencyMs() {
+        return targetLatencyMs;
+    }
+
+    public void setTargetLatencyMs(long targetLatencyMs) {
+        this.targetLatencyMs = targetLatencyMs;
+    }
+
+    public Bcrypt getBcrypt() {
+        return bcrypt;
+    }
+
+    public Pbkdf2 getPbkdf2() {
+        return pbkdf2;
+    }
+
+    public Argon2 getArgon2() {
+        return argon2;
+    }
+
+    /**
+     * BCrypt cost: each step of strength doubles the work
+     */
+    public static class Bcrypt {
+        private int strength = 12;
+
+        public int getStrength() {
+            return strength;
+        }
+
+        public void setStrength(int strength) {
+            this.strength = strength;
+        }
+    }
+
+    /**
+     * PBKDF2 (HMAC-SHA256) cost; fixed, as stored hashes only match with the iterations they were created with
+     */
+    public static class Pbkdf2 {
+        private int iterations = 310000;
+        private int saltLength = 16;
+
+        public int getIterations() {
+            return iterations;
+        }
+
+        public void setIterations(int iterations) {
+            this.iterations = iterations;
+        }
+
+        public int getSaltLength() {
+            return saltLength;
+        }
+
+        public void setSaltLength(int saltLength) {
+            this.saltLength = saltLength;
+        }
+    }
+
+    /**
+     * Argon2id cost; calibration raises the iterations and keeps the memory fixed
+     */
+    public static class Argon2 {
+        private int memoryKb = 19456;
+        private int iterations = 2;
+        private int parallelism = 1;
+        private int saltLength = 16;
+        private int hashLength = 32;
+
+        public int getMemoryKb() {
+            return memoryKb;
+        }
+
+        public void setMemoryKb(int memoryKb) {
+            this.memoryKb = memoryKb;
+        }
+
+        public int getIterations() {
+            return iterations;
+        }
+
+        public void setIterations(int iterations) {
+            this.iterations = iterations;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public int getSaltLength() {
+            return saltLength;
+        }
+
+        public void setSaltLength(int saltLength) {
+            this.saltLength = saltLength;
+        }
+
+        public int getHashLength() {
+            return hashLength;
+        }
+
+        public void setHashLength(int hashLength) {
+            this.hashLength = hashLength;
+        }
+    }
+}
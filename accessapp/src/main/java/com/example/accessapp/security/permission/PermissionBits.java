@@ -0,0 +1,135 @@
+package com.example.accessapp.security.permission;
+
+import java.util.Arrays;
+
+/**
+ * Immutable bitset of authorities, one bit per ordinal assigned by {@link PermissionIndex}.
+ * Checking a principal's grants against a requirement is a word-wise AND
+ * instead of a scan over the principal's authority collection.
+ */
+public final class PermissionBits {
+
+    public static final PermissionBits EMPTY = new PermissionBits(new long[0]);
+
+    private final long[] words;
+
+    private PermissionBits(long[] words) {
+        this.words = words;
+    }
+
+    /**
+     * Create a bitset with the given ordinals set
+     *
+     * @param ordinals the authority ordinals
+     * @return the bitset
+     */
+    public static PermissionBits of(int... ordinals) {
+        if (ordinals.length == 0) {
+            return EMPTY;
+        }
+        int max = 0;
+        for (int ordinal : ordinals) {
+            max = Math.max(max, ordinal);
+        }
+        long[] words = new long[(max >>> 6) + 1];
+        for (int ordinal : ordinals) {
+            words[ordinal >>> 6] |= 1L << ordinal;
+        }
+        return new PermissionBits(words);
+    }
+
+    /**
+     * Combine two bitsets
+     *
+     * @param other the bitset to combine with
+     * @return a bitset holding the authorities of both
+     */
+    public PermissionBits union(PermissionBits other) {
+        if (other.words.length > words.length) {
+            return other.union(this);
+        }
+        long[] result = words.clone();
+        for (int i = 0; i < other.words.length; i++) {
+            result[i] |= other.words[i];
+        }
+        return new PermissionBits(result);
+    }
+
+    /**
+     * Check if any bit is set in both bitsets
+     *
+     * @param other the bitset to check against
+     * @return true if the bitsets share at least one authority
+     */
+    public boolean intersects(PermissionBits other) {
+        int length = Math.min(words.length, other.words.length);
+        for (int i = 0; i < length; i++) {
+            if ((words[i] & other.words[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check if every bit of another bitset is set in this one
+     *
+     * @param other the bitset to check against
+     * @return true if this bitset holds all authorities of the other
+     */
+    public boolean containsAll(PermissionBits other) {
+        for (int i = 0; i < other.words.length; i++) {
+            long word = i < words.length ? words[i] : 0L;
+            if ((word & other.words[i]) != other.words[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check if an ordinal is set
+     *
+     * @param ordinal the authority ordinal
+     * @return true if the authority is held
+     */
+    public boolean contains(int ordinal) {
+        int word = ordinal >>> 6;
+        return word < words.length && (words[word] & (1L << ordinal)) != 0;
+    }
+
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PermissionBits that = (PermissionBits) o;
+        int length = Math.max(words.length, that.words.length);
+        for (int i = 0; i < length; i++) {
+            long a = i < words.length ? words[i] : 0L;
+            long b = i < that.words.length ? that.words[i] : 0L;
+            if (a != b) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        // Ignore trailing empty words so equal sets hash alike
+        int length = words.length;
+        while (length > 0 && words[length - 1] == 0) {
+            length--;
+        }
+        return Arrays.hashCode(Arrays.copyOf(words, length));
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.accessapp.security.permission;
+
+import com.example.accessapp.security.services.UserDetailsImpl;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Assigns every authority name ("ROLE_" authorities and permission names) a dense ordinal,
+ * so that sets of authorities can be represented as {@link PermissionBits}.
+ * Ordinals are assigned on first use and never change, so bitsets computed earlier stay valid.
+ */
+@Component
+public class PermissionIndex {
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private final Map<String, Integer> ordinals = new ConcurrentHashMap<>();
+    private final AtomicInteger nextOrdinal = new AtomicInteger();
+
+    /**
+     * Get the ordinal of an authority, assigning the next free one if it has none yet
+     *
+     * @param authority the authority name
+     * @return the ordinal
+     */
+    public int ordinal(String authority) {
+        Integer ordinal = ordinals.get(authority);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        return ordinals.computeIfAbsent(authority, name -> nextOrdinal.getAndIncrement());
+    }
+
+    /**
+     * Look up the ordinal of an authority without assigning one
+     *
+     * @param authority the authority name
+     * @return the ordinal, or -1 if the authority has never been seen and so is held by nobody
+     */
+    public int find(String authority) {
+        Integer ordinal = ordinals.get(authority);
+        return ordinal != null ? ordinal : -1;
+    }
+
+    /**
+     * Get the number of ordinals assigned so far
+     *
+     * @return the number of distinct authorities seen
+     */
+    public int size() {
+        return nextOrdinal.get();
+    }
+
+    /**
+     * Compile roles and permissions into a bitset
+     *
+     * @param roles role names, without the "ROLE_" prefix
+     * @param permissions permission names
+     * @return the bitset of all given authorities
+     */
+    public PermissionBits compile(String[] roles, String[] permissions) {
+        int[] bits = new int[roles.length + permissions.length];
+        int i = 0;
+        for (String role : roles) {
+            bits[i++] = ordinal(role.startsWith(ROLE_PREFIX) ? role : ROLE_PREFIX + role);
+        }
+        for (String permission : permissions) {
+            bits[i++] = ordinal(permission);
+        }
+        return PermissionBits.of(bits);
+    }
+
+    /**
+     * Compile granted authorities into a bitset
+     *
+     * @param authorities the granted authorities
+     * @return the bitset of the authorities
+     */
+    public PermissionBits compile(Collection<? extends GrantedAuthority> authorities) {
+        int[] bits = new int[authorities.size()];
+        int i = 0;
+        for (GrantedAuthority authority : authorities) {
+            if (authority.getAuthority() != null) {
+                bits[i++] = ordinal(authority.getAuthority());
+            }
+        }
+        return PermissionBits.of(i == bits.length ? bits : Arrays.copyOf(bits, i));
+    }
+
+    /**
+     * Get the authorities granted to an authentication as a bitset
+     *
+     * @param authentication the authentication
+     * @return the bitset of its authorities, cached on the principal when it is a UserDetailsImpl
+     */
+    public PermissionBits grantsOf(Authentication authentication) {
+        Object principal = authentication.getPrincipal();
+        if (principal instanceof UserDetailsImpl) {
+            return ((UserDetailsImpl) principal).getPermissionBits(this);
+        }
+        return compile(authentication.getAuthorities());
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.accessapp.security.permission;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Restricts a method, or every method of a class, to principals holding any of the given roles or permissions.
+ * Equivalent to {@code @PreAuthorize("hasRole('A') or hasAuthority('B')")}, but the requirement is compiled
+ * once into a bitset and checked with a bitmask AND instead of evaluating a SpEL expression on every call.
+ * A method-level annotation takes precedence over a class-level one.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RequiresPermission {
+
+    /**
+     * Roles granting access, without the "ROLE_" prefix
+     */
+    String[] roles() default {};
+
+    /**
+     * Permissions granting access
+     */
+    String[] permissions() default {};
+}
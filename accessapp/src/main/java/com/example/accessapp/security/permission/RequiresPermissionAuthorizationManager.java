@@ -0,0 +1,70 @@
+package com.example.accessapp.security.permission;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Authorization manager for methods annotated with {@link RequiresPermission}.
+ * The annotation of each method is resolved and compiled into a bitset on first call;
+ * later calls only AND that bitset with the principal's grants.
+ */
+@Component
+public class RequiresPermissionAuthorizationManager implements AuthorizationManager<MethodInvocation> {
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    private final PermissionIndex permissionIndex;
+    private final Map<Method, PermissionBits> requirements = new ConcurrentHashMap<>();
+
+    public RequiresPermissionAuthorizationManager(PermissionIndex permissionIndex) {
+        this.permissionIndex = permissionIndex;
+    }
+
+    @Override
+    public AuthorizationDecision authorize(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        PermissionBits required = requirements.computeIfAbsent(invocation.getMethod(),
+                method -> compile(method, invocation.getThis()));
+
+        Authentication auth = authentication.get();
+        if (auth == null || !auth.isAuthenticated() || auth instanceof AnonymousAuthenticationToken) {
+            return DENIED;
+        }
+        return permissionIndex.grantsOf(auth).intersects(required) ? GRANTED : DENIED;
+    }
+
+    /**
+     * @deprecated use {@link #authorize(Supplier, MethodInvocation)}, which Spring Security calls;
+     * implemented only because {@link AuthorizationManager} still declares it abstract
+     */
+    @Deprecated
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        return authorize(authentication, invocation);
+    }
+
+    private PermissionBits compile(Method method, Object target) {
+        Class<?> targetClass = target != null ? AopUtils.getTargetClass(target) : method.getDeclaringClass();
+        Method specificMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+
+        RequiresPermission annotation = AnnotatedElementUtils.findMergedAnnotation(specificMethod, RequiresPermission.class);
+        if (annotation == null) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(targetClass, RequiresPermission.class);
+        }
+        if (annotation == null) {
+            throw new IllegalStateException("No @RequiresPermission found on " + specificMethod);
+        }
+        return permissionIndex.compile(annotation.roles(), annotation.permissions());
+    }
+}
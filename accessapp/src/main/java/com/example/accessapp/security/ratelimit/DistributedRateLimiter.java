@@ -0,0 +1,239 @@
+package com.example.accessapp.security.ratelimit;
+
+import com.example.accessapp.entity.RateLimitCounterKey;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sliding window counter shared by all nodes through a SharedRateLimitStore.
+ * Requests are counted locally and decided against the last known shared count plus the local
+ * count; a background task periodically pushes the aggregated local counts to the store in one
+ * batch and reads back the shared totals. Request threads never wait on the store, at the cost
+ * of the limit being enforced with up to one sync interval of lag across nodes.
+ */
+public class DistributedRateLimiter implements RateLimiter {
+    private static final Logger logger = LoggerFactory.getLogger(DistributedRateLimiter.class);
+
+    // Longest key stored verbatim; longer keys are replaced by their SHA-256 digest
+    private static final int MAX_STORE_KEY_LENGTH = 255;
+
+    private final SharedRateLimitStore store;
+    private final Map<String, KeyState> states = new ConcurrentHashMap<>();
+
+    // Counts of windows that rolled over before they were synced
+    private final Map<RateLimitCounterKey, SharedRateLimitStore.Delta> outbox = new ConcurrentHashMap<>();
+
+    public DistributedRateLimiter(SharedRateLimitStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public RateLimitDecision tryAcquire(String key, RateLimitRule rule) {
+        long now = System.currentTimeMillis();
+        long windowMs = rule.getWindowMs();
+        long windowStart = now - now % windowMs;
+        int limit = rule.getLimit();
+
+        KeyState state = states.computeIfAbsent(key, k -> new KeyState(toStoreKey(k), windowMs, windowStart));
+        if (state.windowStart != windowStart) {
+            roll(state, windowStart);
+        }
+        state.lastAccess = now;
+
+        double previousWeight = 1.0 - (double) (now - windowStart) / windowMs;
+        long resetMs = windowStart + windowMs - now;
+
+        // Reserve the request with a CAS on the pending count, so concurrent requests cannot all pass the
+        // same estimate. Pending is read before the shared counts: a sync that drains it in between adds the
+        // drained count to the shared count, which is then counted twice rather than not at all, and the
+        // changed pending count makes the request try again instead of being decided on that estimate.
+        while (true) {
+            long pending = state.pending.get();
+            double estimate = state.sharedPrevious * previousWeight + state.sharedCurrent + pending;
+            if (estimate + 1 > limit) {
+                if (state.pending.get() != pending) {
+                    continue;
+                }
+                return RateLimitDecision.rejected(limit, resetMs);
+            }
+            if (state.pending.compareAndSet(pending, pending + 1)) {
+                return RateLimitDecision.allowed(limit, (long) Math.floor(limit - estimate - 1), resetMs);
+            }
+        }
+    }
+
+    @Override
+    public int evictIdle() {
+        long now = System.currentTimeMillis();
+        int before = states.size();
+        // Keys untouched for two windows no longer influence any estimate
+        states.values().removeIf(state -> state.pending.get() == 0 && now - state.lastAccess > 2 * state.windowMs);
+        return before - states.size();
+    }
+
+    @Override
+    public int size() {
+        return states.size();
+    }
+
+    /**
+     * Push locally aggregated counts to the shared store and refresh the shared totals
+     */
+    @Scheduled(fixedDelayString = "${accessapp.rateLimit.jdbc.syncIntervalMs:250}")
+    public void sync() {
+        try {
+            List<SharedRateLimitStore.Delta> deltas = new ArrayList<>();
+            long minWindowStart = Long.MAX_VALUE;
+
+            for (RateLimitCounterKey key : outbox.keySet()) {
+                SharedRateLimitStore.Delta delta = outbox.remove(key);
+                if (delta != null) {
+                    deltas.add(delta);
+                }
+            }
+
+            for (KeyState state : states.values()) {
+                synchronized (state) {
+                    long count = state.pending.getAndSet(0);
+                    if (count > 0) {
+                        // Keep the drained count visible locally until the shared total is read back
+                        state.sharedCurrent += count;
+                        deltas.add(new SharedRateLimitStore.Delta(state.storeKey, state.windowStart, count,
+                                expiryOf(state.windowStart, state.windowMs)));
+                    }
+                    minWindowStart = Math.min(minWindowStart, state.windowStart - state.windowMs);
+                }
+            }
+
+            try {
+                store.increment(deltas);
+            } catch (RuntimeException e) {
+                // Keep the drained counts for the next sync; if the store applied part of the batch,
+                // that part is counted twice, which errs on the side of the limit
+                deltas.forEach(this::requeue);
+                throw e;
+            }
+
+            if (states.isEmpty()) {
+                return;
+            }
+
+            List<String> storeKeys = new ArrayList<>(states.size());
+            states.values().forEach(state -> storeKeys.add(state.storeKey));
+            Map<RateLimitCounterKey, Long> counts = store.fetchCounts(storeKeys, minWindowStart);
+
+            for (KeyState state : states.values()) {
+                synchronized (state) {
+                    state.sharedCurrent = counts.getOrDefault(new RateLimitCounterKey(state.storeKey, state.windowStart), 0L);
+                    state.sharedPrevious = counts.getOrDefault(
+                            new RateLimitCounterKey(state.storeKey, state.windowStart - state.windowMs), 0L);
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Failed to sync rate limit counters: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Delete shared counters that have expired
+     */
+    @Scheduled(fixedDelayString = "${accessapp.rateLimit.jdbc.purgeIntervalMs:60000}")
+    public void purgeExpired() {
+        try {
+            int purged = store.purgeExpired(System.currentTimeMillis());
+            if (purged > 0) {
+                logger.debug("Purged {} expired rate limit counters", purged);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to purge rate limit counters: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Flush pending counts before shutdown so other nodes keep seeing them
+     */
+    @PreDestroy
+    public void shutdown() {
+        sync();
+    }
+
+    /**
+     * Move a key to a new window, queueing any unsynced count of the old window
+     */
+    private void roll(KeyState state, long windowStart) {
+        synchronized (state) {
+            if (state.windowStart == windowStart) {
+                return;
+            }
+            long leftover = state.pending.getAndSet(0);
+            if (leftover > 0) {
+                requeue(new SharedRateLimitStore.Delta(state.storeKey, state.windowStart,
+                        leftover, expiryOf(state.windowStart, state.windowMs)));
+            }
+            boolean adjacent = windowStart - state.windowStart == state.windowMs;
+            state.sharedPrevious = adjacent ? state.sharedCurrent + leftover : 0;
+            state.sharedCurrent = 0;
+            state.windowStart = windowStart;
+        }
+    }
+
+    /**
+     * Queue a count for the next sync, adding it to any count already queued for the same window
+     */
+    private void requeue(SharedRateLimitStore.Delta delta) {
+        outbox.merge(new RateLimitCounterKey(delta.getKey(), delta.getWindowStart()), delta,
+                (a, b) -> new SharedRateLimitStore.Delta(a.getKey(), a.getWindowStart(),
+                        a.getCount() + b.getCount(), a.getExpiresAt()));
+    }
+
+    /**
+     * A window affects limits until the end of the window that follows it
+     */
+    private static long expiryOf(long windowStart, long windowMs) {
+        return windowStart + 2 * windowMs;
+    }
+
+    private static String toStoreKey(String key) {
+        if (key.length() <= MAX_STORE_KEY_LENGTH) {
+            return key;
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(key.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Local view of one key: the shared totals as of the last sync plus unsynced local requests
+     */
+    private static class KeyState {
+        private final String storeKey;
+        private final long windowMs;
+        private final AtomicLong pending = new AtomicLong();
+        private volatile long windowStart;
+        private volatile long sharedCurrent;
+        private volatile long sharedPrevious;
+        private volatile long lastAccess;
+
+        KeyState(String storeKey, long windowMs, long windowStart) {
+            this.storeKey = storeKey;
+            this.windowMs = windowMs;
+            this.windowStart = windowStart;
+            this.lastAccess = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.accessapp.security.ratelimit;
+
+import com.example.accessapp.entity.RateLimitCounterKey;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC implementation of the shared rate limit store backed by the rate_limit_counters table.
+ * Increments are applied as a single batched MySQL upsert; reads and purges work in bounded chunks.
+ */
+public class JdbcRateLimitStore implements SharedRateLimitStore {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO rate_limit_counters (limit_key, window_start, request_count, expires_at) VALUES (?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE request_count = request_count + VALUES(request_count)";
+
+    private static final String PURGE_SQL = "DELETE FROM rate_limit_counters WHERE expires_at < ? LIMIT ?";
+
+    // Maximum number of keys per IN list and rows per purge statement
+    private static final int CHUNK_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcRateLimitStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void increment(List<Delta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, deltas, CHUNK_SIZE, (ps, delta) -> {
+            ps.setString(1, delta.getKey());
+            ps.setLong(2, delta.getWindowStart());
+            ps.setLong(3, delta.getCount());
+            ps.setLong(4, delta.getExpiresAt());
+        });
+    }
+
+    @Override
+    public Map<RateLimitCounterKey, Long> fetchCounts(Collection<String> keys, long minWindowStart) {
+        if (keys.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Map<RateLimitCounterKey, Long> counts = new HashMap<>();
+        List<String> keyList = new ArrayList<>(keys);
+        for (int from = 0; from < keyList.size(); from += CHUNK_SIZE) {
+            List<String> chunk = keyList.subList(from, Math.min(from + CHUNK_SIZE, keyList.size()));
+            String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+            String sql = "SELECT limit_key, window_start, request_count FROM rate_limit_counters "
+                    + "WHERE window_start >= ? AND limit_key IN (" + placeholders + ")";
+
+            Object[] args = new Object[chunk.size() + 1];
+            args[0] = minWindowStart;
+            for (int i = 0; i < chunk.size(); i++) {
+                args[i + 1] = chunk.get(i);
+            }
+
+            jdbcTemplate.query(sql, (RowCallbackHandler) rs ->
+                    counts.put(new RateLimitCounterKey(rs.getString(1), rs.getLong(2)), rs.getLong(3)), args);
+        }
+        return counts;
+    }
+
+    @Override
+    public int purgeExpired(long now) {
+        int total = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(PURGE_SQL, now, CHUNK_SIZE);
+            total += deleted;
+        } while (deleted == CHUNK_SIZE);
+        return total;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.accessapp.security.ratelimit;
+
+/**
+ * Result of a rate limit check, carrying the values reported in X-RateLimit-* headers.
+ */
+public class RateLimitDecision {
+    private final boolean allowed;
+    private final int limit;
+    private final long remaining;
+    private final long resetMs;
+
+    private RateLimitDecision(boolean allowed, int limit, long remaining, long resetMs) {
+        this.allowed = allowed;
+        this.limit = limit;
+        this.remaining = remaining;
+        this.resetMs = resetMs;
+    }
+
+    /**
+     * Create a decision allowing the request
+     *
+     * @param limit the configured limit
+     * @param remaining the requests remaining in the current window
+     * @param resetMs milliseconds until the budget is fully restored
+     * @return the decision
+     */
+    public static RateLimitDecision allowed(int limit, long remaining, long resetMs) {
+        return new RateLimitDecision(true, limit, Math.max(0, remaining), Math.max(0, resetMs));
+    }
+
+    /**
+     * Create a decision rejecting the request
+     *
+     * @param limit the configured limit
+     * @param retryAfterMs milliseconds until a request may be allowed again
+     * @return the decision
+     */
+    public static RateLimitDecision rejected(int limit, long retryAfterMs) {
+        return new RateLimitDecision(false, limit, 0, Math.max(0, retryAfterMs));
+    }
+
+    public boolean isAllowed() {
+        return allowed;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public long getRemaining() {
+        return remaining;
+    }
+
+    public long getResetMs() {
+        return resetMs;
+    }
+}
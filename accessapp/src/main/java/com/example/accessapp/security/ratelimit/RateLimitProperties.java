@@ -0,0 +1,120 @@
+package com.example.accessapp.security.ratelimit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rate limiting configuration bound from {@code accessapp.rateLimit.*} properties.
+ * Routes are matched in order with Ant-style patterns; requests matching no route use the default limit.
+ */
+@Component
+@ConfigurationProperties(prefix = "accessapp.rate-limit")
+public class RateLimitProperties {
+
+    /**
+     * Supported limiter algorithms
+     */
+    public enum Algorithm {
+        SLIDING_WINDOW,
+        TOKEN_BUCKET
+    }
+
+    /**
+     * Where limiter state is kept: in this JVM only, or shared by all nodes through the database
+     */
+    public enum Store {
+        MEMORY,
+        JDBC
+    }
+
+    private Algorithm algorithm = Algorithm.SLIDING_WINDOW;
+    private Store store = Store.MEMORY;
+    private int defaultLimit = 60;
+    private long windowMs = 60000;
+    private long evictionIntervalMs = 60000;
+    private List<Route> routes = new ArrayList<>();
+
+    public Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(Algorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public Store getStore() {
+        return store;
+    }
+
+    public void setStore(Store store) {
+        this.store = store;
+    }
+
+    public int getDefaultLimit() {
+        return defaultLimit;
+    }
+
+    public void setDefaultLimit(int defaultLimit) {
+        this.defaultLimit = defaultLimit;
+    }
+
+    public long getWindowMs() {
+        return windowMs;
+    }
+
+    public void setWindowMs(long windowMs) {
+        this.windowMs = windowMs;
+    }
+
+    public long getEvictionIntervalMs() {
+        return evictionIntervalMs;
+    }
+
+    public void setEvictionIntervalMs(long evictionIntervalMs) {
+        this.evictionIntervalMs = evictionIntervalMs;
+    }
+
+    public List<Route> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(List<Route> routes) {
+        this.routes = routes;
+    }
+
+    /**
+     * Limit applied to requests whose path matches a pattern
+     */
+    public static class Route {
+        private String pattern;
+        private int limit;
+        private Long windowMs; // Falls back to the global window when not set
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        public void setPattern(String pattern) {
+            this.pattern = pattern;
+        }
+
+        public int getLimit() {
+            return limit;
+        }
+
+        public void setLimit(int limit) {
+            this.limit = limit;
+        }
+
+        public Long getWindowMs() {
+            return windowMs;
+        }
+
+        public void setWindowMs(Long windowMs) {
+            this.windowMs = windowMs;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.accessapp.security.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Immutable rate limit rule: at most {@code limit} requests per {@code windowMs} milliseconds.
+ */
+public class RateLimitRule {
+    private final String name;
+    private final int limit;
+    private final long windowMs;
+
+    public RateLimitRule(String name, int limit, long windowMs) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Rate limit must be positive for rule: " + name);
+        }
+        if (windowMs <= 0) {
+            throw new IllegalArgumentException("Rate limit window must be positive for rule: " + name);
+        }
+        this.name = name;
+        this.limit = limit;
+        this.windowMs = windowMs;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public long getWindowMs() {
+        return windowMs;
+    }
+
+    public long getWindowNanos() {
+        return TimeUnit.MILLISECONDS.toNanos(windowMs);
+    }
+}
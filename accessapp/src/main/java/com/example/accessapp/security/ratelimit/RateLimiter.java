@@ -0,0 +1,31 @@
+package com.example.accessapp.security.ratelimit;
+
+/**
+ * Engine that decides whether a request identified by a key may proceed under a rate limit rule.
+ * Implementations must be safe for concurrent use from request threads.
+ */
+public interface RateLimiter {
+
+    /**
+     * Try to consume one request from the budget of a key
+     *
+     * @param key the rate limit key (e.g., client IP and endpoint)
+     * @param rule the rule to apply
+     * @return the decision, including the remaining budget for response headers
+     */
+    RateLimitDecision tryAcquire(String key, RateLimitRule rule);
+
+    /**
+     * Remove state for keys that no longer hold any information, i.e. whose budget is fully restored
+     *
+     * @return the number of keys removed
+     */
+    int evictIdle();
+
+    /**
+     * Get the number of keys currently tracked
+     *
+     * @return the number of tracked keys
+     */
+    int size();
+}
@@ -0,0 +1,73 @@
+package com.example.accessapp.security.ratelimit;
+
+import com.example.accessapp.entity.RateLimitCounterKey;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SPI for shared rate limit counter storage used by the distributed rate limiter.
+ * Counts are kept per key and fixed window so that every node adds to, and reads from,
+ * the same budget. Implementations receive pre-aggregated deltas in batches rather than
+ * one write per request.
+ */
+public interface SharedRateLimitStore {
+
+    /**
+     * Add locally aggregated request counts to the shared counters
+     *
+     * @param deltas the counts to add, at most one per key and window
+     */
+    void increment(List<Delta> deltas);
+
+    /**
+     * Read the shared counts of the given keys for all windows starting at or after a time
+     *
+     * @param keys the rate limit keys
+     * @param minWindowStart the earliest window start to include, in epoch milliseconds
+     * @return the counts keyed by key and window start
+     */
+    Map<RateLimitCounterKey, Long> fetchCounts(Collection<String> keys, long minWindowStart);
+
+    /**
+     * Delete counters that can no longer affect any limit
+     *
+     * @param now the current time in epoch milliseconds
+     * @return the number of counters deleted
+     */
+    int purgeExpired(long now);
+
+    /**
+     * Request count to add to one key and window
+     */
+    class Delta {
+        private final String key;
+        private final long windowStart;
+        private final long count;
+        private final long expiresAt;
+
+        public Delta(String key, long windowStart, long count, long expiresAt) {
+            this.key = key;
+            this.windowStart = windowStart;
+            this.count = count;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public long getWindowStart() {
+            return windowStart;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.accessapp.security.ratelimit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free sliding window counter.
+ * Each key keeps the counts of the current and previous fixed windows packed into a single
+ * AtomicLong (window index: 32 bits, previous count: 16 bits, current count: 16 bits).
+ * The request rate is estimated by weighting the previous window by the part of it that still
+ * overlaps the sliding window. Counts saturate at 65535 per window.
+ */
+public class SlidingWindowRateLimiter implements RateLimiter {
+
+    private static final int MAX_COUNT = 0xFFFF;
+
+    private final Map<String, WindowCounter> windows = new ConcurrentHashMap<>();
+
+    @Override
+    public RateLimitDecision tryAcquire(String key, RateLimitRule rule) {
+        long now = System.currentTimeMillis();
+        long windowMs = rule.getWindowMs();
+        int limit = rule.getLimit();
+        int windowIndex = (int) (now / windowMs);
+        long elapsedMs = now % windowMs;
+        double previousWeight = 1.0 - (double) elapsedMs / windowMs;
+        long resetMs = windowMs - elapsedMs;
+
+        WindowCounter window = windows.computeIfAbsent(key, k -> new WindowCounter(windowMs, pack(windowIndex, 0, 0)));
+
+        while (true) {
+            long state = window.get();
+            int stateIndex = windowIndex(state);
+            int previous = previousCount(state);
+            int current = currentCount(state);
+
+            // Roll the window forward if time has moved on since the last request
+            if (stateIndex != windowIndex) {
+                previous = stateIndex == windowIndex - 1 ? current : 0;
+                current = 0;
+            }
+
+            double estimate = previous * previousWeight + current;
+            if (estimate + 1 > limit) {
+                return RateLimitDecision.rejected(limit, resetMs);
+            }
+
+            long next = pack(windowIndex, previous, Math.min(current + 1, MAX_COUNT));
+            if (window.compareAndSet(state, next)) {
+                long remaining = (long) Math.floor(limit - estimate - 1);
+                return RateLimitDecision.allowed(limit, remaining, resetMs);
+            }
+        }
+    }
+
+    @Override
+    public int evictIdle() {
+        long now = System.currentTimeMillis();
+        int before = windows.size();
+        windows.values().removeIf(window -> window.isIdle(now));
+        return before - windows.size();
+    }
+
+    @Override
+    public int size() {
+        return windows.size();
+    }
+
+    private static long pack(int windowIndex, int previous, int current) {
+        return ((long) windowIndex << 32) | ((long) (previous & MAX_COUNT) << 16) | (current & MAX_COUNT);
+    }
+
+    private static int windowIndex(long state) {
+        return (int) (state >>> 32);
+    }
+
+    private static int previousCount(long state) {
+        return (int) ((state >>> 16) & MAX_COUNT);
+    }
+
+    private static int currentCount(long state) {
+        return (int) (state & MAX_COUNT);
+    }
+
+    /**
+     * Packed window state of a key, together with the window length it was created with
+     */
+    private static class WindowCounter extends AtomicLong {
+        private static final long serialVersionUID = 1L;
+
+        private final long windowMs;
+
+        WindowCounter(long windowMs, long initialState) {
+            super(initialState);
+            this.windowMs = windowMs;
+        }
+
+        /**
+         * A counter is idle once both of its windows lie entirely in the past
+         */
+        boolean isIdle(long now) {
+            int currentIndex = (int) (now / windowMs);
+            return currentIndex - windowIndex(get()) > 1;
+        }
+    }
+}
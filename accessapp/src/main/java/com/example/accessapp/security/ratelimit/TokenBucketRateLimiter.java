@@ -0,0 +1,56 @@
+package com.example.accessapp.security.ratelimit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket implemented as a generic cell rate algorithm (GCRA).
+ * Each key holds a single "theoretical arrival time"; a request is allowed if advancing it by one
+ * emission interval keeps it within one window of the current time. This gives a bucket of
+ * {@code limit} tokens refilled continuously over the window, using one AtomicLong per key.
+ */
+public class TokenBucketRateLimiter implements RateLimiter {
+
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    @Override
+    public RateLimitDecision tryAcquire(String key, RateLimitRule rule) {
+        long now = System.nanoTime();
+        long window = rule.getWindowNanos();
+        long interval = Math.max(1, window / rule.getLimit());
+
+        AtomicLong bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+
+        while (true) {
+            long tat = bucket.get();
+            long newTat = Math.max(tat, now) + interval;
+            long backlog = newTat - now;
+
+            // Bucket is empty: the request would exceed the burst allowed within one window
+            if (backlog > window) {
+                return RateLimitDecision.rejected(rule.getLimit(), TimeUnit.NANOSECONDS.toMillis(backlog - window));
+            }
+
+            if (bucket.compareAndSet(tat, newTat)) {
+                long remaining = (window - backlog) / interval;
+                return RateLimitDecision.allowed(rule.getLimit(), remaining, TimeUnit.NANOSECONDS.toMillis(backlog));
+            }
+        }
+    }
+
+    @Override
+    public int evictIdle() {
+        long now = System.nanoTime();
+        int before = buckets.size();
+        // A bucket whose arrival time has passed is full again and carries no state
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+        return before - buckets.size();
+    }
+
+    @Override
+    public int size() {
+        return buckets.size();
+    }
+}
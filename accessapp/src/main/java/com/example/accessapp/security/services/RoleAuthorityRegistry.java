@@ -0,0 +1,141 @@
+package com.example.accessapp.security.services;
+
+import com.example.accessapp.entity.Role;
+import com.example.accessapp.entity.RolePermission;
+import com.example.accessapp.entity.User;
+import com.example.accessapp.entity.UserRole;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Precomputed authorities per role.
+ * Each role's "ROLE_" authority and permission authorities are computed once into an immutable list,
+ * and every authority instance is interned, so building a principal is a union of shared lists
+ * instead of new strings and objects per role and permission on every request.
+ * A role's permissions are not loaded again while its entry is cached.
+ * Entries are dropped when any role or permission changes, which bumps the registry generation.
+ */
+@Component
+public class RoleAuthorityRegistry {
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private final Map<String, GrantedAuthority> interned = new ConcurrentHashMap<>();
+    private final Map<Long, RoleEntry> roles = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Get the shared authority instance for a name
+     *
+     * @param name the authority name
+     * @return the interned authority
+     */
+    public GrantedAuthority authority(String name) {
+        return interned.computeIfAbsent(name, SimpleGrantedAuthority::new);
+    }
+
+    /**
+     * Get the authorities granted by a role: its "ROLE_" authority followed by its permissions
+     *
+     * @param role the role
+     * @return an immutable list of interned authorities
+     */
+    public List<GrantedAuthority> getAuthorities(Role role) {
+        if (role.getId() == null) {
+            return compute(role);
+        }
+
+        long currentGeneration = generation.get();
+        RoleEntry entry = roles.get(role.getId());
+        if (entry != null && entry.generation == currentGeneration) {
+            return entry.authorities;
+        }
+
+        // Computed outside the map so loading permissions never blocks other roles
+        List<GrantedAuthority> authorities = compute(role);
+        if (generation.get() == currentGeneration) {
+            roles.put(role.getId(), new RoleEntry(currentGeneration, authorities));
+        }
+        return authorities;
+    }
+
+    /**
+     * Get the authorities of a role if they are cached
+     *
+     * @param roleId the role ID
+     * @return an immutable list of interned authorities, or null if the role has to be loaded
+     */
+    public List<GrantedAuthority> getCachedAuthorities(Long roleId) {
+        RoleEntry entry = roles.get(roleId);
+        if (entry != null && entry.generation == generation.get()) {
+            return entry.authorities;
+        }
+        return null;
+    }
+
+    /**
+     * Get the union of the authorities of all roles of a user
+     *
+     * @param user the user
+     * @return an immutable list of interned authorities
+     */
+    public List<GrantedAuthority> getAuthorities(User user) {
+        Set<UserRole> userRoles = user.getUserRoles();
+        if (userRoles.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (userRoles.size() == 1) {
+            // Common case: share the role's list as is
+            return getAuthorities(userRoles.iterator().next().getRole());
+        }
+
+        Set<GrantedAuthority> union = new LinkedHashSet<>();
+        for (UserRole userRole : userRoles) {
+            union.addAll(getAuthorities(userRole.getRole()));
+        }
+        return List.copyOf(union);
+    }
+
+    /**
+     * Drop every cached role, e.g. after a role or permission changed
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        roles.clear();
+    }
+
+    private List<GrantedAuthority> compute(Role role) {
+        List<GrantedAuthority> authorities = new ArrayList<>(role.getRolePermissions().size() + 1);
+        authorities.add(authority(ROLE_PREFIX + role.getName()));
+        for (RolePermission rolePermission : role.getRolePermissions()) {
+            GrantedAuthority permission = authority(rolePermission.getPermission().getName());
+            if (!authorities.contains(permission)) {
+                authorities.add(permission);
+            }
+        }
+        return List.copyOf(authorities);
+    }
+
+    /**
+     * Helper class holding the authorities of a role and the generation they were computed in
+     */
+    private static class RoleEntry {
+        private final long generation;
+        private final List<GrantedAuthority> authorities;
+
+        RoleEntry(long generation, List<GrantedAuthority> authorities) {
+            this.generation = generation;
+            this.authorities = authorities;
+        }
+    }
+}
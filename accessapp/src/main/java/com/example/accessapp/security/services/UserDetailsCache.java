@@ -0,0 +1,123 @@
+package com.example.accessapp.security.services;
+
+import com.example.accessapp.security.BoundedTtlCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded, expiring in-process cache of user details keyed by username.
+ * Sits in front of the user lookup in UserDetailsServiceImpl so that the same active users
+ * do not trigger identical user, role and permission queries on every request.
+ * Entries are invalidated explicitly by the services that change users, roles or permissions;
+ * details loaded while an invalidation runs are not cached, see {@link #stamp(String)}.
+ */
+@Component
+public class UserDetailsCache {
+    private static final Logger logger = LoggerFactory.getLogger(UserDetailsCache.class);
+
+    private final BoundedTtlCache<String, UserDetailsImpl> cache;
+    private final boolean enabled;
+
+    public UserDetailsCache(@Value("${accessapp.userCache.enabled:true}") boolean enabled,
+                            @Value("${accessapp.userCache.maxSize:10000}") int maxSize,
+                            @Value("${accessapp.userCache.ttlMs:60000}") long ttlMs,
+                            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.cache = new BoundedTtlCache<>(maxSize, ttlMs);
+
+        FunctionCounter.builder("accessapp.user.cache.hits", cache, BoundedTtlCache::getHitCount).register(meterRegistry);
+        FunctionCounter.builder("accessapp.user.cache.misses", cache, BoundedTtlCache::getMissCount).register(meterRegistry);
+        FunctionCounter.builder("accessapp.user.cache.evictions", cache, BoundedTtlCache::getEvictionCount).register(meterRegistry);
+        Gauge.builder("accessapp.user.cache.size", cache, BoundedTtlCache::size).register(meterRegistry);
+    }
+
+    /**
+     * Get cached user details if present and not expired
+     *
+     * @param username the username
+     * @return the cached user details, or null on a miss
+     */
+    public UserDetailsImpl get(String username) {
+        if (!enabled || username == null) {
+            return null;
+        }
+        return cache.get(username);
+    }
+
+    /**
+     * Take the stamp of a username before loading its details
+     *
+     * @param username the username
+     * @return the stamp to pass to {@link #put(String, UserDetailsImpl, long)}
+     */
+    public long stamp(String username) {
+        return username != null ? cache.stamp(username) : 0;
+    }
+
+    /**
+     * Store user details for a username, unless the username was invalidated since the stamp was taken
+     *
+     * @param username the username
+     * @param userDetails the user details to cache
+     * @param stamp the stamp taken before the details were loaded
+     */
+    public void put(String username, UserDetailsImpl userDetails, long stamp) {
+        if (!enabled || username == null || userDetails == null) {
+            return;
+        }
+        if (!cache.put(username, userDetails, stamp)) {
+            logger.debug("Not caching details of {} invalidated while they were loaded", username);
+        }
+    }
+
+    /**
+     * Invalidate the cached details of a username
+     *
+     * @param username the username
+     */
+    public void invalidate(String username) {
+        if (username != null) {
+            cache.invalidate(username);
+        }
+    }
+
+    /**
+     * Invalidate the cached details of a user by ID
+     *
+     * @param userId the user ID
+     */
+    public void invalidate(Long userId) {
+        if (userId != null) {
+            cache.invalidateIf(userDetails -> userId.equals(userDetails.getId()));
+        }
+    }
+
+    /**
+     * Invalidate every cached entry, e.g. after a role's permissions changed
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+        logger.debug("User details cache cleared");
+    }
+
+    public long getHitCount() {
+        return cache.getHitCount();
+    }
+
+    public long getMissCount() {
+        return cache.getMissCount();
+    }
+
+    public long getEvictionCount() {
+        return cache.getEvictionCount();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+}
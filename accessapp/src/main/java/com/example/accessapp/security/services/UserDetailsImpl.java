@@ -1,15 +1,14 @@
 package com.example.accessapp.security.services;
 
 import com.example.accessapp.entity.User;
+import com.example.accessapp.security.permission.PermissionBits;
+import com.example.accessapp.security.permission.PermissionIndex;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
-import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 /**
  * Implementation of Spring Security's UserDetails interface.
@@ -25,7 +24,11 @@ public class UserDetailsImpl implements UserDetails {
     private String password;
     private boolean enabled;
     private boolean superAdmin;
+    private Long clientId;
+    private long tokenVersion;
     private Collection<? extends GrantedAuthority> authorities;
+    // Authorities as a bitset, computed on first permission check
+    private transient volatile PermissionBits permissionBits;
 
     public UserDetailsImpl(Long id, String username, String email, String password, 
                           boolean enabled, boolean superAdmin,
@@ -39,22 +42,19 @@ public class UserDetailsImpl implements UserDetails {
         this.authorities = authorities;
     }
 
+    public UserDetailsImpl(Long id, String username, String email, String password, 
+                          boolean enabled, boolean superAdmin, Long clientId, long tokenVersion,
+                          Collection<? extends GrantedAuthority> authorities) {
+        this(id, username, email, password, enabled, superAdmin, authorities);
+        this.clientId = clientId;
+        this.tokenVersion = tokenVersion;
+    }
+
     /**
-     * Build UserDetailsImpl from User entity
+     * Build UserDetailsImpl from User entity, taking role and permission authorities
+     * from the precomputed per-role sets of the registry
      */
-    public static UserDetailsImpl build(User user) {
-        List<GrantedAuthority> authorities = user.getRoles().stream()
-                .map(role -> new SimpleGrantedAuthority("ROLE_" + role.getName()))
-                .collect(Collectors.toList());
-
-        // Add permissions as authorities
-        List<GrantedAuthority> permissionAuthorities = user.getRoles().stream()
-                .flatMap(role -> role.getPermissions().stream())
-                .map(permission -> new SimpleGrantedAuthority(permission.getName()))
-                .collect(Collectors.toList());
-
-        authorities.addAll(permissionAuthorities);
-
+    public static UserDetailsImpl build(User user, RoleAuthorityRegistry roleAuthorityRegistry) {
         return new UserDetailsImpl(
                 user.getId(),
                 user.getUsername(),
@@ -62,7 +62,16 @@ public class UserDetailsImpl implements UserDetails {
                 user.getPassword(),
                 user.isEnabled(),
                 user.isSuperAdmin(),
-                authorities);
+                user.getClientId(),
+                user.getTokenVersion(),
+                roleAuthorityRegistry.getAuthorities(user));
+    }
+
+    /**
+     * Copy these user details with another password hash
+     */
+    public UserDetailsImpl withPassword(String password) {
+        return new UserDetailsImpl(id, username, email, password, enabled, superAdmin, clientId, tokenVersion, authorities);
     }
 
     @Override
@@ -70,6 +79,21 @@ public class UserDetailsImpl implements UserDetails {
         return authorities;
     }
 
+    /**
+     * Get the authorities of this user as a bitset, compiling them on first use
+     *
+     * @param permissionIndex the index assigning authority ordinals
+     * @return the bitset of the user's authorities
+     */
+    public PermissionBits getPermissionBits(PermissionIndex permissionIndex) {
+        PermissionBits bits = permissionBits;
+        if (bits == null) {
+            bits = permissionIndex.compile(authorities);
+            permissionBits = bits;
+        }
+        return bits;
+    }
+
     public Long getId() {
         return id;
     }
@@ -92,6 +116,14 @@ public class UserDetailsImpl implements UserDetails {
         return superAdmin;
     }
 
+    public Long getClientId() {
+        return clientId;
+    }
+
+    public long getTokenVersion() {
+        return tokenVersion;
+    }
+
     @Override
     public boolean isAccountNonExpired() {
         return true;
@@ -2,30 +2,47 @@ package com.example.accessapp.security.services;
 
 import com.example.accessapp.entity.User;
 import com.example.accessapp.repository.UserRepository;
+import com.example.accessapp.security.VerifiedCredentialCache;
 import com.example.accessapp.security.LoginAttemptService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.LockedException;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Service to load user details for authentication.
- * Integrates with LoginAttemptService to enforce account lockout policy.
+ * Integrates with LoginAttemptService to enforce account lockout policy,
+ * and stores upgraded password hashes after a successful login.
  */
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
     @Autowired
     UserRepository userRepository;
     
     @Autowired
     private LoginAttemptService loginAttemptService;
 
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private RoleAuthorityRegistry roleAuthorityRegistry;
+
+    @Autowired
+    private VerifiedCredentialCache verifiedCredentialCache;
+
     /**
      * Load a user by username for authentication
-     * Checks if the account is locked before returning user details
+     * Checks if the account is locked before returning user details.
+     * Cached details are returned without opening a transaction; on a miss the user,
+     * roles and permissions are loaded in a single transaction and cached.
      *
      * @param username the username to search for
      * @return UserDetails object containing user information
@@ -33,7 +50,6 @@ public class UserDetailsServiceImpl implements UserDetailsService {
      * @throws LockedException if the account is locked due to too many failed login attempts
      */
     @Override
-    @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         // Check if the account is locked
         if (loginAttemptService.isLocked(username)) {
@@ -42,11 +58,41 @@ public class UserDetailsServiceImpl implements UserDetailsService {
                     + minutesRemaining + " minutes.");
         }
         
-        // Find the user in the database
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + username));
+        UserDetailsImpl cached = userDetailsCache.get(username);
+        if (cached != null) {
+            return cached;
+        }
+        // Taken before loading, so details read before a concurrent invalidation are not cached after it
+        long stamp = userDetailsCache.stamp(username);
 
-        // Build and return user details
-        return UserDetailsImpl.build(user);
+        // Find the user in the database and build user details while the session is open
+        UserDetailsImpl userDetails = transactionTemplate.execute(status -> {
+            User user = userRepository.findByUsername(username)
+                    .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + username));
+            return UserDetailsImpl.build(user, roleAuthorityRegistry);
+        });
+
+        userDetailsCache.put(username, userDetails, stamp);
+        return userDetails;
+    }
+
+    /**
+     * Store a password rehashed with the current algorithm and cost
+     * Called by DaoAuthenticationProvider after a successful login with an outdated hash;
+     * the password itself does not change, so issued tokens stay valid.
+     *
+     * @param user the authenticated user
+     * @param newPassword the new password hash
+     * @return the user details with the new hash
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePasswordByUsername(user.getUsername(), newPassword);
+        userDetailsCache.invalidate(user.getUsername());
+        verifiedCredentialCache.invalidate(user.getUsername());
+        if (user instanceof UserDetailsImpl) {
+            return ((UserDetailsImpl) user).withPassword(newPassword);
+        }
+        return user;
     }
 }
\ No newline at end of file
@@ -24,7 +24,7 @@ public interface AuditLogService {
      * @param clientId the client ID for multi-tenancy support
      * @param entityType the type of entity affected
      * @param entityId the ID of the entity affected
-     * @return the created audit log entry
+     * @return the created audit log entry; it is written asynchronously, so its ID may not be set
      */
     AuditLog createAuditLog(String action, String details, Long userId, String username, String ipAddress, String userAgent, Long clientId, String entityType, Long entityId);
 
@@ -51,7 +51,7 @@ public interface AuthService {
     void logoutUser(Long userId, HttpServletRequest request, Long clientId);
 
     /**
-     * Blacklist a JWT token
+     * Blacklist a JWT token until it expires
      *
      * @param token the token to blacklist
      * @param clientId the client ID for multi-tenancy support
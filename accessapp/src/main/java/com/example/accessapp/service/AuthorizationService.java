@@ -0,0 +1,20 @@
+package com.example.accessapp.service;
+
+import com.example.accessapp.dto.AuthzCheckRequest;
+import com.example.accessapp.dto.AuthzCheckResponse;
+
+import java.util.List;
+
+/**
+ * Service interface for authorization decisions on behalf of other services.
+ */
+public interface AuthorizationService {
+
+    /**
+     * Decide a batch of authorization checks in a single pass
+     *
+     * @param checks the checks to decide
+     * @return the decisions, in the order of the checks
+     */
+    AuthzCheckResponse checkAll(List<AuthzCheckRequest.Check> checks);
+}
@@ -3,44 +3,36 @@ package com.example.accessapp.service;
 import com.example.accessapp.entity.RefreshToken;
 import com.example.accessapp.exception.TokenRefreshException;
 
-import java.util.Optional;
-
 /**
  * Service interface for refresh token operations.
  */
 public interface RefreshTokenService {
 
     /**
-     * Find a refresh token by token string
-     *
-     * @param token the token string
-     * @return Optional containing the refresh token if found
-     */
-    Optional<RefreshToken> findByToken(String token);
-
-    /**
-     * Create a new refresh token for a user
+     * Create a new refresh token for a user, starting a new token family
+     * Other families of the user, e.g. on other devices, stay valid.
      *
      * @param userId the user ID
      * @param clientId the client ID for multi-tenancy support
-     * @return the created refresh token
+     * @return the created refresh token, with the raw token set
      */
     RefreshToken createRefreshToken(Long userId, Long clientId);
 
     /**
-     * Verify if a refresh token is valid and not expired
+     * Exchange a refresh token for the next token of its family
+     * Presenting a token that was already rotated revokes the whole family.
      *
-     * @param token the token to verify
-     * @return the verified refresh token
-     * @throws TokenRefreshException if the token is invalid or expired
+     * @param token the raw refresh token
+     * @return the rotated refresh token, with the raw token, user ID and username set
+     * @throws TokenRefreshException if the token is unknown, expired or reused
      */
-    RefreshToken verifyExpiration(RefreshToken token);
+    RefreshToken rotate(String token);
 
     /**
-     * Delete a user's refresh token
+     * Delete a user's refresh tokens on every device
      *
      * @param userId the user ID
      * @return the number of tokens deleted
      */
     int deleteByUserId(Long userId);
-}
\ No newline at end of file
+}
@@ -1,7 +1,11 @@
 package com.example.accessapp.service;
 
 import com.example.accessapp.dto.UserDto;
+import com.example.accessapp.dto.UserSummaryDto;
 import com.example.accessapp.entity.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 import java.util.Optional;
@@ -75,6 +79,24 @@ public interface UserService {
      */
     List<User> findAllByClientId(Long clientId);
 
+    /**
+     * Get a page of user summaries, loading users and their role names in one query each
+     *
+     * @param pageable pagination information, sorted by id, username or email
+     * @return a page of user summaries
+     * @throws IllegalArgumentException if the sort uses another property
+     */
+    Page<UserSummaryDto> findSummaries(Pageable pageable);
+
+    /**
+     * Get user summaries with keyset pagination, in ID order
+     *
+     * @param afterId the ID of the last user already read, or null to start from the first user
+     * @param size maximum number of users to return
+     * @return a slice of user summaries
+     */
+    Slice<UserSummaryDto> findSummariesAfter(Long afterId, int size);
+
     /**
      * Convert a User entity to UserDto
      *
@@ -1,5 +1,6 @@
 package com.example.accessapp.service.impl;
 
+import com.example.accessapp.audit.AuditLogWriter;
 import com.example.accessapp.entity.AuditLog;
 import com.example.accessapp.repository.AuditLogRepository;
 import com.example.accessapp.service.AuditLogService;
@@ -20,6 +21,9 @@ public class AuditLogServiceImpl implements AuditLogService {
     @Autowired
     private AuditLogRepository auditLogRepository;
 
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+
     @Override
     public AuditLog createAuditLog(String action, String details, Long userId, String username, String ipAddress, String userAgent, Long clientId, String entityType, Long entityId) {
         AuditLog auditLog = new AuditLog();
@@ -33,7 +37,9 @@ public class AuditLogServiceImpl implements AuditLogService {
         auditLog.setClientId(clientId);
         auditLog.setEntityType(entityType);
         auditLog.setEntityId(entityId);
-        return auditLogRepository.save(auditLog);
+        // Writes are queued and batched off the request thread; the returned entry has no ID yet
+        auditLogWriter.submit(auditLog);
+        return auditLog;
     }
 
     @Override
@@ -6,29 +6,34 @@ import com.example.accessapp.dto.RegisterRequest;
 import com.example.accessapp.dto.TokenRefreshResponse;
 import com.example.accessapp.entity.RefreshToken;
 import com.example.accessapp.entity.Role;
-import com.example.accessapp.entity.TokenBlacklist;
 import com.example.accessapp.entity.User;
+import com.example.accessapp.exception.PasswordHashingRejectedException;
 import com.example.accessapp.exception.TokenRefreshException;
 import com.example.accessapp.repository.RoleRepository;
-import com.example.accessapp.repository.TokenBlacklistRepository;
 import com.example.accessapp.repository.UserRepository;
 import com.example.accessapp.security.LoginAttemptService;
+import com.example.accessapp.security.SecurityEventFeed;
 import com.example.accessapp.security.jwt.JwtUtils;
+import com.example.accessapp.security.jwt.TokenRevocationStore;
 import com.example.accessapp.security.services.UserDetailsImpl;
+import com.example.accessapp.security.services.UserDetailsServiceImpl;
 import com.example.accessapp.service.AuditLogService;
 import com.example.accessapp.service.AuthService;
 import com.example.accessapp.service.RefreshTokenService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.LockedException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-// import java.time.Instant;
+import java.time.Instant;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -50,7 +55,10 @@ public class AuthServiceImpl implements AuthService {
     RoleRepository roleRepository;
 
     @Autowired
-    TokenBlacklistRepository tokenBlacklistRepository;
+    TokenRevocationStore tokenRevocationStore;
+
+    @Autowired
+    SecurityEventFeed securityEventFeed;
 
     @Autowired
     PasswordEncoder encoder;
@@ -61,6 +69,9 @@ public class AuthServiceImpl implements AuthService {
     @Autowired
     RefreshTokenService refreshTokenService;
 
+    @Autowired
+    UserDetailsServiceImpl userDetailsService;
+
     @Autowired
     AuditLogService auditLogService;
     
@@ -69,6 +80,13 @@ public class AuthServiceImpl implements AuthService {
 
     @Override
     public JwtResponse authenticateUser(LoginRequest loginRequest, HttpServletRequest request, Long clientId) {
+        // Reject clients that have failed too often across any accounts
+        String clientIp = getClientIp(request);
+        if (loginAttemptService.isIpBlocked(clientIp)) {
+            throw new LockedException("Too many failed login attempts from this address. Try again in "
+                    + loginAttemptService.getIpBlockMinutesRemaining(clientIp) + " minutes.");
+        }
+
         try {
             // Authenticate the user
             Authentication authentication = authenticationManager.authenticate(
@@ -115,9 +133,12 @@ public class AuthServiceImpl implements AuthService {
                     userDetails.getUsername(),
                     userDetails.getEmail(),
                     roles);
+        } catch (PasswordHashingRejectedException e) {
+            // Overload, not a wrong password: do not count it against the user
+            throw e;
         } catch (Exception e) {
             // Record failed login attempt
-            loginAttemptService.loginFailed(loginRequest.getUsername());
+            loginAttemptService.loginFailed(loginRequest.getUsername(), clientIp);
             
             // Log the failed login attempt
             auditLogService.createAuditLog(
@@ -227,17 +248,23 @@ public class AuthServiceImpl implements AuthService {
 
     @Override
     public TokenRefreshResponse refreshToken(String refreshToken, Long clientId) {
-        return refreshTokenService.findByToken(refreshToken)
-                .map(refreshTokenService::verifyExpiration)
-                .map(RefreshToken::getUser)
-                .map(user -> {
-                    // Generate new JWT token
-                    String token = jwtUtils.generateTokenFromUser(user);
-                    
-                    // Return token refresh response
-                    return new TokenRefreshResponse(token, refreshToken);
-                })
-                .orElseThrow(() -> new TokenRefreshException(refreshToken, "Refresh token not found"));
+        RefreshToken rotated = refreshTokenService.rotate(refreshToken);
+
+        // Usually served from the user details cache; refuses disabled and locked accounts
+        UserDetailsImpl userDetails;
+        try {
+            userDetails = (UserDetailsImpl) userDetailsService.loadUserByUsername(rotated.getUsername());
+        } catch (AuthenticationException e) {
+            throw new TokenRefreshException(refreshToken, e.getMessage());
+        }
+        if (!userDetails.isEnabled()) {
+            refreshTokenService.deleteByUserId(userDetails.getId());
+            throw new TokenRefreshException(refreshToken, "User account is disabled");
+        }
+
+        // Generate new JWT token and return it with the next refresh token of the family
+        String token = jwtUtils.generateJwtToken(userDetails);
+        return new TokenRefreshResponse(token, rotated.getToken());
     }
 
     @Override
@@ -245,6 +272,12 @@ public class AuthServiceImpl implements AuthService {
     public void logoutUser(Long userId, HttpServletRequest request, Long clientId) {
         // Delete user's refresh token
         refreshTokenService.deleteByUserId(userId);
+
+        // Revoke the access token used for this request
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            blacklistToken(authHeader.substring(7), clientId);
+        }
         
         // Get user information for audit log
         User user = userRepository.findById(userId)
@@ -266,37 +299,35 @@ public class AuthServiceImpl implements AuthService {
 
     @Override
     public void blacklistToken(String token, Long clientId) {
-        // Check if token is already blacklisted
-        if (tokenBlacklistRepository.existsByToken(token)) {
+        Claims claims = jwtUtils.parseClaims(token);
+        if (claims == null) {
+            // Invalid or already expired: the token is rejected anyway
             return;
         }
-        
-        // Create new blacklist entry
-        TokenBlacklist blacklist = new TokenBlacklist();
-        blacklist.setToken(token);
-        blacklist.setBlacklistedAt(java.time.LocalDateTime.now());
-        blacklist.setExpiryDate(java.time.LocalDateTime.now()); // Use now() as fallback if conversion fails
-        blacklist.setClientId(clientId);
-        
-        tokenBlacklistRepository.save(blacklist);
+
+        // Keep the entry until the token's own expiry so it can be pruned afterwards
+        String key = TokenRevocationStore.revocationKey(claims, token);
+        Instant expiresAt = claims.getExpiration().toInstant();
+        if (tokenRevocationStore.revoke(key, expiresAt, clientId)) {
+            securityEventFeed.publishTokenRevoked(key, expiresAt);
+        }
     }
 
     @Override
     public boolean isTokenBlacklisted(String token, Long clientId) {
-        return tokenBlacklistRepository.existsByTokenAndClientId(token, clientId);
+        // Revocation keys are unique JWT IDs, so no client filter is needed
+        return tokenRevocationStore.isRevoked(TokenRevocationStore.revocationKey(jwtUtils.parseClaims(token), token));
     }
 
     /**
      * Get client IP address from request
+     * X-Forwarded-For is applied by the server only when sent by a trusted proxy
+     * (server.forward-headers-strategy), so clients cannot choose the address they are tracked by.
      *
      * @param request the HTTP request
      * @return the client IP address
      */
     private String getClientIp(HttpServletRequest request) {
-        String xfHeader = request.getHeader("X-Forwarded-For");
-        if (xfHeader == null) {
-            return request.getRemoteAddr();
-        }
-        return xfHeader.split(",")[0];
+        return request.getRemoteAddr();
     }
 }
\ No newline at end of file
@@ -0,0 +1,129 @@
+package com.example.accessapp.service.impl;
+
+import com.example.accessapp.dto.AuthzCheckRequest;
+import com.example.accessapp.dto.AuthzCheckResponse;
+import com.example.accessapp.entity.Role;
+import com.example.accessapp.repository.RoleRepository;
+import com.example.accessapp.repository.UserRepository;
+import com.example.accessapp.security.permission.PermissionBits;
+import com.example.accessapp.security.permission.PermissionIndex;
+import com.example.accessapp.security.services.RoleAuthorityRegistry;
+import com.example.accessapp.service.AuthorizationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Implementation of the AuthorizationService interface.
+ * A batch is decided with one query for the role assignments of all users involved;
+ * role permissions come from the RoleAuthorityRegistry, so only roles missing from it are loaded.
+ * Each user's grants are compiled into a permission bitset once per batch.
+ */
+@Service
+public class AuthorizationServiceImpl implements AuthorizationService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private RoleAuthorityRegistry roleAuthorityRegistry;
+
+    @Autowired
+    private PermissionIndex permissionIndex;
+
+    @Override
+    @Transactional(readOnly = true)
+    public AuthzCheckResponse checkAll(List<AuthzCheckRequest.Check> checks) {
+        Set<Long> userIds = new HashSet<>();
+        for (AuthzCheckRequest.Check check : checks) {
+            userIds.add(check.getUserId());
+        }
+        Map<Long, UserGrants> grants = loadGrants(userIds);
+
+        char[] decisions = new char[checks.size()];
+        int allowed = 0;
+        for (int i = 0; i < checks.size(); i++) {
+            AuthzCheckRequest.Check check = checks.get(i);
+            UserGrants userGrants = grants.get(check.getUserId());
+            // Unknown permission names were never granted to anyone
+            int ordinal = permissionIndex.find(check.getPermission());
+
+            boolean granted = userGrants != null
+                    && userGrants.enabled
+                    && ordinal >= 0
+                    && userGrants.bits.contains(ordinal)
+                    && (check.getClientId() == null || check.getClientId().equals(userGrants.clientId));
+            decisions[i] = granted ? '1' : '0';
+            if (granted) {
+                allowed++;
+            }
+        }
+
+        return new AuthzCheckResponse(new String(decisions), allowed, checks.size() - allowed);
+    }
+
+    /**
+     * Load the grants of a set of users
+     *
+     * @param userIds the user IDs
+     * @return the grants by user ID; users that do not exist are absent
+     */
+    private Map<Long, UserGrants> loadGrants(Set<Long> userIds) {
+        List<Object[]> rows = userRepository.findRoleAssignmentsByIdIn(userIds);
+
+        Map<Long, PermissionBits> roleBits = new HashMap<>();
+        Set<Long> missingRoles = new HashSet<>();
+        for (Object[] row : rows) {
+            Long roleId = (Long) row[3];
+            if (roleId == null || roleBits.containsKey(roleId)) {
+                continue;
+            }
+            List<GrantedAuthority> authorities = roleAuthorityRegistry.getCachedAuthorities(roleId);
+            if (authorities != null) {
+                roleBits.put(roleId, permissionIndex.compile(authorities));
+            } else {
+                missingRoles.add(roleId);
+            }
+        }
+        if (!missingRoles.isEmpty()) {
+            for (Role role : roleRepository.findAllById(missingRoles)) {
+                roleBits.put(role.getId(), permissionIndex.compile(roleAuthorityRegistry.getAuthorities(role)));
+            }
+        }
+
+        Map<Long, UserGrants> grants = new HashMap<>();
+        for (Object[] row : rows) {
+            UserGrants userGrants = grants.computeIfAbsent((Long) row[0],
+                    id -> new UserGrants((Boolean) row[1], (Long) row[2]));
+            PermissionBits bits = row[3] != null ? roleBits.get((Long) row[3]) : null;
+            if (bits != null) {
+                userGrants.bits = userGrants.bits.union(bits);
+            }
+        }
+        return grants;
+    }
+
+    /**
+     * Helper class holding what a user is granted
+     */
+    private static class UserGrants {
+        private final boolean enabled;
+        private final Long clientId;
+        private PermissionBits bits = PermissionBits.EMPTY;
+
+        UserGrants(boolean enabled, Long clientId) {
+            this.enabled = enabled;
+            this.clientId = clientId;
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.example.accessapp.service.impl;
 
 import com.example.accessapp.entity.Permission;
 import com.example.accessapp.repository.PermissionRepository;
+import com.example.accessapp.security.SecurityEventFeed;
+import com.example.accessapp.security.services.RoleAuthorityRegistry;
 import com.example.accessapp.service.PermissionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -18,6 +20,12 @@ public class PermissionServiceImpl implements PermissionService {
     @Autowired
     private PermissionRepository permissionRepository;
 
+    @Autowired
+    private RoleAuthorityRegistry roleAuthorityRegistry;
+
+    @Autowired
+    private SecurityEventFeed securityEventFeed;
+
     @Override
     public Optional<Permission> findById(Long id) {
         return permissionRepository.findById(id);
@@ -35,7 +43,14 @@ public class PermissionServiceImpl implements PermissionService {
 
     @Override
     public Permission save(Permission permission) {
-        return permissionRepository.save(permission);
+        boolean existing = permission.getId() != null;
+        Permission savedPermission = permissionRepository.save(permission);
+        if (existing) {
+            // A renamed permission changes the authorities of every role holding it
+            roleAuthorityRegistry.invalidateAll();
+            securityEventFeed.publishAllUsersChanged();
+        }
+        return savedPermission;
     }
 
     @Override
@@ -51,5 +66,7 @@ public class PermissionServiceImpl implements PermissionService {
     @Override
     public void deleteById(Long id) {
         permissionRepository.deleteById(id);
+        roleAuthorityRegistry.invalidateAll();
+        securityEventFeed.publishAllUsersChanged();
     }
 }
\ No newline at end of file
@@ -1,25 +1,55 @@
 package com.example.accessapp.service.impl;
 
 import com.example.accessapp.entity.RefreshToken;
-import com.example.accessapp.entity.User;
 import com.example.accessapp.exception.TokenRefreshException;
 import com.example.accessapp.repository.RefreshTokenRepository;
-import com.example.accessapp.repository.UserRepository;
 import com.example.accessapp.service.RefreshTokenService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.sql.Timestamp;
 import java.time.Instant;
-import java.util.Optional;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.UUID;
 
 /**
  * Service implementation for refresh token operations.
+ * A raw token is "familyId.secret"; only its SHA-256 is stored, in a unique fixed-width column.
+ * A refresh is one indexed read by hash joined to the user, and one compare-and-set update that
+ * replaces the hash, so of two concurrent refreshes with the same token only one succeeds.
+ * A token that is not current but whose family still exists has been rotated before and is being
+ * replayed, so the family is revoked and every device holding a token from it has to sign in again.
  */
 @Service
 public class RefreshTokenServiceImpl implements RefreshTokenService {
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenServiceImpl.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO refresh_tokens (family_id, token_hash, expiry_date, rotation_count, user_id, client_id) "
+            + "VALUES (?, ?, ?, 0, ?, ?)";
+
+    private static final String SELECT_SQL =
+            "SELECT r.id, r.family_id, r.expiry_date, r.rotation_count, r.user_id, r.client_id, u.username "
+            + "FROM refresh_tokens r JOIN users u ON u.id = r.user_id WHERE r.token_hash = ?";
+
+    private static final String ROTATE_SQL =
+            "UPDATE refresh_tokens SET token_hash = ?, expiry_date = ?, rotation_count = rotation_count + 1 "
+            + "WHERE id = ? AND token_hash = ?";
+
+    private static final int FAMILY_ID_LENGTH = 36;
+    private static final int SECRET_BYTES = 32;
+
+    private final SecureRandom secureRandom = new SecureRandom();
 
     @Value("${accessapp.jwt.refreshExpirationMs}")
     private Long refreshTokenDurationMs;
@@ -28,70 +58,127 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
     private RefreshTokenRepository refreshTokenRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private JdbcTemplate jdbcTemplate;
 
     /**
-     * Find a refresh token by token string
-     *
-     * @param token the token string
-     * @return Optional containing the refresh token if found
-     */
-    public Optional<RefreshToken> findByToken(String token) {
-        return refreshTokenRepository.findByToken(token);
-    }
-
-    /**
-     * Create a new refresh token for a user
+     * Create a new refresh token for a user, starting a new token family
      *
      * @param userId the user ID
      * @param clientId the client ID for multi-tenancy support
-     * @return the created refresh token
+     * @return the created refresh token, with the raw token set
      */
+    @Override
     public RefreshToken createRefreshToken(Long userId, Long clientId) {
-        RefreshToken refreshToken = new RefreshToken();
+        String familyId = UUID.randomUUID().toString();
+        String token = newToken(familyId);
+        String tokenHash = hash(token);
+        Instant expiryDate = Instant.now().plusMillis(refreshTokenDurationMs);
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
+        jdbcTemplate.update(INSERT_SQL, familyId, tokenHash, Timestamp.from(expiryDate), userId, clientId);
 
-        // Check if user already has a refresh token and delete it
-        refreshTokenRepository.findByUser(user)
-                .ifPresent(token -> refreshTokenRepository.delete(token));
-
-        refreshToken.setUser(user);
-        refreshToken.setExpiryDate(Instant.now().plusMillis(refreshTokenDurationMs));
-        refreshToken.setToken(UUID.randomUUID().toString());
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setFamilyId(familyId);
+        refreshToken.setToken(token);
+        refreshToken.setTokenHash(tokenHash);
+        refreshToken.setExpiryDate(expiryDate);
+        refreshToken.setUserId(userId);
         refreshToken.setClientId(clientId);
-
-        refreshToken = refreshTokenRepository.save(refreshToken);
         return refreshToken;
     }
 
     /**
-     * Verify if a refresh token is valid and not expired
+     * Exchange a refresh token for the next token of its family
      *
-     * @param token the token string to verify
-     * @return the verified refresh token
-     * @throws TokenRefreshException if the token is invalid or expired
+     * @param token the raw refresh token
+     * @return the rotated refresh token, with the raw token, user ID and username set
+     * @throws TokenRefreshException if the token is unknown, expired or reused
      */
-    public RefreshToken verifyExpiration(RefreshToken token) {
-        if (token.getExpiryDate().compareTo(Instant.now()) < 0) {
-            refreshTokenRepository.delete(token);
-            throw new TokenRefreshException(token.getToken(), "Refresh token was expired. Please make a new signin request");
+    @Override
+    public RefreshToken rotate(String token) {
+        String tokenHash = hash(token);
+        List<RefreshToken> found = jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> {
+            RefreshToken refreshToken = new RefreshToken();
+            refreshToken.setId(rs.getLong(1));
+            refreshToken.setFamilyId(rs.getString(2));
+            refreshToken.setExpiryDate(rs.getTimestamp(3).toInstant());
+            refreshToken.setRotationCount(rs.getLong(4));
+            refreshToken.setUserId(rs.getLong(5));
+            refreshToken.setClientId(rs.getObject(6) != null ? rs.getLong(6) : null);
+            refreshToken.setUsername(rs.getString(7));
+            return refreshToken;
+        }, tokenHash);
+
+        if (found.isEmpty()) {
+            revokeIfReused(token);
+            throw new TokenRefreshException(token, "Refresh token not found");
+        }
+
+        RefreshToken refreshToken = found.get(0);
+        if (refreshToken.getExpiryDate().isBefore(Instant.now())) {
+            refreshTokenRepository.deleteById(refreshToken.getId());
+            throw new TokenRefreshException(token, "Refresh token was expired. Please make a new signin request");
         }
 
-        return token;
+        String nextToken = newToken(refreshToken.getFamilyId());
+        String nextHash = hash(nextToken);
+        Instant expiryDate = Instant.now().plusMillis(refreshTokenDurationMs);
+        int updated = jdbcTemplate.update(ROTATE_SQL, nextHash, Timestamp.from(expiryDate), refreshToken.getId(), tokenHash);
+        if (updated == 0) {
+            // Another request rotated this token first: the same token was used twice
+            revokeFamily(refreshToken.getFamilyId(), refreshToken.getUserId());
+            throw new TokenRefreshException(token, "Refresh token was already used. Please make a new signin request");
+        }
+
+        refreshToken.setToken(nextToken);
+        refreshToken.setTokenHash(nextHash);
+        refreshToken.setExpiryDate(expiryDate);
+        refreshToken.setRotationCount(refreshToken.getRotationCount() + 1);
+        return refreshToken;
     }
 
     /**
-     * Delete a user's refresh token
+     * Delete a user's refresh tokens on every device
      *
      * @param userId the user ID
      * @return the number of tokens deleted
      */
-    @Transactional
+    @Override
     public int deleteByUserId(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
-        return refreshTokenRepository.deleteByUser(user);
+        return refreshTokenRepository.deleteByUserId(userId);
+    }
+
+    /**
+     * Revoke the family of a token that is not current, if the family still exists
+     */
+    private void revokeIfReused(String token) {
+        int separator = token.indexOf('.');
+        if (separator != FAMILY_ID_LENGTH) {
+            return;
+        }
+        String familyId = token.substring(0, separator);
+        if (refreshTokenRepository.existsByFamilyId(familyId)) {
+            revokeFamily(familyId, null);
+        }
+    }
+
+    private void revokeFamily(String familyId, Long userId) {
+        refreshTokenRepository.deleteByFamilyId(familyId);
+        logger.warn("Refresh token reuse detected, revoked token family {}{}", familyId,
+                userId != null ? " of user " + userId : "");
+    }
+
+    private String newToken(String familyId) {
+        byte[] secret = new byte[SECRET_BYTES];
+        secureRandom.nextBytes(secret);
+        return familyId + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
-}
\ No newline at end of file
+}
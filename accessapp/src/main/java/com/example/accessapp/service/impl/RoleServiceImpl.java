@@ -4,10 +4,20 @@ import com.example.accessapp.entity.Permission;
 import com.example.accessapp.entity.Role;
 import com.example.accessapp.repository.PermissionRepository;
 import com.example.accessapp.repository.RoleRepository;
+import com.example.accessapp.repository.UserRepository;
+import com.example.accessapp.security.SecurityEventFeed;
+import com.example.accessapp.security.jwt.TokenVersionRegistry;
+import com.example.accessapp.security.services.RoleAuthorityRegistry;
+import com.example.accessapp.security.services.UserDetailsCache;
 import com.example.accessapp.service.RoleService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 import java.util.Optional;
@@ -24,6 +34,24 @@ public class RoleServiceImpl implements RoleService {
     @Autowired
     private PermissionRepository permissionRepository;
 
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private SecurityEventFeed securityEventFeed;
+
+    @Autowired
+    private RoleAuthorityRegistry roleAuthorityRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     @Override
     public Optional<Role> findById(Long id) {
         return roleRepository.findById(id);
@@ -40,8 +68,17 @@ public class RoleServiceImpl implements RoleService {
     }
 
     @Override
+    @Transactional
     public Role save(Role role) {
-        return roleRepository.save(role);
+        // A renamed role changes the "ROLE_" authority carried by the tokens of its users
+        boolean renamed = role.getId() != null && roleRepository.findNameById(role.getId())
+                .map(name -> !name.equals(role.getName()))
+                .orElse(false);
+        Role savedRole = roleRepository.save(role);
+        if (renamed) {
+            invalidateRoleTokens(savedRole.getId());
+        }
+        return savedRole;
     }
 
     @Override
@@ -55,7 +92,10 @@ public class RoleServiceImpl implements RoleService {
     }
 
     @Override
+    @Transactional
     public void deleteById(Long id) {
+        // Bumped before the role assignments go away with the role
+        invalidateRoleTokens(id);
         roleRepository.deleteById(id);
     }
 
@@ -72,6 +112,7 @@ public class RoleServiceImpl implements RoleService {
         if (!role.getPermissions().contains(permission)) {
             role.getPermissions().add(permission);
             roleRepository.save(role);
+            invalidateRoleTokens(roleId);
         }
         
         return role;
@@ -90,8 +131,45 @@ public class RoleServiceImpl implements RoleService {
         if (role.getPermissions().contains(permission)) {
             role.getPermissions().remove(permission);
             roleRepository.save(role);
+            invalidateRoleTokens(roleId);
         }
         
         return role;
     }
-}
\ No newline at end of file
+
+    /**
+     * Invalidate tokens and cached details of every user holding a role that changed.
+     * The caches are cleared once the version bump has committed; cleared earlier, a concurrent
+     * request could reload and cache the old token version for good.
+     *
+     * @param roleId the role ID
+     */
+    private void invalidateRoleTokens(Long roleId) {
+        userRepository.incrementTokenVersionByRoleId(roleId);
+        afterCommit(() -> {
+            tokenVersionRegistry.clear();
+            roleAuthorityRegistry.invalidateAll();
+            userDetailsCache.invalidateAll();
+            securityEventFeed.publishAllUsersChanged();
+        });
+    }
+
+    /**
+     * Run an action after the current transaction commits, or right away outside a transaction.
+     * The action gets a transaction of its own, as writes joining the committed one would be lost.
+     */
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+                transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+                transactionTemplate.executeWithoutResult(status -> action.run());
+            }
+        });
+    }
+}
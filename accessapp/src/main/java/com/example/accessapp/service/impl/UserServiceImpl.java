@@ -1,17 +1,29 @@
 package com.example.accessapp.service.impl;
 
 import com.example.accessapp.dto.UserDto;
+import com.example.accessapp.dto.UserSummaryDto;
 import com.example.accessapp.entity.User;
 import com.example.accessapp.repository.UserRepository;
 import com.example.accessapp.repository.RoleRepository;
 import com.example.accessapp.repository.UserRoleRepository;
+import com.example.accessapp.security.SecurityEventFeed;
+import com.example.accessapp.security.VerifiedCredentialCache;
+import com.example.accessapp.security.jwt.TokenVersionRegistry;
+import com.example.accessapp.security.services.UserDetailsCache;
 import com.example.accessapp.service.UserService;
 import com.example.accessapp.service.AuditLogService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import jakarta.servlet.http.HttpServletRequest;
 
@@ -21,6 +33,9 @@ import jakarta.servlet.http.HttpServletRequest;
 @Service
 public class UserServiceImpl implements UserService {
 
+    // Properties user summaries can be sorted by
+    private static final List<String> SUMMARY_SORT_PROPERTIES = List.of("id", "username", "email");
+
     @Autowired
     private UserRepository userRepository;
 
@@ -33,6 +48,18 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private AuditLogService auditLogService;
 
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private SecurityEventFeed securityEventFeed;
+
+    @Autowired
+    private VerifiedCredentialCache verifiedCredentialCache;
+
     @Override
     public Optional<User> findById(Long id) {
         return userRepository.findById(id);
@@ -65,12 +92,54 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public List<User> findAll() {
-        return userRepository.findAll();
+        return userRepository.findAllWithRoles();
     }
 
     @Override
     public List<User> findAllByClientId(Long clientId) {
-        return userRepository.findAllByClientId(clientId);
+        return userRepository.findAllWithRolesByClientId(clientId);
+    }
+
+    @Override
+    public Page<UserSummaryDto> findSummaries(Pageable pageable) {
+        for (Sort.Order order : pageable.getSort()) {
+            // The sort goes into the query as is; never order by columns such as the password hash
+            if (!SUMMARY_SORT_PROPERTIES.contains(order.getProperty())) {
+                throw new IllegalArgumentException("Cannot sort users by " + order.getProperty()
+                        + ", allowed: " + String.join(", ", SUMMARY_SORT_PROPERTIES));
+            }
+        }
+        if (pageable.getSort().isUnsorted()) {
+            // Offset pagination is only stable over a total order
+            pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("id"));
+        }
+        Page<UserSummaryDto> page = userRepository.findSummaries(pageable);
+        fillRoles(page.getContent());
+        return page;
+    }
+
+    @Override
+    public Slice<UserSummaryDto> findSummariesAfter(Long afterId, int size) {
+        Slice<UserSummaryDto> slice = userRepository.findSummariesAfter(
+                afterId != null ? afterId : 0L, PageRequest.of(0, size));
+        fillRoles(slice.getContent());
+        return slice;
+    }
+
+    /**
+     * Fill in the role names of user summaries with a single query
+     */
+    private void fillRoles(List<UserSummaryDto> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        Map<Long, UserSummaryDto> usersById = new HashMap<>();
+        for (UserSummaryDto user : users) {
+            usersById.put(user.getId(), user);
+        }
+        for (Object[] row : userRoleRepository.findRoleNamesByUserIdIn(usersById.keySet())) {
+            usersById.get((Long) row[0]).getRoles().add((String) row[1]);
+        }
     }
 
     @Override
@@ -107,6 +176,10 @@ public class UserServiceImpl implements UserService {
     @Override
     public void deleteById(Long id) {
         userRepository.deleteById(id);
+        tokenVersionRegistry.evict(id);
+        userDetailsCache.invalidate(id);
+        verifiedCredentialCache.invalidate(id);
+        securityEventFeed.publishUserChanged(id, null);
     }
 
     @Override
@@ -115,7 +188,13 @@ public class UserServiceImpl implements UserService {
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
         
         user.setEnabled(enabled);
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        userRepository.incrementTokenVersion(savedUser.getId());
+        tokenVersionRegistry.evict(savedUser.getId());
+        userDetailsCache.invalidate(savedUser.getUsername());
+        verifiedCredentialCache.invalidate(savedUser.getUsername());
+        securityEventFeed.publishUserChanged(savedUser.getId(), savedUser.getUsername());
+        return savedUser;
     }
 
     @Override
@@ -139,12 +218,21 @@ public class UserServiceImpl implements UserService {
             user.setEmail(userDto.getEmail());
         }
 
-        // Update enabled status if present
+        // Update enabled status if present; issued tokens are invalidated when it changes
+        boolean enabledChanged = user.isEnabled() != userDto.isEnabled();
         user.setEnabled(userDto.isEnabled());
 
         // Optionally update other fields as needed
 
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        if (enabledChanged) {
+            userRepository.incrementTokenVersion(savedUser.getId());
+            tokenVersionRegistry.evict(savedUser.getId());
+        }
+        userDetailsCache.invalidate(savedUser.getUsername());
+        verifiedCredentialCache.invalidate(savedUser.getUsername());
+        securityEventFeed.publishUserChanged(savedUser.getId(), savedUser.getUsername());
+        return savedUser;
     }
 
     @Override
@@ -156,8 +244,13 @@ public class UserServiceImpl implements UserService {
         com.example.accessapp.entity.UserRole userRole = new com.example.accessapp.entity.UserRole(user, role, assignedBy);
         userRole.setClientId(user.getClientId());
         userRoleRepository.save(userRole);
+        // Invalidate tokens issued with the previous set of roles
+        userRepository.incrementTokenVersion(user.getId());
+        tokenVersionRegistry.evict(user.getId());
+        userDetailsCache.invalidate(user.getUsername());
+        securityEventFeed.publishUserChanged(user.getId(), user.getUsername());
         // Audit log
-        String ip = request.getHeader("X-Forwarded-For") != null ? request.getHeader("X-Forwarded-For").split(",")[0] : request.getRemoteAddr();
+        String ip = request.getRemoteAddr();
         auditLogService.createAuditLog(
             "ASSIGN_ROLE",
             "Assigned role '" + role.getName() + "' to user '" + user.getUsername() + "'",
@@ -0,0 +1,206 @@
+package com.example.accessapp.userimport;
+
+import com.example.accessapp.dto.RegisterRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads users to import from a CSV or NDJSON stream, a chunk of rows at a time,
+ * so the whole file is never held in memory.
+ * CSV input needs a header row naming the columns (username, email, password, firstName, lastName,
+ * phoneNumber, roles); several roles are separated by ';'. NDJSON input has one registration object per line.
+ * A row that cannot be parsed is returned with an error instead of failing the whole import.
+ */
+class UserImportReader implements Closeable {
+
+    private static final char ROLE_SEPARATOR = ';';
+
+    private final BufferedReader reader;
+    private final UserImporter.Format format;
+    private final ObjectMapper objectMapper;
+
+    private Map<String, Integer> columns;
+    private long lineNumber;
+    private long recordLine; // Line the last CSV record started on
+
+    UserImportReader(InputStream input, UserImporter.Format format, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 64 * 1024);
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Read the next rows
+     *
+     * @param max maximum number of rows to read
+     * @return the rows read, empty at the end of the input
+     */
+    List<Row> next(int max) throws IOException {
+        List<Row> rows = new ArrayList<>(max);
+        while (rows.size() < max) {
+            Row row = format == UserImporter.Format.CSV ? nextCsvRow() : nextJsonRow();
+            if (row == null) {
+                break;
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private Row nextJsonRow() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+        } while (line.isBlank());
+
+        try {
+            return new Row(lineNumber, objectMapper.readValue(line, RegisterRequest.class), null);
+        } catch (JsonProcessingException e) {
+            return new Row(lineNumber, null, "Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private Row nextCsvRow() throws IOException {
+        if (columns == null) {
+            List<String> header = readCsvRecord();
+            if (header == null) {
+                return null;
+            }
+            columns = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim(), i);
+            }
+            for (String required : new String[] {"username", "email", "password"}) {
+                if (!columns.containsKey(required)) {
+                    throw new IllegalArgumentException("CSV header is missing the '" + required + "' column");
+                }
+            }
+        }
+
+        List<String> record;
+        do {
+            record = readCsvRecord();
+            if (record == null) {
+                return null;
+            }
+        } while (record.size() == 1 && record.get(0).isBlank());
+
+        RegisterRequest request = new RegisterRequest();
+        request.setUsername(column(record, "username"));
+        request.setEmail(column(record, "email"));
+        request.setPassword(column(record, "password"));
+        request.setFirstName(column(record, "firstName"));
+        request.setLastName(column(record, "lastName"));
+        request.setPhoneNumber(column(record, "phoneNumber"));
+
+        String roles = column(record, "roles");
+        if (roles != null && !roles.isBlank()) {
+            Set<String> roleNames = new LinkedHashSet<>();
+            for (String role : roles.split(String.valueOf(ROLE_SEPARATOR))) {
+                if (!role.isBlank()) {
+                    roleNames.add(role.trim());
+                }
+            }
+            request.setRoles(roleNames);
+        }
+        return new Row(recordLine, request, null);
+    }
+
+    private String column(List<String> record, String name) {
+        Integer index = columns.get(name);
+        return index != null && index < record.size() ? record.get(index) : null;
+    }
+
+    /**
+     * Read one RFC 4180 record; quoted fields may contain separators, doubled quotes and line breaks
+     */
+    private List<String> readCsvRecord() throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        lineNumber++;
+        recordLine = lineNumber;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+        while (true) {
+            if (i == line.length()) {
+                if (!quoted) {
+                    break;
+                }
+                // Line break inside a quoted field
+                line = reader.readLine();
+                if (line == null) {
+                    break;
+                }
+                lineNumber++;
+                field.append('\n');
+                i = 0;
+                continue;
+            }
+
+            char c = line.charAt(i++);
+            if (quoted) {
+                if (c == '"') {
+                    if (i < line.length() && line.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * A parsed row: the registration it describes, or the reason it could not be parsed
+     */
+    static class Row {
+        final long line;
+        final RegisterRequest request;
+        final String error;
+
+        Row(long line, RegisterRequest request, String error) {
+            this.line = line;
+            this.request = request;
+            this.error = error;
+        }
+    }
+}
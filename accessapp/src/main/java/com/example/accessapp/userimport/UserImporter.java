@@ -0,0 +1,470 @@
+package com.example.accessapp.userimport;
+
+import com.example.accessapp.audit.AuditLogBatchInserter;
+import com.example.accessapp.dto.RegisterRequest;
+import com.example.accessapp.dto.UserImportReport;
+import com.example.accessapp.entity.AuditLog;
+import com.example.accessapp.entity.Role;
+import com.example.accessapp.entity.User;
+import com.example.accessapp.repository.RoleRepository;
+import com.example.accessapp.repository.UserRepository;
+import com.example.accessapp.security.BoundedPasswordEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Imports users in bulk from a streamed CSV or NDJSON file.
+ * Rows are processed in chunks: each chunk is validated with the same constraints as registration,
+ * checked for uniqueness with one set-based query per unique column, has its passwords hashed in parallel
+ * on a bounded pool sized to the available cores, and is written with JDBC batch inserts of users,
+ * user roles and audit entries in one transaction.
+ * Rows are also checked against the column sizes of the User entity, as the JDBC batches skip entity validation.
+ * If a chunk's transaction still fails, e.g. on a concurrent registration, its rows are written again one by one.
+ * Every row gets its own result, so one bad row does not fail the import.
+ */
+@Component
+public class UserImporter {
+    private static final Logger logger = LoggerFactory.getLogger(UserImporter.class);
+
+    /**
+     * Input format of an import
+     */
+    public enum Format {
+        CSV("text/csv"),
+        NDJSON("application/x-ndjson");
+
+        private final String contentType;
+
+        Format(String contentType) {
+            this.contentType = contentType;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        /**
+         * Get the format of a request body
+         *
+         * @param contentType the Content-Type header
+         * @return the matching format
+         */
+        public static Format fromContentType(String contentType) {
+            if (contentType != null) {
+                for (Format format : values()) {
+                    if (contentType.toLowerCase(Locale.ROOT).startsWith(format.contentType)) {
+                        return format;
+                    }
+                }
+            }
+            throw new IllegalArgumentException("Unsupported content type: " + contentType);
+        }
+    }
+
+    private static final String DEFAULT_ROLE = "USER";
+    private static final String AUDIT_ACTION = "USER_IMPORT";
+
+    private static final String INSERT_USER_SQL =
+            "INSERT INTO users (username, email, password, names, phone_number, enabled, is_super_admin, token_version, client_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_USER_ROLE_SQL =
+            "INSERT INTO user_roles (user_id, role_id, assigned_at, assigned_by, client_id) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final AuditLogBatchInserter auditLogBatchInserter;
+
+    private final int chunkSize;
+    private final ForkJoinPool hashingPool;
+
+    public UserImporter(JdbcTemplate jdbcTemplate,
+                        TransactionTemplate transactionTemplate,
+                        UserRepository userRepository,
+                        RoleRepository roleRepository,
+                        PasswordEncoder passwordEncoder,
+                        Validator validator,
+                        ObjectMapper objectMapper,
+                        AuditLogBatchInserter auditLogBatchInserter,
+                        @Value("${accessapp.userImport.chunkSize:500}") int chunkSize,
+                        @Value("${accessapp.userImport.hashingThreads:0}") int hashingThreads) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.userRepository = userRepository;
+        this.roleRepository = roleRepository;
+        // Imports hash on their own pool, outside the admission limits of the login hashing executor
+        this.passwordEncoder = passwordEncoder instanceof BoundedPasswordEncoder
+                ? ((BoundedPasswordEncoder) passwordEncoder).getDelegate() : passwordEncoder;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.auditLogBatchInserter = auditLogBatchInserter;
+        this.chunkSize = Math.max(1, chunkSize);
+        // Hashing is CPU bound: one thread per core unless configured otherwise
+        this.hashingPool = new ForkJoinPool(hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashingPool.shutdownNow();
+    }
+
+    /**
+     * Import the users of a file
+     *
+     * @param input the file contents
+     * @param format the file format
+     * @param clientId the client the users belong to
+     * @param importedBy the ID of the user running the import, or null
+     * @param ipAddress the IP address of the request
+     * @param userAgent the user agent of the request
+     * @return the result of every row
+     */
+    public UserImportReport importUsers(InputStream input, Format format, Long clientId, Long importedBy,
+                                        String ipAddress, String userAgent) throws IOException {
+        long start = System.currentTimeMillis();
+
+        Map<String, Long> roleIds = new HashMap<>();
+        for (Role role : roleRepository.findAll()) {
+            roleIds.put(role.getName(), role.getId());
+        }
+
+        ImportContext context = new ImportContext(roleIds, clientId, importedBy, ipAddress, userAgent);
+        try (UserImportReader reader = new UserImportReader(input, format, objectMapper)) {
+            List<UserImportReader.Row> rows;
+            while (!(rows = reader.next(chunkSize)).isEmpty()) {
+                importChunk(rows, context);
+            }
+        }
+
+        UserImportReport report = context.report;
+        report.setDurationMs(System.currentTimeMillis() - start);
+        logger.info("Imported {} of {} users in {} ms", report.getImported(), report.getTotal(), report.getDurationMs());
+        return report;
+    }
+
+    private void importChunk(List<UserImportReader.Row> rows, ImportContext context) {
+        String[] errors = new String[rows.size()];
+        List<Candidate> candidates = new ArrayList<>(rows.size());
+
+        // Validate rows and reject duplicates within the file
+        for (int i = 0; i < rows.size(); i++) {
+            UserImportReader.Row row = rows.get(i);
+            if (row.error != null) {
+                errors[i] = row.error;
+                continue;
+            }
+            RegisterRequest request = row.request;
+            String error = validate(request, context);
+            if (error != null) {
+                errors[i] = error;
+                continue;
+            }
+
+            String username = key(request.getUsername());
+            String email = key(request.getEmail());
+            String phoneNumber = blankToNull(request.getPhoneNumber());
+            if (context.usernames.contains(username)) {
+                errors[i] = "Duplicate username in file";
+            } else if (context.emails.contains(email)) {
+                errors[i] = "Duplicate email in file";
+            } else if (phoneNumber != null && context.phoneNumbers.contains(phoneNumber)) {
+                errors[i] = "Duplicate phone number in file";
+            } else {
+                context.usernames.add(username);
+                context.emails.add(email);
+                if (phoneNumber != null) {
+                    context.phoneNumbers.add(phoneNumber);
+                }
+                candidates.add(new Candidate(i, request, phoneNumber, roleIdsOf(request, context)));
+            }
+        }
+
+        // Reject rows clashing with existing users, one query per unique column
+        if (!candidates.isEmpty()) {
+            Set<String> takenUsernames = keys(userRepository.findExistingUsernames(
+                    candidates.stream().map(c -> c.request.getUsername()).collect(Collectors.toList())));
+            Set<String> takenEmails = keys(userRepository.findExistingEmails(
+                    candidates.stream().map(c -> c.request.getEmail()).collect(Collectors.toList())));
+            List<String> phoneNumbers = candidates.stream().map(c -> c.phoneNumber)
+                    .filter(Objects::nonNull).collect(Collectors.toList());
+            Set<String> takenPhoneNumbers = phoneNumbers.isEmpty()
+                    ? Set.of() : new HashSet<>(userRepository.findExistingPhoneNumbers(phoneNumbers));
+
+            candidates.removeIf(c -> {
+                if (takenUsernames.contains(key(c.request.getUsername()))) {
+                    errors[c.index] = "Username is already taken";
+                } else if (takenEmails.contains(key(c.request.getEmail()))) {
+                    errors[c.index] = "Email is already in use";
+                } else if (c.phoneNumber != null && takenPhoneNumbers.contains(c.phoneNumber)) {
+                    errors[c.index] = "Phone number is already in use";
+                } else {
+                    return false;
+                }
+                return true;
+            });
+        }
+
+        if (!candidates.isEmpty()) {
+            hashPasswords(candidates);
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(candidates, context));
+            } catch (DataAccessException e) {
+                // Typically a concurrent registration of the same username or email; find the rows at fault
+                logger.warn("Failed to import a chunk of {} users, retrying row by row: {}", candidates.size(),
+                        NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                writeEach(candidates, context, errors);
+            }
+        }
+
+        // Report in input order
+        Long[] userIds = new Long[rows.size()];
+        for (Candidate candidate : candidates) {
+            userIds[candidate.index] = candidate.userId;
+        }
+        for (int i = 0; i < rows.size(); i++) {
+            UserImportReader.Row row = rows.get(i);
+            String username = row.request != null ? row.request.getUsername() : null;
+            if (errors[i] == null && userIds[i] != null) {
+                context.report.imported(row.line, username, userIds[i]);
+            } else {
+                context.report.failed(row.line, username, errors[i] != null ? errors[i] : "User was not created");
+            }
+        }
+    }
+
+    private String validate(RegisterRequest request, ImportContext context) {
+        Set<ConstraintViolation<RegisterRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        String columnError = validateColumns(request);
+        if (columnError != null) {
+            return columnError;
+        }
+        if (request.getRoles() == null || request.getRoles().isEmpty()) {
+            return context.roleIds.containsKey(DEFAULT_ROLE) ? null : "Default role not found";
+        }
+        for (String roleName : request.getRoles()) {
+            if (!context.roleIds.containsKey(roleName)) {
+                return "Role not found: " + roleName;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Check the values written to the users table against the constraints of the User entity
+     */
+    private String validateColumns(RegisterRequest request) {
+        List<String> messages = new ArrayList<>();
+        checkColumn(messages, "username", "username", request.getUsername());
+        checkColumn(messages, "email", "email", request.getEmail());
+        checkColumn(messages, "name", "FullName", fullName(request));
+        checkColumn(messages, "phoneNumber", "phoneNumber", blankToNull(request.getPhoneNumber()));
+        if (messages.isEmpty()) {
+            return null;
+        }
+        messages.sort(null);
+        return String.join("; ", messages);
+    }
+
+    private void checkColumn(List<String> messages, String field, String property, String value) {
+        for (ConstraintViolation<User> violation : validator.validateValue(User.class, property, value)) {
+            messages.add(field + " " + violation.getMessage());
+        }
+    }
+
+    private List<Long> roleIdsOf(RegisterRequest request, ImportContext context) {
+        if (request.getRoles() == null || request.getRoles().isEmpty()) {
+            return List.of(context.roleIds.get(DEFAULT_ROLE));
+        }
+        return request.getRoles().stream().map(context.roleIds::get).distinct().collect(Collectors.toList());
+    }
+
+    /**
+     * Hash the passwords of a chunk on the hashing pool
+     */
+    private void hashPasswords(List<Candidate> candidates) {
+        List<CompletableFuture<String>> hashes = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates) {
+            String password = candidate.request.getPassword();
+            hashes.add(CompletableFuture.supplyAsync(() -> passwordEncoder.encode(password), hashingPool));
+        }
+        for (int i = 0; i < candidates.size(); i++) {
+            candidates.get(i).passwordHash = hashes.get(i).join();
+        }
+    }
+
+    /**
+     * Write the rows of a failed chunk one transaction each, so that only the rows at fault are rejected
+     */
+    private void writeEach(List<Candidate> candidates, ImportContext context, String[] errors) {
+        for (Candidate candidate : candidates) {
+            candidate.userId = null;
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(List.of(candidate), context));
+            } catch (DataAccessException e) {
+                candidate.userId = null;
+                errors[candidate.index] = "Rejected by the database: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            }
+        }
+    }
+
+    /**
+     * Insert the users of a chunk, their roles and the audit entries with JDBC batches
+     */
+    private void write(List<Candidate> candidates, ImportContext context) {
+        jdbcTemplate.batchUpdate(INSERT_USER_SQL, candidates, candidates.size(), (ps, candidate) -> {
+            RegisterRequest request = candidate.request;
+            ps.setString(1, request.getUsername());
+            ps.setString(2, request.getEmail());
+            ps.setString(3, candidate.passwordHash);
+            ps.setString(4, fullName(request));
+            ps.setString(5, candidate.phoneNumber);
+            ps.setBoolean(6, true);
+            ps.setBoolean(7, false);
+            ps.setLong(8, 0L);
+            ps.setObject(9, context.clientId, Types.BIGINT);
+        });
+
+        // IDENTITY keys are not returned by batches; read them back in one query
+        Map<String, Long> ids = new HashMap<>();
+        for (Object[] row : userRepository.findIdsByUsernameIn(
+                candidates.stream().map(c -> c.request.getUsername()).collect(Collectors.toList()))) {
+            ids.put(key((String) row[1]), (Long) row[0]);
+        }
+        for (Candidate candidate : candidates) {
+            candidate.userId = ids.get(key(candidate.request.getUsername()));
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<long[]> userRoles = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            for (Long roleId : candidate.roleIds) {
+                userRoles.add(new long[] {candidate.userId, roleId});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_USER_ROLE_SQL, userRoles, userRoles.size(), (ps, userRole) -> {
+            ps.setLong(1, userRole[0]);
+            ps.setLong(2, userRole[1]);
+            ps.setTimestamp(3, now);
+            ps.setObject(4, context.importedBy, Types.BIGINT);
+            ps.setObject(5, context.clientId, Types.BIGINT);
+        });
+
+        List<AuditLog> auditLogs = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates) {
+            AuditLog auditLog = new AuditLog(AUDIT_ACTION, "User imported: " + candidate.request.getUsername(),
+                    candidate.userId, candidate.request.getUsername());
+            auditLog.setIpAddress(context.ipAddress);
+            auditLog.setUserAgent(context.userAgent);
+            auditLog.setClientId(context.clientId);
+            auditLogs.add(auditLog);
+        }
+        auditLogBatchInserter.insertAll(auditLogs);
+    }
+
+    /**
+     * Combine first and last name into the names column, falling back to the username like registration
+     */
+    private static String fullName(RegisterRequest request) {
+        String firstName = request.getFirstName() != null ? request.getFirstName() : "";
+        String lastName = request.getLastName() != null ? request.getLastName() : "";
+        String fullName = (firstName + " " + lastName).trim();
+        return fullName.isEmpty() ? request.getUsername() : fullName;
+    }
+
+    // Usernames and emails are unique regardless of case, as in the database collation
+    private static String key(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> keys(List<String> values) {
+        Set<String> keys = new HashSet<>(values.size() * 2);
+        for (String value : values) {
+            keys.add(key(value));
+        }
+        return keys;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    /**
+     * Helper class holding a row that passed validation
+     */
+    private static class Candidate {
+        private final int index;
+        private final RegisterRequest request;
+        private final String phoneNumber;
+        private final List<Long> roleIds;
+        private String passwordHash;
+        private Long userId;
+
+        Candidate(int index, RegisterRequest request, String phoneNumber, List<Long> roleIds) {
+            this.index = index;
+            this.request = request;
+            this.phoneNumber = phoneNumber;
+            this.roleIds = roleIds;
+        }
+    }
+
+    /**
+     * Helper class holding the state of one import across chunks
+     */
+    private static class ImportContext {
+        private final Map<String, Long> roleIds;
+        private final Long clientId;
+        private final Long importedBy;
+        private final String ipAddress;
+        private final String userAgent;
+        private final UserImportReport report = new UserImportReport();
+        private final Set<String> usernames = new HashSet<>();
+        private final Set<String> emails = new HashSet<>();
+        private final Set<String> phoneNumbers = new HashSet<>();
+
+        ImportContext(Map<String, Long> roleIds, Long clientId, Long importedBy, String ipAddress, String userAgent) {
+            this.roleIds = roleIds;
+            this.clientId = clientId;
+            this.importedBy = importedBy;
+            this.ipAddress = ipAddress;
+            this.userAgent = userAgent;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.accessapp;
+
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.testcontainers.containers.MySQLContainer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * MySQL server shared by the integration tests.
+ * Started once per test run and stopped with the JVM; tests that use it are annotated with
+ * {@code @Testcontainers(disabledWithoutDocker = true)} so they are skipped where Docker is not available.
+ */
+public final class MySqlTestContainer {
+
+    private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0")
+            .withDatabaseName("access_db")
+            .withUrlParam("rewriteBatchedStatements", "true");
+
+    private MySqlTestContainer() {
+    }
+
+    /**
+     * Get the running container, starting it on first use
+     *
+     * @return the container
+     */
+    public static synchronized MySQLContainer<?> get() {
+        if (!MYSQL.isRunning()) {
+            MYSQL.start();
+        }
+        return MYSQL;
+    }
+
+    /**
+     * Point the datasource of a test context at the container
+     *
+     * @param registry the dynamic property registry of the test
+     */
+    public static void register(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> get().getJdbcUrl());
+        registry.add("spring.datasource.username", () -> get().getUsername());
+        registry.add("spring.datasource.password", () -> get().getPassword());
+    }
+
+    /**
+     * Get the datasource properties of the container, e.g. for contexts started with SpringApplicationBuilder
+     *
+     * @return the properties as key=value pairs
+     */
+    public static String[] properties() {
+        return properties(get().getJdbcUrl());
+    }
+
+    /**
+     * Get the datasource properties of another database of the container
+     *
+     * @param jdbcUrl the JDBC URL of the database, see {@link #createDatabase(String)}
+     * @return the properties as key=value pairs
+     */
+    public static String[] properties(String jdbcUrl) {
+        return new String[] {
+                "spring.datasource.url=" + jdbcUrl,
+                "spring.datasource.username=" + get().getUsername(),
+                "spring.datasource.password=" + get().getPassword()
+        };
+    }
+
+    /**
+     * Create an empty database in the container, e.g. to start from an old schema layout,
+     * dropping it first if a previous test left it behind
+     *
+     * @param name the database name
+     * @return the JDBC URL of the database, accessible with the container's username and password
+     */
+    public static String createDatabase(String name) {
+        MySQLContainer<?> mysql = get();
+        try (Connection connection = DriverManager.getConnection(mysql.getJdbcUrl(), "root", mysql.getPassword());
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP DATABASE IF EXISTS " + name);
+            statement.execute("CREATE DATABASE " + name);
+            statement.execute("GRANT ALL ON " + name + ".* TO '" + mysql.getUsername() + "'@'%'");
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not create database " + name, e);
+        }
+        return "jdbc:mysql://" + mysql.getHost() + ":" + mysql.getMappedPort(MySQLContainer.MYSQL_PORT) + "/" + name
+                + "?rewriteBatchedStatements=true";
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.accessapp;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Starts application contexts that act as separate nodes of one deployment.
+ * Every node runs the full application on a random port against the shared MySQL test container.
+ */
+public final class TestNodes {
+
+    private TestNodes() {
+    }
+
+    /**
+     * Start a node
+     *
+     * @param properties additional properties as key=value pairs
+     * @return the node's application context, to be closed by the caller
+     */
+    public static ConfigurableApplicationContext start(String... properties) {
+        return startOn(MySqlTestContainer.get().getJdbcUrl(), properties);
+    }
+
+    /**
+     * Start a node on another database of the container
+     *
+     * @param jdbcUrl the JDBC URL of the database, see {@link MySqlTestContainer#createDatabase(String)}
+     * @param properties additional properties as key=value pairs
+     * @return the node's application context, to be closed by the caller
+     */
+    public static ConfigurableApplicationContext startOn(String jdbcUrl, String... properties) {
+        // Passed as command line arguments, which take precedence over the application properties files
+        List<String> args = new ArrayList<>();
+        Stream.of(MySqlTestContainer.properties(jdbcUrl)).forEach(property -> args.add("--" + property));
+        args.add("--server.port=0");
+        Stream.of(properties).forEach(property -> args.add("--" + property));
+
+        return new SpringApplicationBuilder(AccessappApplication.class)
+                .profiles("test")
+                .run(args.toArray(new String[0]));
+    }
+}
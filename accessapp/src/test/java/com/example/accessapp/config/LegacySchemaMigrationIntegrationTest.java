@@ -0,0 +1,130 @@
+package com.example.accessapp.config;
+
+import com.example.accessapp.MySqlTestContainer;
+import com.example.accessapp.TestNodes;
+import com.example.accessapp.security.jwt.TokenRevocationStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Starts a node on a database created with the baseline layout of access_db.sql and checks that
+ * the migrations bring it to the current layout without losing revocations or audit history.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class LegacySchemaMigrationIntegrationTest {
+
+    private static final String BASELINE_TOKEN_BLACKLIST = "CREATE TABLE token_blacklist ("
+            + "id bigint NOT NULL AUTO_INCREMENT, "
+            + "blacklisted_at datetime(6) DEFAULT NULL, "
+            + "client_id bigint DEFAULT NULL, "
+            + "expiry_date datetime(6) DEFAULT NULL, "
+            + "token varchar(500) NOT NULL, "
+            + "PRIMARY KEY (id))";
+
+    private static final String INSERT_BASELINE_TOKEN = "INSERT INTO token_blacklist "
+            + "(blacklisted_at, client_id, expiry_date, token) VALUES (NOW(), 1, NOW() + INTERVAL 1 DAY, ?)";
+
+    private static final String BASELINE_AUDIT_LOGS = "CREATE TABLE audit_logs ("
+            + "id bigint NOT NULL AUTO_INCREMENT, "
+            + "action varchar(50) NOT NULL, "
+            + "client_id bigint DEFAULT NULL, "
+            + "details varchar(500) DEFAULT NULL, "
+            + "entity_id bigint DEFAULT NULL, "
+            + "entity_type varchar(100) DEFAULT NULL, "
+            + "ip_address varchar(255) DEFAULT NULL, "
+            + "timestamp datetime(6) DEFAULT NULL, "
+            + "user_agent varchar(255) DEFAULT NULL, "
+            + "user_id bigint DEFAULT NULL, "
+            + "username varchar(255) DEFAULT NULL, "
+            + "PRIMARY KEY (id))";
+
+    private static final String INSERT_BASELINE_AUDIT_LOG =
+            "INSERT INTO audit_logs (action, client_id, timestamp) VALUES (?, ?, ?)";
+
+    private static final String ROLLUP_COUNT = "SELECT event_count FROM audit_log_rollups "
+            + "WHERE client_id = ? AND granularity = ? AND bucket_start = ? AND action = ?";
+
+    @Test
+    void migratesBaselineTokenBlacklist() {
+        String jdbcUrl = MySqlTestContainer.createDatabase("baseline_db");
+        JdbcTemplate jdbcTemplate = jdbcTemplate(jdbcUrl);
+
+        jdbcTemplate.execute(BASELINE_TOKEN_BLACKLIST);
+        jdbcTemplate.update(INSERT_BASELINE_TOKEN, "legacy.token.one");
+        // The baseline did not prevent blacklisting a token twice
+        jdbcTemplate.update(INSERT_BASELINE_TOKEN, "legacy.token.one");
+        jdbcTemplate.update(INSERT_BASELINE_TOKEN, "legacy.token.two");
+
+        ConfigurableApplicationContext node = TestNodes.startOn(jdbcUrl);
+        try {
+            List<String> columns = jdbcTemplate.queryForList("SELECT COLUMN_NAME FROM information_schema.COLUMNS "
+                    + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'token_blacklist'", String.class);
+            assertTrue(columns.contains("token_key"));
+            assertFalse(columns.contains("token"), "The raw token column is dropped");
+
+            Integer uniqueKeys = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.STATISTICS "
+                    + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'token_blacklist' "
+                    + "AND INDEX_NAME = 'uk_token_blacklist_token_key'", Integer.class);
+            assertTrue(uniqueKeys != null && uniqueKeys > 0);
+
+            assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM token_blacklist", Integer.class));
+
+            TokenRevocationStore store = node.getBean(TokenRevocationStore.class);
+            assertTrue(store.isRevoked(sha256("legacy.token.one")));
+            assertTrue(store.isRevoked(sha256("legacy.token.two")));
+        } finally {
+            node.close();
+        }
+    }
+
+    @Test
+    void backfillsRollupsFromBaselineAuditLogs() {
+        String jdbcUrl = MySqlTestContainer.createDatabase("baseline_audit_db");
+        JdbcTemplate jdbcTemplate = jdbcTemplate(jdbcUrl);
+
+        jdbcTemplate.execute(BASELINE_AUDIT_LOGS);
+        jdbcTemplate.update(INSERT_BASELINE_AUDIT_LOG, "LOGIN", 1L, "2025-05-29 10:07:12");
+        jdbcTemplate.update(INSERT_BASELINE_AUDIT_LOG, "LOGIN", 1L, "2025-05-29 10:07:48");
+        jdbcTemplate.update(INSERT_BASELINE_AUDIT_LOG, "LOGIN", 1L, "2025-05-29 13:30:00");
+        jdbcTemplate.update(INSERT_BASELINE_AUDIT_LOG, "REGISTER", null, "2025-05-29 10:23:05");
+
+        ConfigurableApplicationContext node = TestNodes.startOn(jdbcUrl);
+        try {
+            assertEquals(2L, jdbcTemplate.queryForObject(ROLLUP_COUNT, Long.class, 1L, "m", "2025-05-29 10:07:00", "LOGIN"));
+            assertEquals(2L, jdbcTemplate.queryForObject(ROLLUP_COUNT, Long.class, 1L, "h", "2025-05-29 10:00:00", "LOGIN"));
+            assertEquals(1L, jdbcTemplate.queryForObject(ROLLUP_COUNT, Long.class, 1L, "h", "2025-05-29 13:00:00", "LOGIN"));
+            assertEquals(3L, jdbcTemplate.queryForObject(ROLLUP_COUNT, Long.class, 1L, "d", "2025-05-29 00:00:00", "LOGIN"));
+            // Entries without a client are counted under client 0, like the rollup store does
+            assertEquals(1L, jdbcTemplate.queryForObject(ROLLUP_COUNT, Long.class, 0L, "d", "2025-05-29 00:00:00", "REGISTER"));
+        } finally {
+            node.close();
+        }
+    }
+
+    private static JdbcTemplate jdbcTemplate(String jdbcUrl) {
+        return new JdbcTemplate(new DriverManagerDataSource(jdbcUrl,
+                MySqlTestContainer.get().getUsername(), MySqlTestContainer.get().getPassword()));
+    }
+
+    private static String sha256(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.accessapp.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedTtlCacheTest {
+
+    @Test
+    void fullCacheDropsLeastRecentlyUsedEntry() {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(2, 60000);
+        cache.put("a", "1", cache.stamp("a"));
+        cache.put("b", "2", cache.stamp("b"));
+        cache.get("a");
+
+        cache.put("c", "3", cache.stamp("c"));
+
+        assertEquals("1", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals("3", cache.get("c"));
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    void expiredEntryIsAMiss() throws InterruptedException {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(10, 1);
+        cache.put("a", "1", cache.stamp("a"));
+        Thread.sleep(5);
+
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void putRacingAnInvalidationIsIgnored() {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(10, 60000);
+
+        long stamp = cache.stamp("a");
+        cache.invalidate("a");
+        assertFalse(cache.put("a", "stale", stamp));
+        assertNull(cache.get("a"));
+
+        stamp = cache.stamp("a");
+        cache.invalidateIf(value -> false);
+        assertFalse(cache.put("a", "stale", stamp));
+
+        assertTrue(cache.put("a", "fresh", cache.stamp("a")));
+        assertEquals("fresh", cache.get("a"));
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.accessapp.security;
+
+import com.example.accessapp.TestNodes;
+import com.example.accessapp.entity.User;
+import com.example.accessapp.repository.UserRepository;
+import com.example.accessapp.security.jwt.TokenRevocationStore;
+import com.example.accessapp.security.services.UserDetailsCache;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs two nodes against one database and checks that changes made on one node reach the other
+ * through the security_events table.
+ * Scheduled polling is pushed out of the way and the test polls explicitly, so it does not depend on timing.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class SecurityEventFeedIntegrationTest {
+
+    // The first scheduled poll runs at startup, the next one after the tests
+    private static final String POLL_INTERVAL = "accessapp.securityEvents.pollIntervalMs=3600000";
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = TestNodes.start(POLL_INTERVAL);
+        nodeB = TestNodes.start(POLL_INTERVAL);
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (nodeA != null) {
+            nodeA.close();
+        }
+    }
+
+    @Test
+    void revocationReachesOtherNode() {
+        String key = UUID.randomUUID().toString();
+        Instant expiresAt = Instant.now().plus(1, ChronoUnit.HOURS);
+
+        // Same sequence as a logout on node A
+        assertTrue(nodeA.getBean(TokenRevocationStore.class).revoke(key, expiresAt, 1L));
+        nodeA.getBean(SecurityEventFeed.class).publishTokenRevoked(key, expiresAt);
+
+        TokenRevocationStore storeB = nodeB.getBean(TokenRevocationStore.class);
+        nodeB.getBean(SecurityEventFeed.class).poll();
+        assertTrue(storeB.isRevoked(key));
+    }
+
+    @Test
+    void userChangeInvalidatesOtherNodesCache() {
+        User user = nodeB.getBean(UserRepository.class).findFirstByRoleName("SUPER_ADMIN").orElseThrow();
+        UserDetailsCache cacheB = nodeB.getBean(UserDetailsCache.class);
+
+        nodeB.getBean(UserDetailsService.class).loadUserByUsername(user.getUsername());
+        assertNotNull(cacheB.get(user.getUsername()));
+
+        nodeA.getBean(SecurityEventFeed.class).publishUserChanged(user.getId(), user.getUsername());
+
+        nodeB.getBean(SecurityEventFeed.class).poll();
+        assertNull(cacheB.get(user.getUsername()));
+    }
+
+    @Test
+    void nodeIgnoresItsOwnEvents() {
+        String key = UUID.randomUUID().toString();
+        Instant expiresAt = Instant.now().plus(1, ChronoUnit.HOURS);
+
+        // Publishing alone does not revoke locally; the publisher applies its own changes before publishing
+        nodeA.getBean(SecurityEventFeed.class).publishTokenRevoked(key, expiresAt);
+        nodeA.getBean(SecurityEventFeed.class).poll();
+        assertFalse(nodeA.getBean(TokenRevocationStore.class).isRevoked(key));
+
+        nodeB.getBean(SecurityEventFeed.class).poll();
+        assertTrue(nodeB.getBean(TokenRevocationStore.class).isRevoked(key));
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.accessapp.security.ratelimit;
+
+import com.example.accessapp.TestNodes;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs two nodes against one database and checks that they enforce a single limit together
+ * through the rate_limit_counters table.
+ * The nodes' own background syncs keep running; the test syncs explicitly so it does not depend on timing.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class DistributedRateLimiterIntegrationTest {
+
+    // Long enough that a test run never straddles two windows in practice
+    private static final RateLimitRule RULE = new RateLimitRule("shared", 10, 3_600_000);
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = TestNodes.start("accessapp.rateLimit.store=JDBC");
+        nodeB = TestNodes.start("accessapp.rateLimit.store=JDBC");
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (nodeA != null) {
+            nodeA.close();
+        }
+    }
+
+    @Test
+    void nodesShareOneLimit() {
+        DistributedRateLimiter limiterA = limiter(nodeA);
+        DistributedRateLimiter limiterB = limiter(nodeB);
+        String key = "test:" + UUID.randomUUID();
+
+        for (int i = 0; i < 6; i++) {
+            assertTrue(limiterA.tryAcquire(key, RULE).isAllowed());
+        }
+        limiterA.sync();
+
+        // Node B only reads back the keys it has seen, so its first request is decided locally
+        assertTrue(limiterB.tryAcquire(key, RULE).isAllowed());
+        limiterB.sync();
+
+        // Node B now sees the six requests of node A: three more fit in the limit of ten
+        int allowedOnB = 0;
+        while (limiterB.tryAcquire(key, RULE).isAllowed()) {
+            allowedOnB++;
+        }
+        assertEquals(3, allowedOnB);
+
+        limiterB.sync();
+        limiterA.sync();
+        assertFalse(limiterA.tryAcquire(key, RULE).isAllowed());
+    }
+
+    @Test
+    void newNodeSeesExistingCounts() {
+        String key = "test:" + UUID.randomUUID();
+        DistributedRateLimiter limiterA = limiter(nodeA);
+        for (int i = 0; i < RULE.getLimit(); i++) {
+            assertTrue(limiterA.tryAcquire(key, RULE).isAllowed());
+        }
+        limiterA.sync();
+
+        // A node started after the requests reads the shared count on its first sync
+        ConfigurableApplicationContext nodeC = TestNodes.start("accessapp.rateLimit.store=JDBC");
+        try {
+            DistributedRateLimiter limiterC = limiter(nodeC);
+            limiterC.tryAcquire(key, RULE);
+            limiterC.sync();
+            assertFalse(limiterC.tryAcquire(key, RULE).isAllowed());
+        } finally {
+            nodeC.close();
+        }
+    }
+
+    @Test
+    void concurrentRequestsDoNotExceedLimit() throws Exception {
+        DistributedRateLimiter limiterA = limiter(nodeA);
+        String key = "test:" + UUID.randomUUID();
+        int threads = 32;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    int allowed = 0;
+                    for (int i = 0; i < 5; i++) {
+                        if (limiterA.tryAcquire(key, RULE).isAllowed()) {
+                            allowed++;
+                        }
+                    }
+                    return allowed;
+                }));
+            }
+            start.countDown();
+
+            int allowed = 0;
+            for (Future<Integer> result : results) {
+                allowed += result.get(10, TimeUnit.SECONDS);
+            }
+            assertEquals(RULE.getLimit(), allowed);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static DistributedRateLimiter limiter(ConfigurableApplicationContext node) {
+        return assertInstanceOf(DistributedRateLimiter.class, node.getBean(RateLimiter.class));
+    }
+}
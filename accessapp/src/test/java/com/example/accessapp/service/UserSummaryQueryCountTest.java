@@ -0,0 +1,104 @@
+package com.example.accessapp.service;
+
+import com.example.accessapp.MySqlTestContainer;
+import com.example.accessapp.dto.UserSummaryDto;
+import com.example.accessapp.entity.Role;
+import com.example.accessapp.entity.User;
+import com.example.accessapp.repository.RoleRepository;
+import com.example.accessapp.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a page of user summaries costs the same number of queries whatever its size,
+ * i.e. that roles are loaded for the whole page at once instead of once per user.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class UserSummaryQueryCountTest {
+
+    private static final String ROLE_NAME = "PAGE_TEST";
+    private static final int USER_COUNT = 40;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        MySqlTestContainer.register(registry);
+    }
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void createUsers() {
+        Role role = roleRepository.findByName(ROLE_NAME).orElseGet(() -> {
+            Role created = new Role(ROLE_NAME, "Query count test role");
+            created.setClientId(1L);
+            return roleRepository.save(created);
+        });
+
+        for (int i = 0; i < USER_COUNT; i++) {
+            String username = "pagetest" + i;
+            if (userRepository.existsByUsername(username)) {
+                continue;
+            }
+            User user = new User(username, username + "@example.com", "{noop}password");
+            user.setClientId(1L);
+            // Save the user first to get an ID, then assign the role
+            user = userRepository.save(user);
+            user.setRoles(Set.of(role));
+            userRepository.save(user);
+        }
+    }
+
+    @Test
+    void findSummariesUsesConstantQueryCount() {
+        long smallPage = countStatements(5);
+        long mediumPage = countStatements(10);
+        long largePage = countStatements(USER_COUNT);
+
+        // Page, count and roles queries
+        assertEquals(3, smallPage);
+        assertEquals(smallPage, mediumPage);
+        assertEquals(smallPage, largePage);
+    }
+
+    private long countStatements(int pageSize) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Page<UserSummaryDto> page = userService.findSummaries(PageRequest.of(0, pageSize));
+
+        assertEquals(pageSize, page.getNumberOfElements());
+        assertTrue(page.getContent().stream()
+                        .filter(user -> user.getUsername().startsWith("pagetest"))
+                        .allMatch(user -> user.getRoles().contains(ROLE_NAME)),
+                "Roles are filled in for every user of the page");
+        return statistics.getPrepareStatementCount();
+    }
+}